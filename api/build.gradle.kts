@@ -19,3 +19,26 @@ dependencies {
 
     implementation("com.github.Carleslc.Simple-YAML:Simple-Yaml:1.8.4")
 }
+
+// Timed harnesses for storage and region lookups, run with e.g. ./gradlew :api:snapshotBenchmark
+sourceSets {
+    create("benchmark") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+configurations["benchmarkImplementation"].extendsFrom(configurations.compileOnly.get(), configurations.implementation.get())
+
+mapOf(
+    "snapshotBenchmark" to "de.t14d3.zones.benchmark.SnapshotBenchmark",
+    "membersCodecBenchmark" to "de.t14d3.zones.benchmark.MembersCodecBenchmark",
+    "regionStressTest" to "de.t14d3.zones.benchmark.RegionStressTest",
+).forEach { (name, mainClass) ->
+    tasks.register<JavaExec>(name) {
+        group = "verification"
+        classpath = sourceSets["benchmark"].runtimeClasspath
+        this.mainClass.set(mainClass)
+        args = (project.findProperty("benchmarkArgs") as String?)?.split(" ") ?: emptyList()
+    }
+}
@@ -0,0 +1,111 @@
+package de.t14d3.zones.benchmark;
+
+import de.t14d3.zones.ZonesPlatform;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.Player;
+import de.t14d3.zones.objects.World;
+import de.t14d3.zones.utils.Types;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Platform without a server, used to run Zones in the benchmarks.
+ * Worlds are created on demand, players do not exist and tasks run on the calling thread.
+ */
+public class HeadlessPlatform implements ZonesPlatform {
+    private final File dataFolder;
+    private final List<World> worlds = new ArrayList<>();
+
+    public HeadlessPlatform() throws IOException {
+        this.dataFolder = Files.createTempDirectory("zones-benchmark").toFile();
+        this.dataFolder.deleteOnExit();
+    }
+
+    public World addWorld(String name) {
+        World world = World.of(name, UUID.nameUUIDFromBytes(name.getBytes()));
+        worlds.add(world);
+        return world;
+    }
+
+    @Override
+    public List<World> getWorlds() {
+        return worlds;
+    }
+
+    @Override
+    public Player getPlayer(UUID uuid) {
+        return null;
+    }
+
+    @Override
+    public Audience getAudience(Player player) {
+        return Audience.empty();
+    }
+
+    @Override
+    public boolean hasPermission(Player player, String permission) {
+        return false;
+    }
+
+    @Override
+    public ZonesPlatform getPlatform() {
+        return this;
+    }
+
+    @Override
+    public File getDataFolder() {
+        return dataFolder;
+    }
+
+    @Override
+    public Types getTypes() {
+        return new Types() {
+            @Override
+            public void populateTypes() {
+            }
+        };
+    }
+
+    @Override
+    public World getWorld(Player player) {
+        return null;
+    }
+
+    @Override
+    public BlockLocation getLocation(Player player) {
+        return null;
+    }
+
+    @Override
+    public String getMetadata(Player player, String key) {
+        return null;
+    }
+
+    @Override
+    public void setMetadata(Player player, String key, String value) {
+    }
+
+    @Override
+    public void spawnParticle(int type, BlockLocation particleLocation, Player player) {
+    }
+
+    @Override
+    public void showBeacon(Player player, BlockLocation location, World world, NamedTextColor color) {
+    }
+
+    @Override
+    public void removeBeacon(Player player, World world, BlockLocation location) {
+    }
+
+    @Override
+    public void runTask(Runnable task) {
+        task.run();
+    }
+}
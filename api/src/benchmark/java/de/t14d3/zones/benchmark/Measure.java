@@ -0,0 +1,68 @@
+package de.t14d3.zones.benchmark;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Timing and test data shared by the benchmarks.
+ */
+final class Measure {
+    private static volatile Object sink;
+
+    private Measure() {
+    }
+
+    /**
+     * Runs a task for the given number of warmup and measured iterations and prints the average time.
+     *
+     * @return The average time of a measured iteration in nanoseconds.
+     */
+    static double time(String name, int warmup, int iterations, Supplier<?> task) {
+        for (int i = 0; i < warmup; i++) {
+            sink = task.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        double average = (System.nanoTime() - start) / (double) iterations;
+        System.out.printf("%-40s %12.3f ms/op%n", name, average / 1_000_000);
+        return average;
+    }
+
+    /**
+     * Generates non-overlapping regions on a grid, each with an owner and a few members.
+     */
+    static List<Region> regions(World world, int count, long seed) {
+        Random random = new Random(seed);
+        int side = (int) Math.ceil(Math.sqrt(count));
+        List<Region> regions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int x = (i % side) * 64;
+            int z = (i / side) * 64;
+            int size = 8 + random.nextInt(48);
+            Map<String, List<RegionFlagEntry>> members = new HashMap<>();
+            members.put(UUID.randomUUID().toString(), List.of(new RegionFlagEntry("role", "owner", false)));
+            for (int m = random.nextInt(4); m > 0; m--) {
+                members.put(UUID.randomUUID().toString(), List.of(
+                        new RegionFlagEntry("break", "true", false),
+                        new RegionFlagEntry("place", "true", false),
+                        new RegionFlagEntry("container", "chest", random.nextBoolean())));
+            }
+            regions.add(new Region("region-" + i, BlockLocation.of(x, -64, z),
+                    BlockLocation.of(x + size, 320, z + size), world, members, new RegionKey(i + 1), 0));
+        }
+        return regions;
+    }
+}
@@ -0,0 +1,65 @@
+package de.t14d3.zones.benchmark;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.datasource.codec.BinaryMembersCodec;
+import de.t14d3.zones.datasource.codec.JsonMembersCodec;
+import de.t14d3.zones.datasource.codec.MembersCodec;
+import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares encoding and decoding the members of regions with the JSON and the binary {@link MembersCodec}.
+ * <p>
+ * Arguments: number of regions (default 10000), measured iterations (default 50).
+ */
+public class MembersCodecBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        World world = World.of("world", UUID.nameUUIDFromBytes("world".getBytes()));
+        List<Map<String, List<RegionFlagEntry>>> members = new ArrayList<>(count);
+        for (Region region : Measure.regions(world, count, 42)) {
+            members.add(region.getMembers());
+        }
+
+        int warmup = Math.max(1, iterations / 4);
+        double[] decodeTimes = new double[2];
+        MembersCodec[] codecs = {JsonMembersCodec.INSTANCE, BinaryMembersCodec.INSTANCE};
+        for (int c = 0; c < codecs.length; c++) {
+            MembersCodec codec = codecs[c];
+            List<byte[]> encoded = new ArrayList<>(count);
+            long size = 0;
+            for (Map<String, List<RegionFlagEntry>> entry : members) {
+                byte[] data = codec.encode(entry);
+                if (!codec.decode(data).keySet().equals(entry.keySet())) {
+                    throw new IllegalStateException(codec.getName() + " does not decode what it encoded");
+                }
+                encoded.add(data);
+                size += data.length;
+            }
+            System.out.printf("%s: %d regions, %d KB%n", codec.getName(), count, size / 1024);
+            Measure.time(codec.getName() + " encode", warmup, iterations, () -> {
+                Object last = null;
+                for (Map<String, List<RegionFlagEntry>> entry : members) {
+                    last = codec.encode(entry);
+                }
+                return last;
+            });
+            decodeTimes[c] = Measure.time(codec.getName() + " decode", warmup, iterations, () -> {
+                Object last = null;
+                for (byte[] data : encoded) {
+                    last = codec.decode(data);
+                }
+                return last;
+            });
+        }
+        System.out.printf("Binary decodes %.1fx faster%n", decodeTimes[0] / decodeTimes[1]);
+    }
+}
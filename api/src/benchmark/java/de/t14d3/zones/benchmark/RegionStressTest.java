@@ -0,0 +1,199 @@
+package de.t14d3.zones.benchmark;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionIndex;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.RegionManager;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads regions from several threads while others create, move and delete regions, and checks that every
+ * reader sees a consistent {@link RegionIndex}.
+ * <p>
+ * Checked on every read: returned regions contain the location, regions that are never changed are always found,
+ * and index versions never go backwards. Regularly checked: every region of a world is found by its key
+ * in the same snapshot. At the end the index must hold exactly the regions the writers left behind.
+ * <p>
+ * Arguments: reader threads (default 4), writer threads (default 2), seconds (default 10).
+ * Exits with status 1 if any check failed.
+ */
+public class RegionStressTest {
+    private static final int STABLE_REGIONS = 1_000;
+    private static final int MAX_REGIONS_PER_WRITER = 64;
+
+    public static void main(String[] args) throws Exception {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        HeadlessPlatform platform = new HeadlessPlatform();
+        World world = platform.addWorld("world");
+        Zones zones = new Zones(platform);
+        RegionManager manager = zones.getRegionManager();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        try {
+            manager.loadRegions(world);
+            List<Region> stable = Measure.regions(world, STABLE_REGIONS, 42);
+            for (Region region : stable) {
+                manager.addRegion(region);
+            }
+            int area = (int) Math.ceil(Math.sqrt(STABLE_REGIONS)) * 64;
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong reads = new AtomicLong();
+            AtomicLong writes = new AtomicLong();
+            List<Thread> threads = new ArrayList<>();
+            List<Map<Integer, Region>> written = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                Map<Integer, Region> live = new HashMap<>();
+                written.add(live);
+                int keyBase = 0x10000000 * (w + 1);
+                long seed = w;
+                threads.add(Thread.ofPlatform().name("Writer " + w).start(() -> {
+                    Random random = new Random(seed);
+                    int next = 0;
+                    List<Integer> keys = new ArrayList<>();
+                    while (running.get()) {
+                        try {
+                            int op = random.nextInt(3);
+                            if (keys.isEmpty() || op == 0 && keys.size() < MAX_REGIONS_PER_WRITER) {
+                                RegionKey key = new RegionKey(keyBase + next++);
+                                BlockLocation min = randomCorner(random, area);
+                                Region region = manager.createNewRegion(key, "stress-" + key, min,
+                                        randomCorner(random, min), world,
+                                        new HashMap<>(), 0);
+                                live.put(key.getValue(), region);
+                                keys.add(key.getValue());
+                            } else if (op == 1) {
+                                Integer key = keys.remove(random.nextInt(keys.size()));
+                                manager.deleteRegion(new RegionKey(key));
+                                live.remove(key);
+                            } else {
+                                Region region = live.get(keys.get(random.nextInt(keys.size())));
+                                BlockLocation min = randomCorner(random, area);
+                                manager.redefineBounds(region, min,
+                                        randomCorner(random, min));
+                            }
+                            writes.incrementAndGet();
+                        } catch (Exception e) {
+                            failures.add(Thread.currentThread().getName() + " failed: " + e);
+                        }
+                    }
+                }));
+            }
+            for (int r = 0; r < readers; r++) {
+                long seed = 1000 + r;
+                threads.add(Thread.ofPlatform().name("Reader " + r).start(() -> {
+                    Random random = new Random(seed);
+                    long lastVersion = -1;
+                    long count = 0;
+                    while (running.get()) {
+                        try {
+                            RegionIndex index = manager.getIndex();
+                            if (index.getVersion() < lastVersion) {
+                                failures.add("Index version went back from " + lastVersion + " to " + index.getVersion());
+                            }
+                            lastVersion = index.getVersion();
+
+                            Region expected = stable.get(random.nextInt(stable.size()));
+                            BlockLocation location = BlockLocation.of(expected.getMin().getX() + 1, 0, expected.getMin().getZ() + 1);
+                            boolean found = false;
+                            for (Region region : manager.getRegionsAt(location, world)) {
+                                found |= region == expected;
+                                if (!region.contains(location)) {
+                                    failures.add(region.getKey() + " returned for " + location + " it does not contain");
+                                }
+                            }
+                            if (!found) {
+                                failures.add(expected.getKey() + " not found at " + location);
+                            }
+
+                            if (++count % 1024 == 0) {
+                                checkSnapshot(index, world, failures);
+                            }
+                        } catch (Exception e) {
+                            failures.add(Thread.currentThread().getName() + " failed: " + e);
+                        }
+                    }
+                    reads.addAndGet(count);
+                }));
+            }
+
+            Thread.sleep(seconds * 1000L);
+            running.set(false);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            RegionIndex index = manager.getIndex();
+            checkSnapshot(index, world, failures);
+            int expectedSize = STABLE_REGIONS;
+            for (Map<Integer, Region> live : written) {
+                expectedSize += live.size();
+                for (Map.Entry<Integer, Region> entry : live.entrySet()) {
+                    if (index.get(entry.getKey()) != entry.getValue()) {
+                        failures.add("Region " + entry.getValue().getKey() + " is missing after the run");
+                    }
+                }
+            }
+            if (index.size() != expectedSize) {
+                failures.add("Index holds " + index.size() + " regions after the run, expected " + expectedSize);
+            }
+
+            System.out.printf("%d readers, %d writers, %d s: %.0f reads/s, %.0f writes/s, final version %d%n",
+                    readers, writers, seconds, reads.get() / (double) seconds, writes.get() / (double) seconds,
+                    index.getVersion());
+        } finally {
+            zones.shutdown();
+        }
+
+        if (!failures.isEmpty()) {
+            System.out.println(failures.size() + " checks failed, first ones:");
+            failures.stream().limit(20).forEach(failure -> System.out.println("  " + failure));
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+    }
+
+    private static BlockLocation randomCorner(Random random, int area) {
+        return BlockLocation.of(random.nextInt(area), 0, random.nextInt(area));
+    }
+
+    private static BlockLocation randomCorner(Random random, BlockLocation min) {
+        return BlockLocation.of(min.getX() + 1 + random.nextInt(100), 64, min.getZ() + 1 + random.nextInt(100));
+    }
+
+    /**
+     * Checks that the regions of a world and the regions by key agree within one snapshot.
+     */
+    private static void checkSnapshot(RegionIndex index, World world, Queue<String> failures) {
+        Int2ObjectMap<Region> regions = index.regions(world.getUID());
+        if (regions == null) {
+            failures.add("World " + world.getName() + " is not loaded in version " + index.getVersion());
+            return;
+        }
+        if (regions.size() != index.size()) {
+            failures.add("Version " + index.getVersion() + " has " + regions.size() + " regions in the world but "
+                    + index.size() + " in total");
+        }
+        for (Int2ObjectMap.Entry<Region> entry : regions.int2ObjectEntrySet()) {
+            if (index.get(entry.getIntKey()) != entry.getValue()) {
+                failures.add("Version " + index.getVersion() + " lists " + entry.getValue().getKey()
+                        + " in the world but not by key");
+            }
+        }
+    }
+}
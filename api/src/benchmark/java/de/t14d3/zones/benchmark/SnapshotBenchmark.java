@@ -0,0 +1,58 @@
+package de.t14d3.zones.benchmark;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.datasource.SnapshotStore;
+import de.t14d3.zones.datasource.YamlDataSource;
+import de.t14d3.zones.objects.World;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Compares loading the regions of a world from {@code regions.yml} with reading them from the {@link SnapshotStore}.
+ * <p>
+ * Arguments: number of regions (default 10000), measured iterations (default 20).
+ */
+public class SnapshotBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        HeadlessPlatform platform = new HeadlessPlatform();
+        World world = platform.addWorld("world");
+        Zones zones = new Zones(platform);
+        try {
+            File folder = new File(platform.getDataFolder(), "benchmark");
+            folder.mkdirs();
+            List<Region> regions = Measure.regions(world, count, 42);
+
+            YamlDataSource yaml = new YamlDataSource(folder, zones);
+            yaml.saveRegions(regions);
+            yaml.whenSaved().join();
+            long stamp = yaml.getLastModified();
+
+            SnapshotStore snapshot = new SnapshotStore(zones, new File(folder, "regions.snapshot"));
+            snapshot.write(regions, List.of(world), stamp);
+
+            List<Region> fromSnapshot = snapshot.read(world, stamp);
+            List<Region> fromYaml = new YamlDataSource(folder, zones).loadRegions(world);
+            if (fromSnapshot == null || fromSnapshot.size() != count || fromYaml.size() != count) {
+                throw new IllegalStateException("Expected " + count + " regions, got " + fromYaml.size()
+                        + " from YAML and " + (fromSnapshot == null ? "none" : fromSnapshot.size()) + " from the snapshot");
+            }
+
+            System.out.printf("%d regions, regions.yml %d KB, snapshot %d KB%n", count,
+                    new File(folder, "regions.yml").length() / 1024, snapshot.getFile().length() / 1024);
+            int warmup = Math.max(1, iterations / 4);
+            double yamlTime = Measure.time("YAML (parse + load world)", warmup, iterations,
+                    () -> new YamlDataSource(folder, zones).loadRegions(world));
+            double snapshotTime = Measure.time("Snapshot (map + decode world)", warmup, iterations,
+                    () -> snapshot.read(world, stamp));
+            System.out.printf("Snapshot is %.1fx faster%n", yamlTime / snapshotTime);
+        } finally {
+            zones.shutdown();
+        }
+    }
+}
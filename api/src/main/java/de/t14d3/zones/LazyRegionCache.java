@@ -0,0 +1,324 @@
+package de.t14d3.zones;
+
+import de.t14d3.zones.datasource.DataSourceManager;
+import de.t14d3.zones.objects.ChunkPresenceMap;
+import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Keeps only the regions around loaded chunks in memory, used with database storage when
+ * {@code storage.lazy-loading.enabled} is set.
+ * <p>
+ * A {@link ChunkPresenceMap} per world tells which chunks contain regions at all, so lookups in the wilderness
+ * never touch the database. Regions of a chunk are queried in the background when the chunk loads or,
+ * if that has not happened yet, on the first lookup, which reports the chunk as {@link ChunkState#LOADING}
+ * until then. Every region counts the loaded chunks it covers;
+ * regions no longer covering any loaded chunk are kept in a bounded LRU and unloaded once it is full.
+ * <p>
+ * Changes are made under the write lock of the region manager, as loading regions changes its index.
+ * Lookups of loaded chunks only read the presence maps and the loaded chunk sets, which are concurrent,
+ * so they never take the lock. Regions are published to the index before their chunks are marked as loaded.
+ * Chunks that are not loaded yet are queried without holding the lock.
+ */
+class LazyRegionCache {
+    private final Zones plugin;
+    private final RegionManager regionManager;
+    private final DataSourceManager dataSourceManager;
+    private final int maxUnreferenced;
+
+    private final Map<UUID, ChunkPresenceMap> presence = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Long>> hydratedChunks = new ConcurrentHashMap<>();
+    // Chunks queried in the background right now, so every chunk is only queried once
+    private final Map<UUID, Set<Long>> loadingChunks = new ConcurrentHashMap<>();
+    private final Map<UUID, LongOpenHashSet> loadedChunks = new HashMap<>();
+    private final Int2IntOpenHashMap references = new Int2IntOpenHashMap();
+    private final LinkedHashMap<Integer, Region> unreferenced = new LinkedHashMap<>(16, 0.75f, true);
+    // Incremented on deletion, so background queries started before a deletion are discarded
+    private volatile int generation;
+
+    LazyRegionCache(Zones plugin, RegionManager regionManager, DataSourceManager dataSourceManager) {
+        this.plugin = plugin;
+        this.regionManager = regionManager;
+        this.dataSourceManager = dataSourceManager;
+        this.maxUnreferenced = plugin.getConfig().getInt("storage.lazy-loading.cache-size", 10000);
+    }
+
+    void loadWorld(World world) {
+        long start = System.nanoTime();
+        ChunkPresenceMap worldPresence = dataSourceManager.loadChunkPresence(world);
+        synchronized (regionManager.lock) {
+            presence.put(world.getUID(), worldPresence);
+            hydratedChunks.put(world.getUID(), ConcurrentHashMap.newKeySet());
+            loadingChunks.put(world.getUID(), ConcurrentHashMap.newKeySet());
+            loadedChunks.putIfAbsent(world.getUID(), new LongOpenHashSet());
+        }
+        plugin.getDebugLogger().log("Loaded chunk presence of " + world.getName() + " in "
+                + (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+
+    void unloadWorld(World world) {
+        synchronized (regionManager.lock) {
+            presence.remove(world.getUID());
+            hydratedChunks.remove(world.getUID());
+            loadingChunks.remove(world.getUID());
+            loadedChunks.remove(world.getUID());
+        }
+    }
+
+    /**
+     * Starts loading the regions of a chunk in the background.
+     */
+    void onChunkLoad(World world, int chunkX, int chunkZ) {
+        synchronized (regionManager.lock) {
+            LongOpenHashSet loaded = loadedChunks.computeIfAbsent(world.getUID(), k -> new LongOpenHashSet());
+            long key = RegionManager.chunkKey(chunkX, chunkZ);
+            if (!loaded.add(key)) {
+                return;
+            }
+            for (Region region : regionManager.getChunkCandidates(world, key)) {
+                int references = this.references.addTo(region.getKey().getValue(), 1) + 1;
+                if (references == 1) {
+                    unreferenced.remove(region.getKey().getValue());
+                }
+            }
+            ChunkPresenceMap worldPresence = presence.get(world.getUID());
+            if (worldPresence == null || !worldPresence.has(chunkX, chunkZ)
+                    || hydratedChunks.get(world.getUID()).contains(key)) {
+                return;
+            }
+            loadInBackground(world, chunkX, chunkZ);
+        }
+    }
+
+    void onChunkUnload(World world, int chunkX, int chunkZ) {
+        synchronized (regionManager.lock) {
+            LongOpenHashSet loaded = loadedChunks.get(world.getUID());
+            long key = RegionManager.chunkKey(chunkX, chunkZ);
+            if (loaded == null || !loaded.remove(key)) {
+                return;
+            }
+            for (Region region : regionManager.getChunkCandidates(world, key)) {
+                int references = this.references.addTo(region.getKey().getValue(), -1) - 1;
+                if (references <= 0) {
+                    this.references.remove(region.getKey().getValue());
+                    unreferenced.put(region.getKey().getValue(), region);
+                }
+            }
+            trim();
+        }
+    }
+
+    /**
+     * Starts loading the regions of a chunk if they are not loaded yet, without blocking.
+     *
+     * @return Whether the regions touching the chunk are known.
+     */
+    ChunkState ensureLoaded(World world, int chunkX, int chunkZ) {
+        ChunkPresenceMap worldPresence = presence.get(world.getUID());
+        if (worldPresence == null || !worldPresence.has(chunkX, chunkZ)) {
+            return ChunkState.EMPTY;
+        }
+        Set<Long> hydrated = hydratedChunks.get(world.getUID());
+        if (hydrated == null || hydrated.contains(RegionManager.chunkKey(chunkX, chunkZ))) {
+            return ChunkState.LOADED;
+        }
+        loadInBackground(world, chunkX, chunkZ);
+        return ChunkState.LOADING;
+    }
+
+    private void loadInBackground(World world, int chunkX, int chunkZ) {
+        Set<Long> loading = loadingChunks.get(world.getUID());
+        long key = RegionManager.chunkKey(chunkX, chunkZ);
+        if (loading == null || !loading.add(key)) {
+            return;
+        }
+        try {
+            plugin.getScheduler().execute(() -> {
+                try {
+                    load(world, chunkX, chunkZ, chunkX, chunkZ);
+                } finally {
+                    loading.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(key); // Requested again on the next lookup
+        }
+    }
+
+    /**
+     * Makes sure all regions touching a chunk range are loaded, e.g. before an overlap check.
+     * Blocks until they are queried.
+     */
+    void ensureLoaded(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        if (presence.containsKey(world.getUID())) {
+            load(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+        }
+    }
+
+    /**
+     * Queries the regions of a chunk range without holding the lock and adds them to the index.
+     * The query is repeated if a region was deleted in the meantime, as it could still be part of the result.
+     */
+    private void load(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        while (true) {
+            int queryGeneration = generation;
+            List<Region> regions = dataSourceManager.loadRegionsInChunks(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+            synchronized (regionManager.lock) {
+                if (queryGeneration == generation) {
+                    hydrate(world, regions, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void hydrate(World world, List<Region> regions, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        Set<Long> hydrated = hydratedChunks.get(world.getUID());
+        if (hydrated == null) {
+            return; // World was unloaded in the meantime
+        }
+        regionManager.update(builder -> {
+            for (Region region : regions) {
+                if (!regionManager.isRegionLoaded(region.getKey().getValue())) {
+                    regionManager.addRegion(region); // Calls onIndexed
+                }
+            }
+        });
+        // Large areas are not marked, their chunks are queried again on lookup
+        if ((long) (maxChunkX - minChunkX + 1) * (maxChunkZ - minChunkZ + 1) <= 4096) {
+            for (int x = minChunkX; x <= maxChunkX; x++) {
+                for (int z = minChunkZ; z <= maxChunkZ; z++) {
+                    hydrated.add(RegionManager.chunkKey(x, z));
+                }
+            }
+        }
+        trim();
+    }
+
+    /**
+     * Called whenever a region is added to or moved in the chunk index.
+     */
+    void onIndexed(Region region) {
+        synchronized (regionManager.lock) {
+            World world = region.getWorld();
+            ChunkPresenceMap worldPresence = presence.get(world.getUID());
+            if (worldPresence != null) {
+                worldPresence.markBlocks(region.getMin().getX(), region.getMin().getZ(),
+                        region.getMax().getX(), region.getMax().getZ());
+            }
+            int references = countLoadedChunks(world, region);
+            if (references > 0) {
+                this.references.put(region.getKey().getValue(), references);
+                unreferenced.remove(region.getKey().getValue());
+            } else {
+                this.references.remove(region.getKey().getValue());
+                unreferenced.put(region.getKey().getValue(), region);
+            }
+        }
+    }
+
+    /**
+     * Called whenever a region is removed from memory.
+     */
+    void onRemoved(Region region, boolean deleted) {
+        synchronized (regionManager.lock) {
+            references.remove(region.getKey().getValue());
+            unreferenced.remove(region.getKey().getValue());
+            if (deleted) {
+                generation++;
+            }
+        }
+    }
+
+    /**
+     * Discards the results of background queries still running, e.g. after a region was deleted elsewhere.
+     */
+    void discardPending() {
+        synchronized (regionManager.lock) {
+            generation++;
+        }
+    }
+
+    private int countLoadedChunks(World world, Region region) {
+        LongOpenHashSet loaded = loadedChunks.get(world.getUID());
+        if (loaded == null || loaded.isEmpty()) {
+            return 0;
+        }
+        int minX = region.getMin().getX() >> 4;
+        int minZ = region.getMin().getZ() >> 4;
+        int maxX = region.getMax().getX() >> 4;
+        int maxZ = region.getMax().getZ() >> 4;
+        int count = 0;
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) <= loaded.size()) {
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (loaded.contains(RegionManager.chunkKey(x, z))) {
+                        count++;
+                    }
+                }
+            }
+        } else {
+            for (long key : loaded) {
+                int x = (int) (key >> 32);
+                int z = (int) key;
+                if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private void trim() {
+        // Unloaded regions are published as one index update
+        regionManager.update(builder -> {
+            Iterator<Region> iterator = unreferenced.values().iterator();
+            while (unreferenced.size() > maxUnreferenced && iterator.hasNext()) {
+                Region region = iterator.next();
+                iterator.remove();
+                regionManager.unindexRegion(region);
+                // Chunks of the region are incomplete now and have to be queried again
+                Set<Long> hydrated = hydratedChunks.get(region.getWorld().getUID());
+                if (hydrated != null) {
+                    int minX = region.getMin().getX() >> 4;
+                    int minZ = region.getMin().getZ() >> 4;
+                    int maxX = region.getMax().getX() >> 4;
+                    int maxZ = region.getMax().getZ() >> 4;
+                    if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) <= hydrated.size()) {
+                        for (int x = minX; x <= maxX; x++) {
+                            for (int z = minZ; z <= maxZ; z++) {
+                                hydrated.remove(RegionManager.chunkKey(x, z));
+                            }
+                        }
+                    } else {
+                        hydrated.removeIf(key -> {
+                            int x = (int) (key >> 32);
+                            int z = key.intValue();
+                            return x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+                        });
+                    }
+                }
+            }
+        });
+    }
+
+    enum ChunkState {
+        /**
+         * No region touches the chunk.
+         */
+        EMPTY,
+        /**
+         * All regions touching the chunk are in the index.
+         */
+        LOADED,
+        /**
+         * Regions touching the chunk are queried in the background, the index may miss some of them.
+         */
+        LOADING
+    }
+}
@@ -8,6 +8,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a region in the plugin.
@@ -23,6 +25,8 @@ public class Region {
     private RegionKey key;
     private RegionKey parent;
     private int priority;
+    private @Nullable RegionShape shape;
+    private volatile int version;
 
     /**
      * Constructs a new region with the given name, minimum and maximum locations,
@@ -41,15 +45,45 @@ public class Region {
     public Region(@NotNull String name, @NotNull BlockLocation min, @NotNull BlockLocation max, @NotNull World world,
                   Map<String, List<RegionFlagEntry>> members, @NotNull RegionKey key, @Nullable RegionKey parent,
                   int priority) {
+        this(name, min, max, world, members, key, parent, priority, null);
+    }
+
+    /**
+     * Constructs a new region with a non-cuboid footprint.
+     * The X/Z bounds should enclose the shape, they are used to index the region.
+     *
+     * @param shape The footprint of the region, or {@code null} for a cuboid.
+     * @see #Region(String, BlockLocation, BlockLocation, World, Map, RegionKey, RegionKey, int)
+     */
+    public Region(@NotNull String name, @NotNull BlockLocation min, @NotNull BlockLocation max, @NotNull World world,
+                  Map<String, List<RegionFlagEntry>> members, @NotNull RegionKey key, @Nullable RegionKey parent,
+                  int priority, @Nullable RegionShape shape) {
         // noinspection ConstantConditions
         this.name = name == null ? key.toString() : name;
         this.min = min;
         this.max = max;
         this.world = world;
-        this.members = (members != null) ? members : new HashMap<>();
+        this.members = copyMembers(members);
         this.key = key;
         this.parent = parent;
         this.priority = priority;
+        this.shape = shape;
+    }
+
+    /**
+     * Permission checks may read the members from several threads (e.g. on Folia),
+     * so they are kept in concurrent collections.
+     */
+    private static Map<String, List<RegionFlagEntry>> copyMembers(@Nullable Map<String, List<RegionFlagEntry>> members) {
+        Map<String, List<RegionFlagEntry>> copy = new ConcurrentHashMap<>();
+        if (members != null) {
+            members.forEach((who, entries) -> {
+                if (who != null && entries != null) {
+                    copy.put(who, new CopyOnWriteArrayList<>(entries));
+                }
+            });
+        }
+        return copy;
     }
 
     // Constructor overload for regions without parent
@@ -87,6 +121,7 @@ public class Region {
 
     void setMin(BlockLocation min) {
         this.min = min;
+        changed();
     }
 
     public String getMinString() {
@@ -99,6 +134,7 @@ public class Region {
 
     void setMax(BlockLocation max) {
         this.max = max;
+        changed();
     }
 
     public String getMaxString() {
@@ -211,7 +247,34 @@ public class Region {
 
 
     public boolean contains(BlockLocation vec) {
-        return getBounds().contains(vec);
+        return getBounds().contains(vec) && (shape == null || shape.contains(vec.getX(), vec.getZ()));
+    }
+
+    /**
+     * Get the change counter of this region, e.g. to invalidate data derived from it.
+     * It changes whenever the region is modified through its setters or saved with the {@link RegionManager}.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    void changed() {
+        // Increments may get lost when racing, but the value still differs from before
+        version++;
+    }
+
+    /**
+     * Get the footprint of this region.
+     *
+     * @return The shape, or {@code null} if the region is a cuboid.
+     */
+    public @Nullable RegionShape getShape() {
+        return shape;
+    }
+
+    void setShape(@Nullable RegionShape shape) {
+        this.shape = shape;
+        changed();
     }
 
     public boolean intersects(@NotNull BlockLocation min, @NotNull BlockLocation max, World world) {
@@ -227,7 +290,7 @@ public class Region {
     }
 
     public void addMemberPermission(String who, String permission, String value, RegionManager regionManager) {
-        List<RegionFlagEntry> entries = this.members.computeIfAbsent(who, k -> new ArrayList<>());
+        List<RegionFlagEntry> entries = this.members.computeIfAbsent(who, k -> new CopyOnWriteArrayList<>());
         for (RegionFlagEntry entry : entries) {
             if (entry.getFlagValue().equalsIgnoreCase(permission)) {
                 boolean inverted = value.startsWith("!");
@@ -242,7 +305,7 @@ public class Region {
     }
 
     public void addMemberPermissions(String who, List<RegionFlagEntry> entries, RegionManager regionManager) {
-        this.members.put(who, entries);
+        this.members.put(who, new CopyOnWriteArrayList<>(entries));
         regionManager.saveRegion(key, this);
     }
 
@@ -282,6 +345,7 @@ public class Region {
 
     public void setPriority(int priority) {
         this.priority = priority;
+        changed();
     }
 
     public World getWorld() {
@@ -295,5 +359,6 @@ public class Region {
     @ApiStatus.Internal
     public void setWorld(World world) {
         this.world = world;
+        changed();
     }
 }
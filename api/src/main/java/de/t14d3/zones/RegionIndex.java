@@ -0,0 +1,510 @@
+package de.t14d3.zones;
+
+import de.t14d3.zones.objects.BlockLocation;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of the loaded regions, the regions of each world and the chunk index.
+ * <p>
+ * The {@link RegionManager} publishes a new snapshot through a volatile reference after every change,
+ * so readers on any thread get a consistent view without locking. All maps are split into shards;
+ * a change copies only the shards it touches and shares the others with the previous snapshot.
+ * <p>
+ * Only the index is versioned, region objects are shared between snapshots and changed in place
+ * (e.g. their members or name).
+ */
+public final class RegionIndex {
+    static final RegionIndex EMPTY = new RegionIndex(0, Shards.empty(), Map.of());
+    private static final Region[] NO_REGIONS = new Region[0];
+
+    private final long version;
+    private final Shards<Region> regions;
+    private final Map<UUID, WorldIndex> worlds;
+    private final Int2ObjectMap<Region> regionsView;
+
+    private RegionIndex(long version, Shards<Region> regions, Map<UUID, WorldIndex> worlds) {
+        this.version = version;
+        this.regions = regions;
+        this.worlds = worlds;
+        this.regionsView = new RegionsView(regions);
+    }
+
+    /**
+     * @return The version of this snapshot, incremented with every published change.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return regions.size;
+    }
+
+    public @Nullable Region get(int key) {
+        return regions.get(key);
+    }
+
+    /**
+     * @return A read-only view of all regions by key.
+     */
+    public Int2ObjectMap<Region> regions() {
+        return regionsView;
+    }
+
+    /**
+     * @return A read-only view of the regions of a world by key, or {@code null} if the world is not loaded.
+     */
+    public @Nullable Int2ObjectMap<Region> regions(UUID world) {
+        WorldIndex index = worlds.get(world);
+        return index != null ? index.regionsView : null;
+    }
+
+    public boolean isWorldLoaded(UUID world) {
+        return worlds.containsKey(world);
+    }
+
+    /**
+     * @return The regions whose bounds touch the given chunk. The array must not be modified.
+     */
+    Region[] getChunkRegions(UUID world, long chunkKey) {
+        WorldIndex index = worlds.get(world);
+        if (index == null) {
+            return NO_REGIONS;
+        }
+        Region[] regions = index.chunks.get(chunkKey);
+        return regions != null ? regions : NO_REGIONS;
+    }
+
+    Builder edit() {
+        return new Builder(this);
+    }
+
+    private record WorldIndex(Shards<Region> regions, Shards<Region[]> chunks, Int2ObjectMap<Region> regionsView) {
+        WorldIndex(Shards<Region> regions, Shards<Region[]> chunks) {
+            this(regions, chunks, new RegionsView(regions));
+        }
+    }
+
+    /**
+     * Collects changes to a snapshot and builds the next one.
+     * Shards are copied on their first change, so a batch of changes copies every shard at most once.
+     * Not thread-safe, the region manager only uses one builder at a time.
+     */
+    static final class Builder {
+        private long version;
+        private Shards.Editor<Region> regions;
+        private final Map<UUID, WorldEditor> worlds = new HashMap<>();
+        private final Map<UUID, WorldIndex> unchangedWorlds;
+        private boolean changed;
+
+        private Builder(RegionIndex base) {
+            this.version = base.version + 1;
+            this.regions = base.regions.edit();
+            this.unchangedWorlds = new HashMap<>(base.worlds);
+        }
+
+        /**
+         * @return Whether anything was changed since the builder was created or last built.
+         */
+        boolean isChanged() {
+            return changed;
+        }
+
+        private @Nullable WorldEditor world(UUID world) {
+            WorldEditor editor = worlds.get(world);
+            if (editor == null) {
+                WorldIndex index = unchangedWorlds.remove(world);
+                if (index == null) {
+                    return null;
+                }
+                editor = new WorldEditor(index.regions.edit(), index.chunks.edit());
+                worlds.put(world, editor);
+            }
+            return editor;
+        }
+
+        boolean isWorldLoaded(UUID world) {
+            return worlds.containsKey(world) || unchangedWorlds.containsKey(world);
+        }
+
+        @Nullable Region get(int key) {
+            return regions.get(key);
+        }
+
+        Region[] getChunkRegions(UUID world, long chunkKey) {
+            Region[] regions;
+            WorldEditor editor = worlds.get(world);
+            if (editor != null) {
+                regions = editor.chunks.get(chunkKey);
+            } else {
+                WorldIndex index = unchangedWorlds.get(world);
+                regions = index != null ? index.chunks.get(chunkKey) : null;
+            }
+            return regions != null ? regions : NO_REGIONS;
+        }
+
+        /**
+         * Adds an empty world, keeping its regions if it is already loaded.
+         */
+        void addWorld(UUID world) {
+            if (!isWorldLoaded(world)) {
+                changed = true;
+                worlds.put(world, new WorldEditor(Shards.<Region>empty().edit(), Shards.<Region[]>empty().edit()));
+            }
+        }
+
+        /**
+         * Removes all worlds and regions.
+         */
+        void clear() {
+            changed = true;
+            regions = Shards.<Region>empty().edit();
+            worlds.clear();
+            unchangedWorlds.clear();
+        }
+
+        /**
+         * Removes a world and all of its regions.
+         *
+         * @return The removed regions.
+         */
+        List<Region> removeWorld(UUID world) {
+            WorldEditor editor = world(world);
+            if (editor == null) {
+                return List.of();
+            }
+            changed = true;
+            worlds.remove(world);
+            List<Region> removed = new ArrayList<>(editor.regions.size);
+            editor.regions.forEach(region -> {
+                regions.remove(region.getKey().getValue());
+                removed.add(region);
+            });
+            return removed;
+        }
+
+        /**
+         * Adds a region, replacing a region with the same key. Its world is added if it is not loaded.
+         */
+        void add(Region region) {
+            Region old = regions.get(region.getKey().getValue());
+            if (old != null) {
+                remove(old);
+            }
+            changed = true;
+            UUID worldId = region.getWorld().getUID();
+            addWorld(worldId);
+            WorldEditor world = world(worldId);
+            regions.put(region.getKey().getValue(), region);
+            world.regions.put(region.getKey().getValue(), region);
+            updateChunks(world, region.getMin(), region.getMax(), chunk -> append(chunk, region));
+        }
+
+        /**
+         * Removes a region, using its current bounds to find its chunks.
+         */
+        void remove(Region region) {
+            changed = true;
+            regions.remove(region.getKey().getValue());
+            WorldEditor world = world(region.getWorld().getUID());
+            if (world == null) {
+                return;
+            }
+            world.regions.remove(region.getKey().getValue());
+            updateChunks(world, region.getMin(), region.getMax(), chunk -> without(chunk, region));
+        }
+
+        /**
+         * Moves a region in the chunk index after its bounds changed.
+         */
+        void move(Region region, BlockLocation oldMin, BlockLocation oldMax) {
+            WorldEditor world = world(region.getWorld().getUID());
+            if (world == null) {
+                return;
+            }
+            changed = true;
+            updateChunks(world, oldMin, oldMax, chunk -> without(chunk, region));
+            updateChunks(world, region.getMin(), region.getMax(), chunk -> append(chunk, region));
+        }
+
+        private static void updateChunks(WorldEditor world, BlockLocation min, BlockLocation max,
+                                         Function<Region[], Region[]> update) {
+            for (int x = min.getX() >> 4; x <= max.getX() >> 4; x++) {
+                for (int z = min.getZ() >> 4; z <= max.getZ() >> 4; z++) {
+                    long key = RegionManager.chunkKey(x, z);
+                    Region[] chunk = update.apply(world.chunks.get(key));
+                    if (chunk == null) {
+                        world.chunks.remove(key);
+                    } else {
+                        world.chunks.put(key, chunk);
+                    }
+                }
+            }
+        }
+
+        private static Region[] append(Region[] chunk, Region region) {
+            if (chunk == null) {
+                return new Region[]{region};
+            }
+            for (Region existing : chunk) {
+                if (existing == region) {
+                    return chunk;
+                }
+            }
+            Region[] copy = Arrays.copyOf(chunk, chunk.length + 1);
+            copy[chunk.length] = region;
+            return copy;
+        }
+
+        private static Region[] without(Region[] chunk, Region region) {
+            if (chunk == null) {
+                return null;
+            }
+            for (int i = 0; i < chunk.length; i++) {
+                if (chunk[i] == region) {
+                    if (chunk.length == 1) {
+                        return null;
+                    }
+                    Region[] copy = new Region[chunk.length - 1];
+                    System.arraycopy(chunk, 0, copy, 0, i);
+                    System.arraycopy(chunk, i + 1, copy, i, chunk.length - i - 1);
+                    return copy;
+                }
+            }
+            return chunk;
+        }
+
+        /**
+         * Builds the next snapshot. The builder can be used further, changes then copy the affected shards again.
+         */
+        RegionIndex build() {
+            Map<UUID, WorldIndex> worldIndexes = new HashMap<>(unchangedWorlds);
+            worlds.forEach((world, editor) -> worldIndexes.put(world,
+                    new WorldIndex(editor.regions.build(), editor.chunks.build())));
+            changed = false;
+            return new RegionIndex(version++, regions.build(), Collections.unmodifiableMap(worldIndexes));
+        }
+    }
+
+    private record WorldEditor(Shards.Editor<Region> regions, Shards.Editor<Region[]> chunks) {
+    }
+
+    /**
+     * Immutable map split into a fixed number of shards by key hash. Empty shards are {@code null}.
+     */
+    private static final class Shards<V> {
+        private static final int COUNT = 256;
+
+        private final Long2ObjectOpenHashMap<V>[] shards;
+        private final int size;
+
+        private Shards(Long2ObjectOpenHashMap<V>[] shards, int size) {
+            this.shards = shards;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        static <V> Shards<V> empty() {
+            return new Shards<>((Long2ObjectOpenHashMap<V>[]) new Long2ObjectOpenHashMap<?>[COUNT], 0);
+        }
+
+        private static int shard(long key) {
+            return (int) HashCommon.mix(key) & (COUNT - 1);
+        }
+
+        @Nullable V get(long key) {
+            Long2ObjectOpenHashMap<V> shard = shards[shard(key)];
+            return shard != null ? shard.get(key) : null;
+        }
+
+        boolean containsKey(long key) {
+            Long2ObjectOpenHashMap<V> shard = shards[shard(key)];
+            return shard != null && shard.containsKey(key);
+        }
+
+        Editor<V> edit() {
+            return new Editor<>(shards.clone(), size);
+        }
+
+        /**
+         * Iterates the entries of all shards.
+         */
+        Iterator<Long2ObjectMap.Entry<V>> entries() {
+            return new Iterator<>() {
+                private int next = 0;
+                private Iterator<Long2ObjectMap.Entry<V>> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && next < COUNT) {
+                        Long2ObjectOpenHashMap<V> shard = shards[next++];
+                        if (shard != null) {
+                            current = shard.long2ObjectEntrySet().fastIterator();
+                        }
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public Long2ObjectMap.Entry<V> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return current.next();
+                }
+            };
+        }
+
+        static final class Editor<V> {
+            private final Long2ObjectOpenHashMap<V>[] shards;
+            private final boolean[] owned = new boolean[COUNT];
+            private int size;
+
+            private Editor(Long2ObjectOpenHashMap<V>[] shards, int size) {
+                this.shards = shards;
+                this.size = size;
+            }
+
+            private Long2ObjectOpenHashMap<V> writable(int index) {
+                if (!owned[index]) {
+                    Long2ObjectOpenHashMap<V> shard = shards[index];
+                    shards[index] = shard != null
+                            ? new Long2ObjectOpenHashMap<>(shard)
+                            : new Long2ObjectOpenHashMap<>();
+                    owned[index] = true;
+                }
+                return shards[index];
+            }
+
+            @Nullable V get(long key) {
+                Long2ObjectOpenHashMap<V> shard = shards[shard(key)];
+                return shard != null ? shard.get(key) : null;
+            }
+
+            void put(long key, V value) {
+                if (writable(shard(key)).put(key, value) == null) {
+                    size++;
+                }
+            }
+
+            void remove(long key) {
+                int index = shard(key);
+                if (shards[index] != null && shards[index].containsKey(key)) {
+                    writable(index).remove(key);
+                    size--;
+                }
+            }
+
+            void forEach(Consumer<V> action) {
+                for (Long2ObjectOpenHashMap<V> shard : shards) {
+                    if (shard != null) {
+                        shard.values().forEach(action);
+                    }
+                }
+            }
+
+            Shards<V> build() {
+                Long2ObjectOpenHashMap<V>[] built = shards.clone();
+                for (int i = 0; i < COUNT; i++) {
+                    if (built[i] != null && built[i].isEmpty()) {
+                        built[i] = null;
+                    }
+                    // Shards are shared with the snapshot now, further changes have to copy them again
+                    owned[i] = false;
+                }
+                return new Shards<>(built, size);
+            }
+        }
+    }
+
+    /**
+     * Read-only {@link Int2ObjectMap} over the region shards, used by {@link RegionManager#regions()}.
+     */
+    @SuppressWarnings("serial") // Serializable through AbstractInt2ObjectMap, but a view is never serialized
+    private static final class RegionsView extends AbstractInt2ObjectMap<Region> {
+        private final Shards<Region> shards;
+
+        RegionsView(Shards<Region> shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        public int size() {
+            return shards.size;
+        }
+
+        @Override
+        public Region get(int key) {
+            return shards.get(key);
+        }
+
+        @Override
+        public boolean containsKey(int key) {
+            return shards.containsKey(key);
+        }
+
+        @Override
+        public @NotNull ObjectSet<Int2ObjectMap.Entry<Region>> int2ObjectEntrySet() {
+            return new AbstractObjectSet<>() {
+                @Override
+                public @NotNull ObjectIterator<Int2ObjectMap.Entry<Region>> iterator() {
+                    Iterator<Long2ObjectMap.Entry<Region>> entries = shards.entries();
+                    return new ObjectIterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Int2ObjectMap.Entry<Region> next() {
+                            Long2ObjectMap.Entry<Region> entry = entries.next();
+                            return new BasicEntry<>((int) entry.getLongKey(), entry.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return shards.size;
+                }
+            };
+        }
+
+        @Override
+        public @NotNull ObjectCollection<Region> values() {
+            return new AbstractObjectCollection<>() {
+                @Override
+                public @NotNull ObjectIterator<Region> iterator() {
+                    Iterator<Long2ObjectMap.Entry<Region>> entries = shards.entries();
+                    return new ObjectIterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Region next() {
+                            return entries.next().getValue();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return shards.size;
+                }
+            };
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package de.t14d3.zones;
 
-import java.util.UUID;
-
 public final class RegionKey {
     private final int value;
 
@@ -63,11 +61,11 @@ public final class RegionKey {
         return new RegionKey(key);
     }
 
+    /**
+     * Generates a key that is neither used by a loaded nor by a stored region.
+     * Usually taken from keys checked against the data source in the background, so this does not block.
+     */
     public static RegionKey generate() {
-        RegionKey key;
-        do {
-            key = RegionKey.fromString(UUID.randomUUID().toString().substring(0, 8));
-        } while (Zones.getInstance().getRegionManager().regions().containsKey(key.getValue()));
-        return key;
+        return RegionKey.fromInt(Zones.getInstance().getRegionManager().takeFreeKey());
     }
 }
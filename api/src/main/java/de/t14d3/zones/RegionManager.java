@@ -1,15 +1,29 @@
 package de.t14d3.zones;
 
 import de.t14d3.zones.datasource.DataSourceManager;
+import de.t14d3.zones.datasource.RegionChange;
 import de.t14d3.zones.objects.*;
 import de.t14d3.zones.permissions.CacheUtils;
 import de.t14d3.zones.permissions.PermissionManager;
 import de.t14d3.zones.utils.Utils;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 public class RegionManager {
 
@@ -18,15 +32,28 @@ public class RegionManager {
     private static RegionManager instance;
     private final ZonesPlatform platform;
 
-    private final Int2ObjectOpenHashMap<Region> loadedRegions = new Int2ObjectOpenHashMap<>();
-    private final Map<UUID, Int2ObjectOpenHashMap<Region>> worldRegions = new HashMap<>();
-    private final Map<UUID, Long2ObjectOpenHashMap<List<Region>>> chunkRegions = new HashMap<>();
+    // Held by all writers of the index, also guards the lazy region cache
+    final Object lock = new Object();
+    private volatile RegionIndex index = RegionIndex.EMPTY;
+    private final AtomicLong modifications = new AtomicLong();
+    private RegionIndex.Builder editor;
+    private int editDepth;
+    private final @Nullable LazyRegionCache lazyCache;
+    // Keys of running imports, their regions are neither loaded nor stored yet
+    private final IntSet reservedKeys = IntSets.synchronize(new IntOpenHashSet());
+    // Keys already checked against the data source, also reserved until taken, see takeFreeKey
+    private final IntArrayList freeKeys = new IntArrayList();
+    private final AtomicBoolean refillingKeys = new AtomicBoolean();
+    private static final int FREE_KEYS = 64;
 
     public RegionManager(Zones plugin, PermissionManager permissionManager) {
         this.plugin = plugin;
         this.dataSourceManager = new DataSourceManager(plugin);
         this.platform = plugin.getPlatform();
+        this.lazyCache = dataSourceManager.isLazyLoading() ? new LazyRegionCache(plugin, this, dataSourceManager) : null;
         instance = this;
+        dataSourceManager.startChangeFeed(changes -> platform.runTask(() -> applyRemoteChanges(changes)));
+        refillFreeKeys();
     }
 
     public DataSourceManager getDataSourceManager() {
@@ -34,7 +61,7 @@ public class RegionManager {
     }
 
     public void saveRegions() {
-        dataSourceManager.saveRegions(loadedRegions.values().stream().toList());
+        dataSourceManager.saveRegions(index.regions().values().stream().toList());
         CacheUtils.getInstance().invalidateInteractionCaches();
     }
 
@@ -51,36 +78,197 @@ public class RegionManager {
     }
 
     /**
-     * Loads regions from the YAML file into memory.
+     * Loads the regions of all currently loaded worlds from the data source into memory.
+     * Regions of worlds that are loaded later on are loaded by {@link #loadRegions(World)}.
      */
     public void loadRegions() {
-        loadedRegions.clear();
-        worldRegions.clear();
-        platform.getWorlds().forEach(world -> worldRegions.put(world.getUID(), new Int2ObjectOpenHashMap<>()));
-        dataSourceManager.loadRegions();
+        update(builder -> {
+            clear();
+            platform.getWorlds().forEach(this::loadRegions);
+        });
     }
 
+    /**
+     * Removes all regions from memory without deleting them, e.g. on shutdown.
+     */
+    public void clear() {
+        update(RegionIndex.Builder::clear);
+    }
+
+    /**
+     * (Re-)loads the regions of a single world from the data source.
+     * Regions of this world that are already loaded are replaced.
+     *
+     * @param world The world to load the regions for.
+     */
     public void loadRegions(World world) {
-        worldRegions.computeIfAbsent(world.getUID(), k -> new Int2ObjectOpenHashMap<>());
-        worldRegions.get(world.getUID()).clear();
-        dataSourceManager.loadRegions();
+        // Read before the write lock is taken (unless nested), so other writers do not wait for the data source
+        List<Region> regions = lazyCache == null ? dataSourceManager.loadRegions(world) : List.of();
+        update(builder -> {
+            removeWorld(world);
+            builder.addWorld(world.getUID());
+            if (lazyCache != null) {
+                // Regions are loaded per chunk, see onChunkLoad
+                lazyCache.loadWorld(world);
+            } else {
+                for (Region region : regions) {
+                    addRegion(region);
+                }
+            }
+        });
+        CacheUtils.getInstance().invalidateInteractionCaches();
+    }
+
+    /**
+     * Saves and removes the regions of a world from memory,
+     * for example when the world is unloaded.
+     *
+     * @param world The world to unload the regions for.
+     */
+    public void unloadRegions(World world) {
+        if (!isWorldLoaded(world)) {
+            return;
+        }
+        saveRegions();
+        update(builder -> {
+            removeWorld(world);
+            if (lazyCache != null) {
+                lazyCache.unloadWorld(world);
+            }
+        });
+        CacheUtils.getInstance().invalidateInteractionCaches();
+    }
+
+    /**
+     * Whether regions are loaded per chunk instead of per world ({@code storage.lazy-loading}).
+     * In this mode {@link #regions()} only contains the regions around loaded chunks.
+     */
+    public boolean isLazyLoading() {
+        return lazyCache != null;
+    }
+
+    /**
+     * Notifies the region manager of a loaded chunk, used to load its regions in lazy loading mode.
+     */
+    public void onChunkLoad(World world, int chunkX, int chunkZ) {
+        if (lazyCache != null) {
+            lazyCache.onChunkLoad(world, chunkX, chunkZ);
+        }
+    }
+
+    /**
+     * Notifies the region manager of an unloaded chunk, used to release its regions in lazy loading mode.
+     */
+    public void onChunkUnload(World world, int chunkX, int chunkZ) {
+        if (lazyCache != null) {
+            lazyCache.onChunkUnload(world, chunkX, chunkZ);
+        }
+    }
+
+    /**
+     * Whether the regions of the given world are currently loaded.
+     *
+     * @param world The world to check.
+     * @return {@code true} if the regions of the world are loaded.
+     */
+    public boolean isWorldLoaded(World world) {
+        return index.isWorldLoaded(world.getUID());
+    }
+
+    private void removeWorld(World world) {
+        update(builder -> {
+            for (Region region : builder.removeWorld(world.getUID())) {
+                if (lazyCache != null) {
+                    lazyCache.onRemoved(region, false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets the current snapshot of the loaded regions.
+     * The snapshot never changes, so it can be read from any thread, e.g. for multiple consistent lookups.
+     *
+     * @return The current region index.
+     */
+    public RegionIndex getIndex() {
+        return index;
     }
 
     /**
      * Get all currently loaded regions and their corresponding key.
+     * The returned map is a read-only view of the current {@link #getIndex() snapshot}
+     * and does not reflect later changes.
      *
      * @return A map of region keys and their corresponding {@link de.t14d3.zones.Region} objects.
      */
-    public Int2ObjectOpenHashMap<Region> regions() {
-        return this.loadedRegions;
+    public Int2ObjectMap<Region> regions() {
+        return index.regions();
+    }
+
+    /**
+     * @return A read-only view of the loaded regions of a world, or {@code null} if its regions are not loaded.
+     */
+    public @Nullable Int2ObjectMap<Region> regions(World world) {
+        return index.regions(world.getUID());
+    }
+
+    /**
+     * Collects one page of the loaded regions matching a filter, in index order.
+     * Iteration stops as soon as the page is filled, and only one snapshot is read,
+     * so this can be called from any thread.
+     *
+     * @param filter Which regions to include.
+     * @param skip   Number of matching regions to skip, e.g. those of previous pages.
+     * @param limit  Maximum number of regions to return.
+     * @return The matching regions, empty if there are not more than {@code skip} matches.
+     */
+    public List<Region> findRegions(Predicate<Region> filter, int skip, int limit) {
+        List<Region> page = new ArrayList<>(Math.min(limit, 64));
+        int skipped = 0;
+        for (Region region : index.regions().values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (!filter.test(region)) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                page.add(region);
+            }
+        }
+        return page;
     }
 
-    public Int2ObjectOpenHashMap<Region> regions(World world) {
-        return this.worldRegions.get(world.getUID());
+    /**
+     * Applies changes to the index and publishes the new snapshot once the outermost update completes,
+     * so nested updates (e.g. adding all regions of a world) are published together.
+     */
+    void update(Consumer<RegionIndex.Builder> changes) {
+        synchronized (lock) {
+            if (editDepth++ == 0) {
+                editor = index.edit();
+            }
+            try {
+                changes.accept(editor);
+            } finally {
+                if (--editDepth == 0) {
+                    if (editor.isChanged()) {
+                        index = editor.build();
+                        modifications.incrementAndGet();
+                    }
+                    editor = null;
+                }
+            }
+        }
     }
 
     // Save a region to the configured data source
     public void saveRegion(RegionKey key, Region region) {
+        region.changed();
+        modifications.incrementAndGet();
         String keyString = key.toString();
         dataSourceManager.saveRegion(keyString, region);
     }
@@ -91,11 +279,82 @@ public class RegionManager {
      * @param regionKey The key of the region to delete
      */
     public void deleteRegion(RegionKey regionKey) {
-        regions().remove(regionKey.getValue());
+        Region region = index.get(regionKey.getValue());
+        if (region != null) {
+            update(builder -> {
+                unindexRegion(region);
+                if (lazyCache != null) {
+                    lazyCache.onRemoved(region, true);
+                }
+            });
+        }
+        dataSourceManager.deleteRegion(regionKey.toString());
         triggerSave();
         CacheUtils.getInstance().invalidateInteractionCaches();
     }
 
+    /**
+     * Applies region changes made by other servers sharing the database ({@code storage.change-feed}).
+     * Only the chunk index entries and cached permissions of the changed regions are invalidated.
+     */
+    private void applyRemoteChanges(List<RegionChange> changes) {
+        update(builder -> {
+            for (RegionChange change : changes) {
+                replaceLoadedRegion(change.key(), change.region());
+            }
+        });
+        plugin.getDebugLogger().log("Applied " + changes.size() + " region changes from other servers");
+    }
+
+    /**
+     * Replaces loaded regions with versions that were already written to the data source,
+     * e.g. by an import. Regions of worlds that are not loaded are skipped.
+     * Must be called on the main thread.
+     *
+     * @param regions The stored regions.
+     */
+    public void applyStoredRegions(List<Region> regions) {
+        update(builder -> {
+            for (Region region : regions) {
+                replaceLoadedRegion(region.getKey(), region);
+            }
+        });
+    }
+
+    private void replaceLoadedRegion(RegionKey key, @Nullable Region region) {
+        Region old = editor.get(key.getValue());
+        if (old != null) {
+            unindexRegion(old);
+            invalidateCaches(old);
+        }
+        if (region == null && lazyCache != null) {
+            lazyCache.discardPending();
+        }
+        if (region != null && region.getWorld() != null && editor.isWorldLoaded(region.getWorld().getUID())) {
+            addRegion(region);
+            invalidateCaches(region);
+        }
+    }
+
+    private static void invalidateCaches(Region region) {
+        CacheUtils cacheUtils = CacheUtils.getInstance();
+        cacheUtils.invalidateInteractionCacheForArea(region.getMin().getX(), region.getMin().getZ(),
+                region.getMax().getX(), region.getMax().getZ());
+        cacheUtils.invalidateCacheForRegion(region.getKey());
+    }
+
+    /**
+     * Removes a region from memory without deleting it from the data source.
+     */
+    void unindexRegion(Region region) {
+        update(builder -> {
+            builder.remove(region);
+            if (lazyCache != null) {
+                lazyCache.onRemoved(region, false);
+            }
+        });
+    }
+
     /**
      * Creates a new region with the specified key, name, minimum and maximum locations, members and their permissions.
      *
@@ -111,10 +370,7 @@ public class RegionManager {
 
         CacheUtils.getInstance().invalidateInteractionCaches();
         saveRegion(key, newRegion);
-        loadedRegions.put(key.getValue(), newRegion);
-        worldRegions.computeIfAbsent(newRegion.getWorld().getUID(), k -> new Int2ObjectOpenHashMap<>())
-                .put(newRegion.getKey().getValue(), newRegion);
-        indexRegion(newRegion);
+        addRegion(newRegion);
         return newRegion;
     }
 
@@ -142,10 +398,7 @@ public class RegionManager {
 
         CacheUtils.getInstance().invalidateInteractionCaches();
         saveRegion(regionKey, newRegion);
-        loadedRegions.put(regionKey.getValue(), newRegion);
-        worldRegions.computeIfAbsent(newRegion.getWorld().getUID(), k -> new Int2ObjectOpenHashMap<>())
-                .put(newRegion.getKey().getValue(), newRegion);
-        indexRegion(newRegion);
+        addRegion(newRegion);
         return newRegion;
     }
 
@@ -189,7 +442,14 @@ public class RegionManager {
     }
 
     public boolean overlapsExistingRegion(BlockLocation min, BlockLocation max, World world, @Nullable RegionKey keyToIgnore) {
-        for (Region region : worldRegions.get(world.getUID()).values()) {
+        if (lazyCache != null) {
+            lazyCache.ensureLoaded(world, min.getX() >> 4, min.getZ() >> 4, max.getX() >> 4, max.getZ() >> 4);
+        }
+        Int2ObjectMap<Region> regions = regions(world);
+        if (regions == null) {
+            return false;
+        }
+        for (Region region : regions.values()) {
             if (region.intersects(min, max, world) && !region.getKey().equals(keyToIgnore)) {
                 return true;
             }
@@ -199,6 +459,7 @@ public class RegionManager {
 
     /**
      * Gets a list of regions that overlap with the given location.
+     * With lazy loading, regions of a chunk that is still being loaded may be missing, see {@link #isLoading}.
      *
      * @param location The location to check for overlaps.
      * @return A list of regions that overlap with the given location.
@@ -209,16 +470,85 @@ public class RegionManager {
 
         int xChunk = location.getX() >> 4;
         int zChunk = location.getZ() >> 4;
-        long key = ((long) xChunk << 32) | (zChunk & 0xFFFFFFFFL);
-
-        List<Region> candidates = chunkRegions.getOrDefault(world.getUID(), new Long2ObjectOpenHashMap<>())
-                .getOrDefault(key, Collections.emptyList());
-        for (Region region : candidates) {
+        if (lazyCache != null && lazyCache.ensureLoaded(world, xChunk, zChunk) == LazyRegionCache.ChunkState.EMPTY) {
+            return foundRegions; // No region touches this chunk
+        }
+        for (Region region : index.getChunkRegions(world.getUID(), chunkKey(xChunk, zChunk))) {
             if (region.contains(location)) foundRegions.add(region);
         }
         return foundRegions;
     }
 
+    /**
+     * Whether the regions at a location are still being loaded in the background, only the case with lazy loading.
+     * Lookups there may miss regions until they are loaded, so protection checks deny every action there.
+     */
+    public boolean isLoading(BlockLocation location, World world) {
+        return lazyCache != null && world != null
+                && lazyCache.ensureLoaded(world, location.getX() >> 4, location.getZ() >> 4)
+                == LazyRegionCache.ChunkState.LOADING;
+    }
+
+    /**
+     * Gets the regions covering a whole 16x16x16 block section, e.g. to evaluate a flag once for all its blocks.
+     *
+     * @return The regions containing every block of the section (empty in the wilderness),
+     * or {@code null} if a region boundary cuts through the section or its regions are still being loaded.
+     */
+    public @Nullable List<Region> getSectionRegions(World world, int sectionX, int sectionY, int sectionZ) {
+        if (lazyCache != null) {
+            LazyRegionCache.ChunkState state = lazyCache.ensureLoaded(world, sectionX, sectionZ);
+            if (state == LazyRegionCache.ChunkState.EMPTY) {
+                return List.of(); // No region touches this chunk
+            } else if (state == LazyRegionCache.ChunkState.LOADING) {
+                return null; // Evaluated per block until the regions are loaded
+            }
+        }
+        int minX = sectionX << 4;
+        int minY = sectionY << 4;
+        int minZ = sectionZ << 4;
+        List<Region> covering = new ArrayList<>();
+        for (Region region : index.getChunkRegions(world.getUID(), chunkKey(sectionX, sectionZ))) {
+            Box bounds = region.getBounds();
+            BlockLocation min = bounds.getMin();
+            BlockLocation max = bounds.getMax();
+            if (max.getY() < minY || min.getY() > minY + 15 || max.getX() < minX || min.getX() > minX + 15
+                    || max.getZ() < minZ || min.getZ() > minZ + 15) {
+                continue;
+            }
+            boolean coversColumns = min.getX() <= minX && max.getX() >= minX + 15
+                    && min.getZ() <= minZ && max.getZ() >= minZ + 15;
+            RegionShape shape = region.getShape();
+            if (shape != null) {
+                int columns = 0;
+                for (int x = Math.max(minX, min.getX()); x <= Math.min(minX + 15, max.getX()); x++) {
+                    for (int z = Math.max(minZ, min.getZ()); z <= Math.min(minZ + 15, max.getZ()); z++) {
+                        if (shape.contains(x, z)) {
+                            columns++;
+                        }
+                    }
+                }
+                if (columns == 0) {
+                    continue;
+                }
+                coversColumns = columns == 256;
+            }
+            if (!coversColumns || min.getY() > minY || max.getY() < minY + 15) {
+                return null;
+            }
+            covering.add(region);
+        }
+        return covering;
+    }
+
+    /**
+     * @return A counter that changes whenever regions are loaded, changed or removed,
+     * e.g. to invalidate data derived from the regions.
+     */
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
     /**
      * Gets the region with the highest priority at the given location
      *
@@ -238,30 +568,36 @@ public class RegionManager {
         return effectiveRegion;
     }
 
-    private void indexRegion(Region region) {
-        World world = region.getWorld();
-        Long2ObjectOpenHashMap<List<Region>> worldChunks = chunkRegions.computeIfAbsent(world.getUID(),
-                k -> new Long2ObjectOpenHashMap<>());
-
-        BlockLocation min = region.getMin();
-        BlockLocation max = region.getMax();
+    static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
 
-        int minXChunk = min.getX() >> 4;
-        int minZChunk = min.getZ() >> 4;
-        int maxXChunk = max.getX() >> 4;
-        int maxZChunk = max.getZ() >> 4;
+    /**
+     * Gets the regions touching a chunk, including unpublished changes when called during an update.
+     */
+    List<Region> getChunkCandidates(World world, long chunkKey) {
+        RegionIndex.Builder editor = this.editor;
+        if (editor != null && Thread.holdsLock(lock)) {
+            return Arrays.asList(editor.getChunkRegions(world.getUID(), chunkKey));
+        }
+        return Arrays.asList(index.getChunkRegions(world.getUID(), chunkKey));
+    }
 
-        for (int x = minXChunk; x <= maxXChunk; x++) {
-            for (int z = minZChunk; z <= maxZChunk; z++) {
-                long key = ((long) x << 32) | (z & 0xFFFFFFFFL);
-                worldChunks.computeIfAbsent(key, k -> new ArrayList<>()).add(region);
-            }
+    /**
+     * Whether a region is loaded, including unpublished changes when called during an update.
+     */
+    boolean isRegionLoaded(int key) {
+        RegionIndex.Builder editor = this.editor;
+        if (editor != null && Thread.holdsLock(lock)) {
+            return editor.get(key) != null;
         }
+        return index.get(key) != null;
     }
 
     /**
      * Redefines the bounds of a region.
      * Does not have any overlap checks.
+     * Regions with a {@link RegionShape} become cuboids.
      *
      * @param region The region to redefine.
      * @param min    The new minimum location of the region.
@@ -272,58 +608,26 @@ public class RegionManager {
         BlockLocation oldMax = region.getMax();
         region.setMin(min);
         region.setMax(max);
+        region.setShape(null);
         updateRegionInSpatialIndex(region, oldMin, oldMax);
+        saveRegion(region.getKey(), region);
         triggerSave();
     }
 
     public void updateRegionInSpatialIndex(Region region, BlockLocation oldMin, BlockLocation oldMax) {
-        World world = region.getWorld();
-        Map<Long, List<Region>> worldChunks = chunkRegions.get(world.getUID());
-        if (worldChunks == null) return;
-
-        // Remove from old chunks
-        removeRegionFromChunks(region, oldMin, oldMax, worldChunks);
-
-        // Add to new chunks
-        addRegionToChunks(region, region.getMin(), region.getMax(), worldChunks);
-    }
-
-    private static void removeRegionFromChunks(Region region, BlockLocation min, BlockLocation max, Map<Long, List<Region>> worldChunks) {
-        int minXChunk = min.getX() >> 4;
-        int minZChunk = min.getZ() >> 4;
-        int maxXChunk = max.getX() >> 4;
-        int maxZChunk = max.getZ() >> 4;
-
-        for (int x = minXChunk; x <= maxXChunk; x++) {
-            for (int z = minZChunk; z <= maxZChunk; z++) {
-                long key = ((long) x << 32) | (z & 0xFFFFFFFFL);
-                List<Region> regions = worldChunks.get(key);
-                if (regions != null) {
-                    regions.remove(region);
-                    if (regions.isEmpty()) worldChunks.remove(key);
-                }
-            }
-        }
-    }
-
-    private static void addRegionToChunks(Region region, BlockLocation min, BlockLocation max, Map<Long, List<Region>> worldChunks) {
-        int minXChunk = min.getX() >> 4;
-        int minZChunk = min.getZ() >> 4;
-        int maxXChunk = max.getX() >> 4;
-        int maxZChunk = max.getZ() >> 4;
-
-        for (int x = minXChunk; x <= maxXChunk; x++) {
-            for (int z = minZChunk; z <= maxZChunk; z++) {
-                long key = ((long) x << 32) | (z & 0xFFFFFFFFL);
-                worldChunks.computeIfAbsent(key, k -> new ArrayList<>()).add(region);
+        update(builder -> {
+            builder.move(region, oldMin, oldMax);
+            if (lazyCache != null) {
+                lazyCache.onIndexed(region);
             }
-        }
+        });
     }
 
     /**
      * Expands the bounds of a region in a given direction by a given amount.
      * Only succeeds if the region does not overlap with any other regions
      * or the {@code allowOverlap} parameter is set to true.
+     * Regions with a {@link RegionShape} become cuboids unless expanded up or down.
      *
      * @param region       The region to expand.
      * @param direction    The direction to expand in.
@@ -358,9 +662,7 @@ public class RegionManager {
         }
 
         if (allowOverlap) {
-            region.setMin(newMin);
-            region.setMax(newMax);
-            triggerSave();
+            resize(region, direction, newMin, newMax);
             return true;
         }
 
@@ -368,12 +670,14 @@ public class RegionManager {
             return false;
         }
 
-        region.setMin(newMin);
-        region.setMax(newMax);
-        triggerSave();
+        resize(region, direction, newMin, newMax);
         return true;
     }
 
+    /**
+     * Expands the bounds of a region in a given direction by a given amount, without overlap checks.
+     * Regions with a {@link RegionShape} become cuboids unless expanded up or down.
+     */
     public void expandBounds(Region region, Direction direction, int amount) {
         BlockLocation newMin = region.getMin().clone();
         BlockLocation newMax = region.getMax().clone();
@@ -399,8 +703,20 @@ public class RegionManager {
                 break;
         }
 
-        region.setMin(newMin);
-        region.setMax(newMax);
+        resize(region, direction, newMin, newMax);
+    }
+
+    private void resize(Region region, Direction direction, BlockLocation min, BlockLocation max) {
+        BlockLocation oldMin = region.getMin();
+        BlockLocation oldMax = region.getMax();
+        region.setMin(min);
+        region.setMax(max);
+        if (direction != Direction.UP && direction != Direction.DOWN) {
+            // The shape only covers the old X/Z bounds
+            region.setShape(null);
+        }
+        updateRegionInSpatialIndex(region, oldMin, oldMax);
+        saveRegion(region.getKey(), region);
         triggerSave();
     }
 
@@ -412,17 +728,254 @@ public class RegionManager {
      * @see #createNewRegion
      */
     public void addRegion(Region region) {
-        loadedRegions.put(region.getKey().getValue(), region);
-        worldRegions.computeIfAbsent(region.getWorld().getUID(), k -> new Int2ObjectOpenHashMap<>())
-                .put(region.getKey().getValue(), region);
-        indexRegion(region); // Ensure the region is indexed
+        update(builder -> {
+            builder.add(region);
+            if (lazyCache != null) {
+                lazyCache.onIndexed(region);
+            }
+        });
+    }
+
+    /**
+     * Statistics of the regions imported into one world.
+     *
+     * @param regions The number of imported regions.
+     * @param millis  The time spent converting and indexing the regions.
+     */
+    public record WorldImport(int regions, long millis) {
+        public double regionsPerSecond() {
+            return regions * 1000.0 / Math.max(1, millis);
+        }
+    }
+
+    /**
+     * @param success  Whether the regions were saved and loaded.
+     * @param imported The number of imported regions.
+     * @param worlds   Statistics per world name.
+     * @param millis   The total duration of the import.
+     */
+    public record ImportResult(boolean success, int imported, Map<String, WorldImport> worlds, long millis) {
+    }
+
+    private record ImportBatch<T>(World world, List<T> sources, RegionKey[] keys) {
+    }
+
+    /**
+     * Imports many new regions at once, e.g. from another plugin.
+     * <p>
+     * The sources are converted in parallel in the background. All regions are then saved in a single batch
+     * and published to the loaded regions as one index update, after which the caches are invalidated once
+     * on the main thread.
+     * Must be called on the main thread.
+     *
+     * @param sources   The objects to convert, grouped by the world their regions belong to.
+     * @param converter Converts a source object into a region with the given key, may return {@code null} to skip it.
+     *                  Called concurrently from multiple threads.
+     * @return A future completing on the main thread once the regions are saved and loaded.
+     */
+    public <T> CompletableFuture<ImportResult> importRegions(Map<World, ? extends Collection<T>> sources,
+                                                            BiFunction<T, RegionKey, Region> converter) {
+        // Keys are reserved up front, so regions created in the meantime can not take them
+        List<ImportBatch<T>> batches = new ArrayList<>();
+        sources.forEach((world, worldSources) -> {
+            RegionKey[] keys = new RegionKey[worldSources.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = reserveKey();
+            }
+            batches.add(new ImportBatch<>(world, new ArrayList<>(worldSources), keys));
+        });
+
+        CompletableFuture<ImportResult> result = new CompletableFuture<>();
+        try {
+            plugin.getScheduler().execute(() -> {
+                try {
+                    for (ImportBatch<T> batch : batches) {
+                        replaceStoredKeys(batch.keys());
+                    }
+                    stageImport(batches, converter, result);
+                } catch (Exception e) {
+                    plugin.getLogger().error("Failed to import regions: {}", e.getMessage());
+                    if (plugin.debug) {
+                        e.printStackTrace();
+                    }
+                    result.completeExceptionally(e);
+                } finally {
+                    releaseKeys(batches);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            releaseKeys(batches);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private <T> void stageImport(List<ImportBatch<T>> batches, BiFunction<T, RegionKey, Region> converter,
+                                 CompletableFuture<ImportResult> result) {
+        long start = System.nanoTime();
+        List<Region> imported = new ArrayList<>();
+        Map<String, WorldImport> stats = new LinkedHashMap<>();
+        for (ImportBatch<T> batch : batches) {
+            long worldStart = System.nanoTime();
+            List<Region> regions = IntStream.range(0, batch.sources().size()).parallel()
+                    .mapToObj(i -> converter.apply(batch.sources().get(i), batch.keys()[i]))
+                    .filter(Objects::nonNull)
+                    .toList();
+            imported.addAll(regions);
+
+            WorldImport worldImport = new WorldImport(regions.size(), (System.nanoTime() - worldStart) / 1_000_000);
+            stats.put(batch.world().getName(), worldImport);
+            plugin.getLogger().info("Prepared {} regions of {} in {}ms ({} regions/s)", worldImport.regions(),
+                    batch.world().getName(), worldImport.millis(), Math.round(worldImport.regionsPerSecond()));
+        }
+
+        long saveStart = System.nanoTime();
+        if (!dataSourceManager.saveRegionsBatch(imported)) {
+            result.complete(new ImportResult(false, 0, stats, (System.nanoTime() - start) / 1_000_000));
+            return;
+        }
+        plugin.getDebugLogger().log("Saved " + imported.size() + " imported regions in "
+                + (System.nanoTime() - saveStart) / 1_000_000 + "ms");
+
+        update(builder -> {
+            for (Region region : imported) {
+                // Regions of worlds loaded later on are loaded from the data source together with the world
+                if (builder.isWorldLoaded(region.getWorld().getUID())) {
+                    addRegion(region);
+                }
+            }
+        });
+        platform.runTask(() -> {
+            CacheUtils.getInstance().invalidateInteractionCaches();
+            CacheUtils.getInstance().invalidateCaches();
+            result.complete(new ImportResult(true, imported.size(), stats, (System.nanoTime() - start) / 1_000_000));
+        });
+    }
+
+    /**
+     * Reserves a key that is not used by a loaded region, see {@link #replaceStoredKeys} for stored ones.
+     */
+    private RegionKey reserveKey() {
+        int value;
+        do {
+            value = ThreadLocalRandom.current().nextInt();
+        } while (value == 0 || index.get(value) != null || !reservedKeys.add(value));
+        return RegionKey.fromInt(value);
+    }
+
+    /**
+     * Replaces reserved keys that are used by stored regions, e.g. of chunks or worlds that are not loaded.
+     * Queries the data source, so this should not be called on the main thread.
+     */
+    private void replaceStoredKeys(RegionKey[] keys) {
+        int[] values = Arrays.stream(keys).mapToInt(RegionKey::getValue).toArray();
+        IntSet existing = dataSourceManager.findExistingKeys(values);
+        for (int attempt = 0; !existing.isEmpty(); attempt++) {
+            if (attempt == 16) {
+                // Failed lookups report every key as taken
+                throw new IllegalStateException("Could not find unused region keys");
+            }
+            IntList replaced = new IntArrayList(existing.size());
+            for (int i = 0; i < keys.length; i++) {
+                int taken = keys[i].getValue();
+                if (existing.contains(taken)) {
+                    keys[i] = reserveKey();
+                    replaced.add(keys[i].getValue());
+                    reservedKeys.remove(taken);
+                }
+            }
+            existing = dataSourceManager.findExistingKeys(replaced.toIntArray());
+        }
+    }
+
+    private void releaseKeys(List<? extends ImportBatch<?>> batches) {
+        for (ImportBatch<?> batch : batches) {
+            for (RegionKey key : batch.keys()) {
+                reservedKeys.remove(key.getValue());
+            }
+        }
+    }
+
+    /**
+     * Takes a key that is neither used by a loaded nor by a stored region.
+     * Keys are checked against the data source in the background ahead of time,
+     * only if none are left the data source is queried on the calling thread.
+     */
+    int takeFreeKey() {
+        int key = 0;
+        int left;
+        synchronized (freeKeys) {
+            while (key == 0 && !freeKeys.isEmpty()) {
+                int candidate = freeKeys.popInt();
+                reservedKeys.remove(candidate);
+                if (index.get(candidate) == null) {
+                    key = candidate;
+                }
+            }
+            left = freeKeys.size();
+        }
+        if (left < FREE_KEYS / 2) {
+            refillFreeKeys();
+        }
+        while (key == 0) {
+            int candidate = ThreadLocalRandom.current().nextInt();
+            if (!isKeyTaken(candidate)) {
+                key = candidate;
+            }
+        }
+        return key;
+    }
+
+    private void refillFreeKeys() {
+        if (!refillingKeys.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            plugin.getScheduler().execute(() -> {
+                RegionKey[] keys = new RegionKey[FREE_KEYS];
+                try {
+                    for (int i = 0; i < keys.length; i++) {
+                        keys[i] = reserveKey();
+                    }
+                    replaceStoredKeys(keys);
+                    synchronized (freeKeys) {
+                        for (RegionKey key : keys) {
+                            freeKeys.add(key.getValue());
+                        }
+                    }
+                } catch (Exception e) {
+                    for (RegionKey key : keys) {
+                        if (key != null) {
+                            reservedKeys.remove(key.getValue());
+                        }
+                    }
+                    plugin.getLogger().error("Failed to look up unused region keys: {}", e.getMessage());
+                    if (plugin.debug) {
+                        e.printStackTrace();
+                    }
+                } finally {
+                    refillingKeys.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refillingKeys.set(false);
+        }
+    }
+
+    /**
+     * Whether a key is used by a loaded or stored region, or reserved for a running import.
+     * Queries the data source if the key is not loaded.
+     */
+    boolean isKeyTaken(int key) {
+        return key == 0 || index.get(key) != null || reservedKeys.contains(key)
+                || !dataSourceManager.findExistingKeys(new int[]{key}).isEmpty();
     }
 
     public static Region getRegion(RegionKey key) {
         if (instance == null) {
             throw new IllegalStateException("RegionManager is not yet initialized!");
         }
-        return instance.loadedRegions.get(key.getValue());
+        return instance.index.get(key.getValue());
     }
 
 
@@ -0,0 +1,130 @@
+package de.t14d3.zones;
+
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.Player;
+import de.t14d3.zones.objects.World;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the regions every online player is in.
+ * <p>
+ * The platforms call {@link #update} when a player moves to another block. The regions are only looked up
+ * if the block or any region changed since the last update, and compared to the previous ones to tell
+ * listeners which regions were entered and left. The current regions are kept in the {@link Snapshot} of the player.
+ */
+public class RegionTracker {
+    private final Zones zones;
+    private final List<Consumer<Transition>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Player>> refreshListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The regions a player was in when last tracked.
+     *
+     * @param modifications The {@link RegionManager#getModificationCount()} the regions were looked up at
+     * @param version       Incremented every time the player enters or leaves a region
+     */
+    public record Snapshot(World world, int x, int y, int z, long modifications, List<Region> regions, int version) {
+    }
+
+    /**
+     * A player entering or leaving regions.
+     *
+     * @param regions All regions the player is in now
+     */
+    public record Transition(Player player, World world, List<Region> entered, List<Region> left,
+                             List<Region> regions) {
+    }
+
+    public RegionTracker(Zones zones) {
+        this.zones = zones;
+    }
+
+    /**
+     * Registers a listener called on the thread of the update whenever a player entered or left regions.
+     */
+    public void addListener(Consumer<Transition> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener called on the thread of the update whenever the regions of a player were looked up again
+     * because regions changed, but the player is still in the same ones, e.g. after one of them was renamed.
+     */
+    public void addRefreshListener(Consumer<Player> listener) {
+        refreshListeners.add(listener);
+    }
+
+    /**
+     * Updates the regions of a player after they moved.
+     *
+     * @return {@code true} if the player entered or left a region
+     */
+    public boolean update(Player player, World world, int x, int y, int z) {
+        Snapshot previous = player.getRegionSnapshot();
+        long modifications = zones.getRegionManager().getModificationCount();
+        if (previous != null && previous.x() == x && previous.y() == y && previous.z() == z
+                && previous.modifications() == modifications && previous.world().equals(world)) {
+            return false;
+        }
+        List<Region> regions = List.copyOf(zones.getRegionManager().getRegionsAt(BlockLocation.of(x, y, z), world));
+        List<Region> old = previous == null ? List.of() : previous.regions();
+        List<Region> entered = missing(regions, old);
+        List<Region> left = missing(old, regions);
+        boolean changed = !entered.isEmpty() || !left.isEmpty();
+        int version = previous == null ? 0 : previous.version() + (changed ? 1 : 0);
+        player.setRegionSnapshot(new Snapshot(world, x, y, z, modifications, regions, version));
+        if (changed) {
+            notify(listeners, new Transition(player, world, entered, left, regions));
+        } else if (previous != null && previous.modifications() != modifications) {
+            notify(refreshListeners, player);
+        }
+        return changed;
+    }
+
+    private <T> void notify(List<Consumer<T>> listeners, T value) {
+        for (Consumer<T> listener : listeners) {
+            try {
+                listener.accept(value);
+            } catch (Exception e) {
+                zones.getLogger().error("Failed to handle region change: {}", e.getMessage());
+                if (zones.debug) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if regions changed since the player was last tracked, so they should be updated
+     * even if they did not move
+     */
+    public boolean isStale(Player player) {
+        Snapshot snapshot = player.getRegionSnapshot();
+        return snapshot != null && snapshot.modifications() != zones.getRegionManager().getModificationCount();
+    }
+
+    /**
+     * Gets the regions of the first list without a region of the same key in the second one.
+     * Regions are compared by key, as they are replaced by new instances when reloaded.
+     */
+    private static List<Region> missing(List<Region> regions, List<Region> other) {
+        List<Region> missing = null;
+        outer:
+        for (Region region : regions) {
+            for (Region candidate : other) {
+                if (candidate == region || candidate.getKey().equals(region.getKey())) {
+                    continue outer;
+                }
+            }
+            if (missing == null) {
+                missing = new ArrayList<>(2);
+            }
+            missing.add(region);
+        }
+        return missing == null ? List.of() : missing;
+    }
+}
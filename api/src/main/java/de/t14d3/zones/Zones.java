@@ -15,9 +15,6 @@ import java.io.FileInputStream;
 import java.nio.file.Files;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("ThisEscapedInObjectConstruction")
 public class Zones {
@@ -31,7 +28,8 @@ public class Zones {
     private final DebugLoggerManager debugLogger;
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final ConfigManager configManager;
-    private final ThreadPoolExecutor executor;
+    private final ZonesScheduler scheduler;
+    private final RegionTracker regionTracker;
     private final FindBossbar findBossbar;
     private final ParticleHandler particleHandler;
 
@@ -52,6 +50,7 @@ public class Zones {
                 "true");
 
         this.debugLogger = new DebugLoggerManager(this, debug);
+        this.scheduler = new ZonesScheduler(this);
         this.cacheUtils = new CacheUtils(this);
         Flags flags = new Flags();
 
@@ -77,13 +76,7 @@ public class Zones {
 
         this.permissionManager = platform.getPermissionManager();
         this.regionManager = new RegionManager(this, permissionManager);
-        this.executor = new ThreadPoolExecutor(
-                0,
-                configManager.getInt("advanced.thread-pool.max-size", Runtime.getRuntime().availableProcessors() * 2),
-                configManager.getInt("advanced.thread-pool.keepalive", 60),
-                TimeUnit.SECONDS,
-                new SynchronousQueue<>()
-        );
+        this.regionTracker = new RegionTracker(this);
 
         this.findBossbar = new FindBossbar(this);
         this.particleHandler = new ParticleHandler(this);
@@ -125,8 +118,8 @@ public class Zones {
         return platform.getDataFolder();
     }
 
-    public ThreadPoolExecutor getThreadPool() {
-        return executor;
+    public ZonesScheduler getScheduler() {
+        return scheduler;
     }
 
     public CacheUtils getCacheUtils() {
@@ -137,7 +130,18 @@ public class Zones {
         return configManager.getSavingMode();
     }
 
+    public RegionTracker getRegionTracker() {
+        return regionTracker;
+    }
+
     public FindBossbar getFindBossbar() {
         return findBossbar;
     }
+
+    /**
+     * Stops all background tasks, call on disable.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
 }
@@ -49,4 +49,11 @@ public interface ZonesPlatform {
     void showBeacon(Player player, BlockLocation location, World world, NamedTextColor color);
 
     void removeBeacon(Player player, World world, BlockLocation location);
+
+    /**
+     * Runs a task on the main server thread, e.g. to apply results of background work.
+     *
+     * @param task The task to run.
+     */
+    void runTask(Runnable task);
 }
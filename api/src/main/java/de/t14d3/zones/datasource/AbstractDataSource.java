@@ -1,9 +1,18 @@
 package de.t14d3.zones.datasource;
 
 import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.Box;
+import de.t14d3.zones.objects.ChunkPresenceMap;
+import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class AbstractDataSource {
 
@@ -12,12 +21,183 @@ public abstract class AbstractDataSource {
 
     public abstract List<Region> loadRegions();
 
+    /**
+     * Loads all regions belonging to the given world.
+     * The default implementation filters {@link #loadRegions()},
+     * data sources should override this with a world-filtered lookup.
+     *
+     * @param world The world to load the regions for.
+     * @return The regions of the given world.
+     */
+    public List<Region> loadRegions(World world) {
+        List<Region> regions = new ArrayList<>();
+        for (Region region : loadRegions()) {
+            if (world.equals(region.getWorld())) {
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Loads all regions of a world that intersect the given box.
+     * The default implementation filters {@link #loadRegions(World)},
+     * data sources should override this with an indexed query.
+     *
+     * @param world The world to load the regions for.
+     * @param box   The area to load the regions in.
+     * @return The regions intersecting the box.
+     */
+    public List<Region> loadRegionsIntersecting(World world, Box box) {
+        List<Region> regions = new ArrayList<>();
+        for (Region region : loadRegions(world)) {
+            if (region.intersects(box.getMin(), box.getMax(), world)) {
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Counts the regions of a world that intersect the given box.
+     *
+     * @param world The world to count the regions in.
+     * @param box   The area to count the regions in.
+     * @return The number of regions intersecting the box.
+     */
+    public long countRegionsIn(World world, Box box) {
+        return loadRegionsIntersecting(world, box).size();
+    }
+
+    /**
+     * Loads all regions of a world that touch the given chunk range (inclusive), at any height.
+     *
+     * @return The regions touching the chunk range.
+     */
+    public List<Region> loadRegionsInChunks(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        return loadRegionsIntersecting(world, new Box(minChunkX << 4, Integer.MIN_VALUE, minChunkZ << 4,
+                (maxChunkX << 4) + 15, Integer.MAX_VALUE, (maxChunkZ << 4) + 15, world));
+    }
+
+    /**
+     * Builds a map of all chunks of a world that are covered by at least one region.
+     *
+     * @param world The world to build the map for.
+     * @return The chunk presence map of the world.
+     */
+    public ChunkPresenceMap loadChunkPresence(World world) {
+        ChunkPresenceMap presence = new ChunkPresenceMap();
+        for (Region region : loadRegions(world)) {
+            presence.markBlocks(region.getMin().getX(), region.getMin().getZ(),
+                    region.getMax().getX(), region.getMax().getZ());
+        }
+        return presence;
+    }
+
+    /**
+     * Opens a reader on a consistent snapshot of the stored regions,
+     * which can be used on another thread while the data source is in use.
+     * The default implementation reads the data source itself.
+     */
+    public RegionReader openReader() {
+        return new RegionReader() {
+            @Override
+            public long countRegions() {
+                return AbstractDataSource.this.countRegions();
+            }
+
+            @Override
+            public List<Region> loadRegionsAfter(long afterKey, int limit) {
+                return AbstractDataSource.this.loadRegionsAfter(afterKey, limit);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Loads a page of regions ordered by key, used to stream all regions without holding them in memory.
+     * Regions of worlds that are not loaded keep their stored world, see {@link World#unloaded(String)}.
+     * The default implementation sorts {@link #loadRegions()}.
+     *
+     * @param afterKey The key of the last region of the previous page, {@link Long#MIN_VALUE} for the first page.
+     * @param limit    The maximum number of regions to load.
+     * @return The regions with a key greater than {@code afterKey}, ordered by key.
+     */
+    public List<Region> loadRegionsAfter(long afterKey, int limit) {
+        return loadRegions().stream()
+                .filter(region -> region.getKey().getValue() > afterKey)
+                .sorted(Comparator.comparingInt(region -> region.getKey().getValue()))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Writes a batch of regions in a single transaction where supported.
+     *
+     * @param regions The regions to write.
+     * @return {@code true} if the whole batch was written.
+     */
+    public boolean writeBatch(List<Region> regions) {
+        for (Region region : regions) {
+            saveRegion(region.getKey().toString(), region);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the keys used by stored regions, e.g. to make sure new keys are not taken by regions
+     * that are not loaded. The default implementation loads every region.
+     *
+     * @param keys The keys to look up.
+     * @return The given keys that are used by a stored region.
+     */
+    public IntSet findExistingKeys(int[] keys) {
+        IntSet existing = new IntOpenHashSet();
+        for (int key : keys) {
+            if (loadRegion(RegionKey.fromInt(key).toString()) != null) {
+                existing.add(key);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * @return The number of stored regions.
+     */
+    public long countRegions() {
+        return loadRegions().size();
+    }
+
     public abstract void saveRegions(List<Region> regions);
 
     public abstract Region loadRegion(String key);
 
     public abstract void saveRegion(String key, Region region);
 
+    public abstract void deleteRegion(String key);
+
+    /**
+     * Returns a stamp describing the last modification of the stored regions,
+     * used to detect whether the region snapshot is stale.
+     * The stamp has to change whenever a region is saved or deleted, data sources that can not tell
+     * return {@code -1}, which disables the snapshot.
+     *
+     * @return The modification stamp, or {@code -1} if unknown.
+     */
+    public long getLastModified() {
+        return -1;
+    }
+
+    /**
+     * @return A future completing once the last {@link #saveRegions(List)} call has been written.
+     */
+    public CompletableFuture<Void> whenSaved() {
+        return CompletableFuture.completedFuture(null);
+    }
+
     public void close() {
 
     }
@@ -2,47 +2,343 @@ package de.t14d3.zones.datasource;
 
 import de.t14d3.zones.Region;
 import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.Box;
+import de.t14d3.zones.objects.ChunkPresenceMap;
+import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
-import java.util.List;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class DataSourceManager {
+    private final Zones plugin;
     private final AbstractDataSource currentDataSource;
+    private final DataSourceTypes type;
+    private final SnapshotStore snapshot;
+    private final RegionJournal journal;
+    private final int compactThreshold;
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+    private final boolean lazyLoading;
+    private final RegionChangeFeed changeFeed;
 
     public DataSourceManager(Zones plugin) {
-        DataSourceTypes type = DataSourceTypes.valueOf(
+        this.plugin = plugin;
+        this.type = DataSourceTypes.valueOf(
                 plugin.getConfig().getString("storage.type", "YAML").toUpperCase());
-        switch (type) {
-            case YAML:
-                this.currentDataSource = new YamlDataSource(plugin.getDataFolder(), plugin);
-                break;
-            case SQLITE, MYSQL, H2, POSTGRESQL, CUSTOM:
-                this.currentDataSource = new SQLDataSource(plugin, type);
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid storage type: " + plugin.getConfig().getString("storage"));
+        this.currentDataSource = createDataSource(plugin, type);
+        this.changeFeed = currentDataSource instanceof SQLDataSource sql ? sql.getChangeFeed() : null;
+        if (changeFeed == null && plugin.getConfig().getBoolean("storage.change-feed.enabled", false)
+                && !(currentDataSource instanceof SQLDataSource)) {
+            plugin.getLogger().warn("The change feed requires a database storage type, disabling it");
         }
+        boolean snapshotEnabled = plugin.getConfig().getBoolean("storage.snapshot.enabled", false);
+        if (snapshotEnabled && changeFeed != null) {
+            // Other servers may change the database while this one is offline
+            plugin.getLogger().warn("The snapshot can not be used together with the change feed, disabling it");
+            snapshotEnabled = false;
+        }
+        this.snapshot = snapshotEnabled
+                ? new SnapshotStore(plugin, new File(plugin.getDataFolder(), "regions.snapshot"))
+                : null;
+        this.journal = plugin.getConfig().getBoolean("storage.journal.enabled", false)
+                ? new RegionJournal(plugin, plugin.getDataFolder(),
+                plugin.getConfig().getInt("storage.journal.sync-interval", 200))
+                : null;
+        this.compactThreshold = plugin.getConfig().getInt("storage.journal.compact-threshold", 10000);
+
+        boolean lazy = plugin.getConfig().getBoolean("storage.lazy-loading.enabled", false);
+        if (lazy && !(currentDataSource instanceof SQLDataSource)) {
+            plugin.getLogger().warn("Lazy loading requires a database storage type, loading all regions instead");
+            lazy = false;
+        } else if (lazy && journal != null) {
+            plugin.getLogger().warn("Lazy loading can not be used together with the journal, loading all regions instead");
+            lazy = false;
+        }
+        this.lazyLoading = lazy;
+    }
+
+    /**
+     * Creates a new data source of the given type, e.g. as a migration target.
+     *
+     * @param plugin The Zones instance.
+     * @param type   The type of the data source.
+     * @return The new data source.
+     */
+    public static AbstractDataSource createDataSource(Zones plugin, DataSourceTypes type) {
+        return switch (type) {
+            case YAML -> new YamlDataSource(plugin.getDataFolder(), plugin);
+            case SQLITE, MYSQL, H2, POSTGRESQL, CUSTOM -> new SQLDataSource(plugin, type);
+        };
+    }
+
+    public AbstractDataSource getDataSource() {
+        return currentDataSource;
+    }
+
+    public DataSourceTypes getType() {
+        return type;
+    }
+
+    /**
+     * Starts receiving region changes made by other servers, if {@code storage.change-feed} is enabled.
+     *
+     * @param listener Receives the changes, called on a background thread.
+     */
+    public void startChangeFeed(Consumer<List<RegionChange>> listener) {
+        if (changeFeed != null) {
+            changeFeed.start(listener);
+        }
+    }
+
+    /**
+     * Writes all given regions and pending journal records to the data source,
+     * e.g. before the data source is read directly by a migration.
+     *
+     * @param regions All loaded regions.
+     * @return A future completing once the data source is up to date.
+     */
+    public CompletableFuture<Void> flush(List<Region> regions) {
+        if (journal != null) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            journal.execute(() -> {
+                // Runs after any compaction already in progress
+                if (journal.size() > 0) {
+                    compact(regions);
+                }
+                journal.execute(() -> future.complete(null));
+            });
+            return future;
+        }
+        if (changeFeed == null) {
+            currentDataSource.saveRegions(regions);
+            writeSnapshot(regions);
+        }
+        return currentDataSource.whenSaved();
+    }
+
+    /**
+     * @return Whether regions should be loaded per chunk instead of per world.
+     */
+    public boolean isLazyLoading() {
+        return lazyLoading;
     }
 
     public void close() {
+        if (journal != null) {
+            journal.close();
+        }
         currentDataSource.close();
     }
 
     public List<Region> loadRegions() {
-        return currentDataSource.loadRegions();
+        return replayJournal(null, currentDataSource.loadRegions());
+    }
+
+    public List<Region> loadRegions(World world) {
+        if (snapshot != null) {
+            long start = System.nanoTime();
+            List<Region> regions = snapshot.read(world, currentDataSource.getLastModified());
+            if (regions != null) {
+                plugin.getDebugLogger().log("Loaded " + regions.size() + " regions of " + world.getName()
+                        + " from snapshot in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+                return replayJournal(world, regions);
+            }
+        }
+        return replayJournal(world, currentDataSource.loadRegions(world));
     }
 
+    private List<Region> replayJournal(World world, List<Region> regions) {
+        if (journal == null) {
+            return regions;
+        }
+        Map<Integer, Region> byKey = new LinkedHashMap<>();
+        for (Region region : regions) {
+            byKey.put(region.getKey().getValue(), region);
+        }
+        journal.replay(world, byKey, pendingDeletes);
+        return new ArrayList<>(byKey.values());
+    }
+
+    /**
+     * Saves all given regions.
+     * With the journal enabled, this only syncs the journal on the journal thread until it grows past
+     * the compaction threshold, at which point the journal is folded into the data source in the background.
+     * With the change feed enabled, nothing is written, as every change is already saved individually.
+     *
+     * @param regions All loaded regions.
+     */
     public void saveRegions(List<Region> regions) {
+        if (journal != null) {
+            if (journal.size() < compactThreshold) {
+                journal.flushLater();
+            } else {
+                compact(regions);
+            }
+            return;
+        }
+        if (changeFeed != null) {
+            // Every change was already written by saveRegion, writing all regions again
+            // would revert changes made by other servers in the meantime
+            return;
+        }
         currentDataSource.saveRegions(regions);
+        writeSnapshot(regions);
+    }
+
+    private void compact(List<Region> regions) {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        if (!journal.rotate()) {
+            compacting.set(false);
+            return;
+        }
+        List<World> worlds = loadedWorlds();
+        List<String> deletes = new ArrayList<>(pendingDeletes);
+        journal.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                journal.syncRotated();
+                deletes.forEach(currentDataSource::deleteRegion);
+                currentDataSource.saveRegions(regions);
+                currentDataSource.whenSaved().join();
+                // Regions of worlds that are not loaded, e.g. from an import, only exist in the journal
+                List<Region> unloaded = journal.readRotated(
+                        worlds.stream().map(World::getName).collect(Collectors.toSet()));
+                if (!unloaded.isEmpty() && !currentDataSource.writeBatch(unloaded)) {
+                    throw new IOException("Failed to save " + unloaded.size() + " regions of worlds that are not loaded");
+                }
+                if (snapshot != null) {
+                    snapshot.write(regions, worlds, currentDataSource.getLastModified());
+                }
+                journal.deleteRotated();
+                deletes.forEach(pendingDeletes::remove);
+                plugin.getDebugLogger().log("Compacted region journal in "
+                        + (System.nanoTime() - start) / 1_000_000 + "ms");
+            } catch (Exception e) {
+                plugin.getLogger().error("Failed to compact region journal: {}", e.getMessage());
+                if (plugin.debug) {
+                    e.printStackTrace();
+                }
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private void writeSnapshot(List<Region> regions) {
+        if (snapshot == null) {
+            return;
+        }
+        List<World> worlds = loadedWorlds();
+        CompletableFuture<Void> saved = currentDataSource.whenSaved();
+        // Encoding and writing all regions takes a while, so it runs in the background
+        Executor executor = plugin.getScheduler()::executeOrRun;
+        if (saved.isDone()) {
+            // Saved right away, the stamp has to be read before the regions change again
+            long stamp = currentDataSource.getLastModified();
+            executor.execute(() -> snapshot.write(regions, worlds, stamp));
+        } else {
+            saved.thenRunAsync(() -> snapshot.write(regions, worlds, currentDataSource.getLastModified()), executor);
+        }
+    }
+
+    private List<World> loadedWorlds() {
+        // Only worlds whose regions are loaded are fully contained in the saved list
+        return plugin.getPlatform().getWorlds().stream()
+                .filter(world -> plugin.getRegionManager().isWorldLoaded(world))
+                .toList();
+    }
+
+    /**
+     * Loads the stored regions of a world intersecting the given box, using the indexes of the data source.
+     * Changes still waiting in the journal are not included.
+     */
+    public List<Region> loadRegionsIntersecting(World world, Box box) {
+        return currentDataSource.loadRegionsIntersecting(world, box);
+    }
+
+    /**
+     * Counts the stored regions of a world intersecting the given box.
+     * Changes still waiting in the journal are not included.
+     */
+    public long countRegionsIn(World world, Box box) {
+        return currentDataSource.countRegionsIn(world, box);
+    }
+
+    public List<Region> loadRegionsInChunks(World world, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        return currentDataSource.loadRegionsInChunks(world, minChunkX, minChunkZ, maxChunkX, maxChunkZ);
+    }
+
+    public ChunkPresenceMap loadChunkPresence(World world) {
+        return currentDataSource.loadChunkPresence(world);
     }
 
     public Region loadRegion(String key) {
         return currentDataSource.loadRegion(key);
     }
 
+    /**
+     * @see AbstractDataSource#findExistingKeys(int[])
+     */
+    public IntSet findExistingKeys(int[] keys) {
+        return currentDataSource.findExistingKeys(keys);
+    }
+
     public void saveRegion(String key, Region region) {
+        if (journal != null) {
+            journal.upsert(region);
+            pendingDeletes.remove(key);
+            return;
+        }
+        if (snapshot != null) {
+            snapshot.invalidate();
+        }
         currentDataSource.saveRegion(key, region);
     }
 
+    /**
+     * Saves many regions at once, in a single transaction where the data source supports it.
+     * Blocks until the regions are written, so it must not be called on the main thread.
+     *
+     * @param regions The regions to save.
+     * @return Whether all regions were saved.
+     */
+    public boolean saveRegionsBatch(List<Region> regions) {
+        if (journal != null) {
+            for (Region region : regions) {
+                journal.upsert(region);
+                pendingDeletes.remove(region.getKey().toString());
+            }
+            journal.flush();
+            return true;
+        }
+        if (snapshot != null) {
+            snapshot.invalidate();
+        }
+        return currentDataSource.writeBatch(regions);
+    }
+
+    public void deleteRegion(String key) {
+        if (journal != null) {
+            journal.delete(key);
+            pendingDeletes.add(key);
+            return;
+        }
+        if (snapshot != null) {
+            snapshot.invalidate();
+        }
+        currentDataSource.deleteRegion(key);
+    }
+
     public enum DataSourceTypes {
         YAML,
         MYSQL,
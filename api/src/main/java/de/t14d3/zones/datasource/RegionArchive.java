@@ -0,0 +1,352 @@
+package de.t14d3.zones.datasource;
+
+import com.google.gson.*;
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.datasource.codec.JsonMembersCodec;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
+import de.t14d3.zones.objects.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports and imports regions as newline-delimited JSON, one region per line.
+ * Files ending in {@code .gz} are gzip compressed.
+ * <p>
+ * Exports read a {@link RegionReader} snapshot of the data source page by page ordered by key,
+ * so saves made during the export do not interfere with it. Imports read the file in fixed-size batches
+ * which are parsed in parallel and written with {@link DataSourceManager#saveRegionsBatch(List)},
+ * which does not share its connection or file access with the main thread.
+ * Memory usage therefore does not depend on the number of regions.
+ * Regions are written by key, so importing the same file twice results in the same regions.
+ * <p>
+ * A line looks like this:
+ * <pre>{"key":"1a2b3c4d","name":"spawn","world":"world","min":[0,-64,0],"max":[15,320,15],
+ * "parent":null,"priority":0,"shape":null,"members":{...}}</pre>
+ */
+public class RegionArchive {
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+    private static final long PROGRESS_INTERVAL = 5000;
+    private static final int MAX_REPORTED_ERRORS = 10;
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_+-][A-Za-z0-9_.+-]*");
+
+    private final Zones zones;
+    private final DataSourceManager dataSourceManager;
+    private final int batchSize;
+    private final Gson gson = new Gson();
+
+    public RegionArchive(Zones zones, DataSourceManager dataSourceManager) {
+        this.zones = zones;
+        this.dataSourceManager = dataSourceManager;
+        this.batchSize = Math.max(1, zones.getConfig().getInt("storage.archive.batch-size", 1000));
+    }
+
+    public record Progress(long processed, double regionsPerSecond) {
+    }
+
+    public record ExportResult(boolean success, long exported, long millis) {
+    }
+
+    /**
+     * @param success  Whether the whole file was read and all valid regions were written.
+     * @param imported The number of valid regions, which were written unless this was a dry run.
+     * @param invalid  The number of lines that could not be imported.
+     * @param errors   The first few errors, prefixed with their line number.
+     * @param dryRun   Whether the file was only validated.
+     */
+    public record ImportResult(boolean success, long imported, long invalid, List<String> errors, boolean dryRun,
+                               long millis) {
+    }
+
+    private record ParsedLine(@Nullable Region region, @Nullable String error) {
+    }
+
+    /**
+     * @return Whether an export or import is currently running.
+     */
+    public static boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Resolves the name of an archive file inside the {@code exports} folder of the data folder.
+     *
+     * @param name The file name, must not contain path separators.
+     * @return The file, or {@code null} if the name is not allowed.
+     */
+    public static @Nullable File resolve(Zones zones, String name) {
+        if (!FILE_NAME.matcher(name).matches()) {
+            return null;
+        }
+        return new File(new File(zones.getDataFolder(), "exports"), name);
+    }
+
+    /**
+     * Writes all regions of the data source to a file on a background thread.
+     * Changes not yet saved to the data source are not included, flush the data source first.
+     *
+     * @param file             The file to write, replaced once the export completed.
+     * @param progressListener Receives progress updates every few seconds.
+     * @return A future completing with the result, or {@code null} if another export or import is already running.
+     */
+    public CompletableFuture<ExportResult> export(File file, Consumer<Progress> progressListener) {
+        return submit(() -> runExport(file, progressListener));
+    }
+
+    /**
+     * Reads regions from a file on a background thread and saves them, replacing regions with the same key.
+     * Invalid lines are skipped and reported. Loaded regions are updated on the main thread,
+     * regions of worlds that are not loaded are only stored, see {@link World#unloaded(String)}.
+     * Must be called on the main thread.
+     *
+     * @param file             The file to read.
+     * @param dryRun           Whether to only validate the file without saving anything.
+     * @param progressListener Receives progress updates every few seconds.
+     * @return A future completing with the result, or {@code null} if another export or import is already running.
+     */
+    public CompletableFuture<ImportResult> importRegions(File file, boolean dryRun,
+                                                         Consumer<Progress> progressListener) {
+        // Worlds are looked up on the calling thread, lines are parsed concurrently
+        Map<String, World> worlds = new HashMap<>();
+        for (World world : zones.getPlatform().getWorlds()) {
+            worlds.put(world.getName(), world);
+        }
+        return submit(() -> runImport(file, worlds, dryRun, progressListener));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    running.set(false);
+                }
+            }, zones.getScheduler());
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private ExportResult runExport(File file, Consumer<Progress> progressListener) {
+        long start = System.currentTimeMillis();
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        long exported = 0;
+        long lastProgress = start;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (RegionReader reader = dataSourceManager.getDataSource().openReader();
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         open(temp, file.getName().endsWith(".gz")), StandardCharsets.UTF_8))) {
+                long lastKey = Long.MIN_VALUE;
+                List<Region> batch;
+                while (!(batch = reader.loadRegionsAfter(lastKey, batchSize)).isEmpty()) {
+                    for (Region region : batch) {
+                        writer.write(gson.toJson(toJson(region)));
+                        writer.write('\n');
+                    }
+                    exported += batch.size();
+                    lastKey = batch.get(batch.size() - 1).getKey().getValue();
+
+                    long now = System.currentTimeMillis();
+                    if (now - lastProgress >= PROGRESS_INTERVAL) {
+                        lastProgress = now;
+                        progressListener.accept(new Progress(exported, exported * 1000.0 / Math.max(1, now - start)));
+                    }
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            zones.getLogger().error("Failed to export regions to {}: {}", file.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            if (temp.exists() && !temp.delete()) {
+                zones.getLogger().warn("Failed to delete {}", temp.getName());
+            }
+            return new ExportResult(false, exported, System.currentTimeMillis() - start);
+        }
+        long millis = System.currentTimeMillis() - start;
+        zones.getLogger().info("Exported {} regions to {} in {}ms", exported, file.getName(), millis);
+        return new ExportResult(true, exported, millis);
+    }
+
+    private ImportResult runImport(File file, Map<String, World> worlds, boolean dryRun, Consumer<Progress> progressListener) {
+        long start = System.currentTimeMillis();
+        long imported = 0;
+        long invalid = 0;
+        long lastProgress = start;
+        List<String> errors = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                file.getName().endsWith(".gz") ? new GZIPInputStream(new FileInputStream(file), 65536)
+                        : new FileInputStream(file), StandardCharsets.UTF_8), 65536)) {
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(batchSize);
+            boolean done = false;
+            while (!done) {
+                lines.clear();
+                long firstLine = lineNumber + 1;
+                String line;
+                while (lines.size() < batchSize && (line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+                lineNumber += lines.size();
+                done = lines.size() < batchSize;
+
+                ParsedLine[] parsed = IntStream.range(0, lines.size()).parallel()
+                        .mapToObj(i -> parse(lines.get(i), worlds))
+                        .toArray(ParsedLine[]::new);
+                List<Region> regions = new ArrayList<>(parsed.length);
+                for (int i = 0; i < parsed.length; i++) {
+                    if (parsed[i] == null) {
+                        continue; // Blank line
+                    }
+                    if (parsed[i].region() != null) {
+                        regions.add(parsed[i].region());
+                        continue;
+                    }
+                    invalid++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Line " + (firstLine + i) + ": " + parsed[i].error());
+                    }
+                }
+                if (!dryRun && !regions.isEmpty()) {
+                    if (!dataSourceManager.saveRegionsBatch(regions)) {
+                        zones.getLogger().error("Import from {} stopped at line {}, the file can be imported again",
+                                file.getName(), firstLine);
+                        return new ImportResult(false, imported, invalid, errors, false,
+                                System.currentTimeMillis() - start);
+                    }
+                    zones.getPlatform().runTask(() -> zones.getRegionManager().applyStoredRegions(regions));
+                }
+                imported += regions.size();
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL) {
+                    lastProgress = now;
+                    progressListener.accept(new Progress(imported, imported * 1000.0 / Math.max(1, now - start)));
+                }
+            }
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to read regions from {}: {}", file.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            return new ImportResult(false, imported, invalid, errors, dryRun, System.currentTimeMillis() - start);
+        }
+        long millis = System.currentTimeMillis() - start;
+        zones.getLogger().info("{} {} regions from {} in {}ms, {} invalid lines", dryRun ? "Validated" : "Imported",
+                imported, file.getName(), millis, invalid);
+        return new ImportResult(true, imported, invalid, errors, dryRun, millis);
+    }
+
+    private static OutputStream open(File file, boolean gzip) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 65536);
+        return gzip ? new GZIPOutputStream(out, 65536) : out;
+    }
+
+    private JsonObject toJson(Region region) {
+        JsonObject json = new JsonObject();
+        json.addProperty("key", region.getKey().toString());
+        json.addProperty("name", region.getName());
+        json.addProperty("world", region.getWorld() != null ? region.getWorld().getName() : null);
+        json.add("min", toJson(region.getMin()));
+        json.add("max", toJson(region.getMax()));
+        json.addProperty("parent", region.getParent() != null ? region.getParent().toString() : null);
+        json.addProperty("priority", region.getPriority());
+        json.addProperty("shape", region.getShape() != null ? region.getShape().serialize() : null);
+        json.add("members", JsonMembersCodec.INSTANCE.toJsonTree(region.getMembers()));
+        return json;
+    }
+
+    private static JsonArray toJson(BlockLocation location) {
+        JsonArray json = new JsonArray(3);
+        json.add(location.getX());
+        json.add(location.getY());
+        json.add(location.getZ());
+        return json;
+    }
+
+    /**
+     * Parses and validates a single line, called concurrently.
+     *
+     * @return The parsed line, or {@code null} for a blank line.
+     */
+    private static ParsedLine parse(String line, Map<String, World> worlds) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+            RegionKey key = RegionKey.fromString(required(json, "key").getAsString());
+            if (key.getValue() == 0) {
+                return new ParsedLine(null, "Region key must not be 00000000");
+            }
+            String worldName = required(json, "world").getAsString();
+            World world = worlds.get(worldName);
+            if (world == null) {
+                // Stored for when the world is loaded, like regions exported from it
+                world = World.unloaded(worldName);
+            }
+            BlockLocation min = parseLocation(required(json, "min"));
+            BlockLocation max = parseLocation(required(json, "max"));
+            if (min.getX() > max.getX() || min.getY() > max.getY() || min.getZ() > max.getZ()) {
+                return new ParsedLine(null, "Minimum corner must not be greater than the maximum corner");
+            }
+            RegionKey parent = isPresent(json, "parent")
+                    ? RegionKey.fromString(json.get("parent").getAsString()) : null;
+            int priority = isPresent(json, "priority") ? json.get("priority").getAsInt() : 0;
+            RegionShape shape = isPresent(json, "shape") ? RegionShape.parse(json.get("shape").getAsString()) : null;
+            Map<String, List<RegionFlagEntry>> members = JsonMembersCodec.INSTANCE.fromJson(
+                    isPresent(json, "members") ? json.get("members") : null);
+            String name = isPresent(json, "name") ? json.get("name").getAsString() : key.toString();
+            return new ParsedLine(new Region(name, min, max, world, members, key, parent, priority, shape), null);
+        } catch (RuntimeException e) {
+            // Malformed JSON, wrong value types, invalid keys or shapes
+            return new ParsedLine(null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private static boolean isPresent(JsonObject json, String name) {
+        return json.has(name) && !json.get(name).isJsonNull();
+    }
+
+    private static JsonElement required(JsonObject json, String name) {
+        if (!isPresent(json, name)) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return json.get(name);
+    }
+
+    private static BlockLocation parseLocation(JsonElement json) {
+        JsonArray array = json.getAsJsonArray();
+        if (array.size() != 3) {
+            throw new IllegalArgumentException("Locations must have 3 coordinates");
+        }
+        return new BlockLocation(array.get(0).getAsInt(), array.get(1).getAsInt(), array.get(2).getAsInt());
+    }
+}
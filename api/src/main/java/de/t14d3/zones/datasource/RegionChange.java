@@ -0,0 +1,16 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A region change made by another server, as reported by the {@link RegionChangeFeed}.
+ *
+ * @param sequence The position of the change in the change table.
+ * @param key      The key of the changed region.
+ * @param deleted  Whether the region was deleted.
+ * @param region   The reloaded state of the region, {@code null} if it was deleted.
+ */
+public record RegionChange(long sequence, RegionKey key, boolean deleted, @Nullable Region region) {
+}
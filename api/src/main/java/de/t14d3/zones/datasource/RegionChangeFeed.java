@@ -0,0 +1,283 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.Zones;
+import org.postgresql.PGConnection;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Propagates region changes between servers sharing one database.
+ * <p>
+ * Every write of the {@link SQLDataSource} appends a row ({@code seq, region_key, op, origin, changed_at})
+ * to the change table in the same transaction. Each server polls the rows after the last sequence it has seen,
+ * skips its own changes and reloads the changed regions individually.
+ * On PostgreSQL writers send a notification, so polling happens right after a change instead of on the next interval.
+ * <p>
+ * Sequence values can become visible out of order when transactions commit concurrently,
+ * so skipped values are queried again until they show up or time out.
+ */
+public class RegionChangeFeed {
+    private static final long GAP_TIMEOUT = 30_000;
+    private static final int MAX_GAPS = 1000;
+    private static final long PRUNE_INTERVAL = 60_000;
+
+    private final Zones zones;
+    private final SQLDataSource source;
+    private final DataSourceManager.DataSourceTypes type;
+    private final String table;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long pollInterval;
+    private final int batchSize;
+    private final long retention;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private ScheduledExecutorService executor;
+    private Connection connection;
+    private Consumer<List<RegionChange>> listener;
+    private long lastSequence;
+    private long lastPrune;
+
+    RegionChangeFeed(Zones zones, SQLDataSource source, DataSourceManager.DataSourceTypes type,
+                     Connection connection) throws SQLException {
+        this.zones = zones;
+        this.source = source;
+        this.type = type;
+        this.table = zones.getConfig().getString("storage.change-feed.table", "region_changes");
+        this.pollInterval = Math.max(50, zones.getConfig().getInt("storage.change-feed.poll-interval", 1000));
+        this.batchSize = Math.max(1, zones.getConfig().getInt("storage.change-feed.batch-size", 500));
+        this.retention = zones.getConfig().getInt("storage.change-feed.retention", 3600) * 1000L;
+
+        String sequence = switch (type) {
+            case POSTGRESQL -> "seq BIGSERIAL PRIMARY KEY";
+            case SQLITE -> "seq INTEGER PRIMARY KEY AUTOINCREMENT";
+            default -> "seq BIGINT AUTO_INCREMENT PRIMARY KEY";
+        };
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + table + " (" +
+                    sequence + ", " +
+                    "region_key INT NOT NULL, " +
+                    "op CHAR(1) NOT NULL, " +
+                    "origin VARCHAR(36) NOT NULL, " +
+                    "changed_at BIGINT NOT NULL" +
+                    ")");
+        }
+        source.createIndex("idx_" + table + "_time", table, "(changed_at)");
+        // Read before the regions are loaded, so no change in between is missed
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT MAX(seq) FROM " + table)) {
+            this.lastSequence = rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * @return The id identifying the changes of this server in the change table.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Appends changes to the change table, using the connection (and transaction) of the write itself.
+     */
+    void record(Connection connection, int[] keys, boolean deleted) throws SQLException {
+        String sql = "INSERT INTO " + table + " (region_key, op, origin, changed_at) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            long now = System.currentTimeMillis();
+            for (int key : keys) {
+                statement.setInt(1, key);
+                statement.setString(2, deleted ? "D" : "U");
+                statement.setString(3, nodeId);
+                statement.setLong(4, now);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        if (type == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            // Delivered on commit, multiple notifications of one transaction are merged
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("NOTIFY " + table);
+            }
+        }
+    }
+
+    /**
+     * Starts polling the change table on a background thread.
+     *
+     * @param listener Receives the changes of other servers, called on the polling thread.
+     */
+    public synchronized void start(Consumer<List<RegionChange>> listener) {
+        if (executor != null) {
+            return;
+        }
+        this.listener = listener;
+        this.executor = zones.getScheduler().lane("Zones Change Feed");
+        if (type == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            // Waiting for a notification blocks for at most the poll interval, the short delay merges bursts
+            executor.scheduleWithFixedDelay(this::run, 0, 50, TimeUnit.MILLISECONDS);
+        } else {
+            executor.scheduleWithFixedDelay(this::run, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+        }
+        zones.getLogger().info("Listening for region changes of other servers (node {})", nodeId);
+    }
+
+    private void run() {
+        try {
+            if (connection == null || !connection.isValid(5)) {
+                connect();
+            }
+            if (type == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+                connection.unwrap(PGConnection.class).getNotifications((int) pollInterval);
+            }
+            poll();
+            long now = System.currentTimeMillis();
+            if (now - lastPrune >= PRUNE_INTERVAL) {
+                lastPrune = now;
+                prune(now);
+            }
+        } catch (Exception e) {
+            zones.getLogger().error("Failed to poll region changes: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void connect() throws SQLException {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        // Separate connection, so polling never interferes with transactions of the data source
+        connection = source.connect();
+        if (connection == null) {
+            throw new SQLException("Could not connect to the database");
+        }
+        if (type == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + table);
+            }
+        }
+    }
+
+    private record Row(long sequence, int key, boolean deleted, String origin) {
+    }
+
+    private void poll() throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (Row row : queryGaps()) {
+                gaps.remove(row.sequence());
+                rows.add(row);
+            }
+        }
+        List<Row> batch;
+        do {
+            batch = queryAfter(lastSequence);
+            for (Row row : batch) {
+                long missing = row.sequence() - lastSequence - 1;
+                if (missing > 0 && missing + gaps.size() <= MAX_GAPS) {
+                    long now = System.currentTimeMillis();
+                    for (long sequence = lastSequence + 1; sequence < row.sequence(); sequence++) {
+                        gaps.put(sequence, now);
+                    }
+                }
+                lastSequence = row.sequence();
+            }
+            rows.addAll(batch);
+        } while (batch.size() == batchSize);
+
+        long expired = System.currentTimeMillis() - GAP_TIMEOUT;
+        gaps.values().removeIf(noticed -> noticed < expired);
+
+        // Only the latest state of each region is relevant
+        Map<Integer, Row> latest = new LinkedHashMap<>();
+        for (Row row : rows) {
+            if (!row.origin().equals(nodeId)) {
+                latest.remove(row.key());
+                latest.put(row.key(), row);
+            }
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+        List<RegionChange> changes = new ArrayList<>(latest.size());
+        for (Row row : latest.values()) {
+            Region region = row.deleted() ? null : source.loadRegion(connection, row.key());
+            changes.add(new RegionChange(row.sequence(), RegionKey.fromInt(row.key()), region == null, region));
+        }
+        zones.getDebugLogger().log("Received " + changes.size() + " region changes from other servers");
+        listener.accept(changes);
+    }
+
+    private List<Row> queryAfter(long sequence) throws SQLException {
+        String sql = "SELECT seq, region_key, op, origin FROM " + table + " WHERE seq > ? ORDER BY seq LIMIT ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, sequence);
+            statement.setInt(2, batchSize);
+            return readRows(statement);
+        }
+    }
+
+    private List<Row> queryGaps() throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(gaps.size(), "?"));
+        String sql = "SELECT seq, region_key, op, origin FROM " + table + " WHERE seq IN (" + placeholders + ")";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (long sequence : gaps.keySet()) {
+                statement.setLong(index++, sequence);
+            }
+            return readRows(statement);
+        }
+    }
+
+    private static List<Row> readRows(PreparedStatement statement) throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows.add(new Row(rs.getLong(1), rs.getInt(2), "D".equals(rs.getString(3)), rs.getString(4)));
+            }
+        }
+        return rows;
+    }
+
+    private void prune(long now) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE changed_at < ?")) {
+            statement.setLong(1, now - retention);
+            int removed = statement.executeUpdate();
+            if (removed > 0) {
+                zones.getDebugLogger().log("Pruned " + removed + " old region changes");
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                if (!executor.awaitTermination(pollInterval + 5000, TimeUnit.MILLISECONDS)) {
+                    zones.getLogger().warn("Region change feed did not stop in time");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                zones.getLogger().error("Error closing the change feed connection: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
+import de.t14d3.zones.objects.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of region changes.
+ * <p>
+ * Every change is appended as a small record ({@code length, op, payload, crc32}) and
+ * fsynced in batches. On load the journal is replayed over the last full save,
+ * a torn record at the end of the file (e.g. after a crash) is discarded.
+ * Compaction rotates the journal into a second segment, which is deleted once
+ * its changes have been written to the data source.
+ */
+public class RegionJournal {
+    private static final byte OP_UPSERT = 1;
+    private static final byte OP_DELETE = 2;
+
+    private final Zones zones;
+    private final File file;
+    private final File rotatedFile;
+    private final ScheduledExecutorService executor;
+
+    private FileChannel channel;
+    private DataOutputStream out;
+    private int records;
+    private boolean dirty;
+
+    public RegionJournal(Zones zones, File dataFolder, long syncInterval) {
+        this.zones = zones;
+        this.file = new File(dataFolder, "regions.journal");
+        this.rotatedFile = new File(dataFolder, "regions.journal.old");
+        this.executor = zones.getScheduler().lane("Zones Journal");
+        try {
+            recover();
+            open();
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to open region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        executor.scheduleWithFixedDelay(this::flush, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prepares the journal files after startup:
+     * drops torn records and merges a segment left behind by an interrupted compaction.
+     */
+    private void recover() throws IOException {
+        truncateTornTail(file);
+        if (rotatedFile.exists()) {
+            truncateTornTail(rotatedFile);
+            if (file.exists()) {
+                try (FileChannel target = FileChannel.open(rotatedFile.toPath(), StandardOpenOption.APPEND);
+                     FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    source.transferTo(0, source.size(), target);
+                    target.force(false);
+                }
+            }
+            Files.move(rotatedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void truncateTornTail(File segment) throws IOException {
+        if (!segment.exists()) {
+            return;
+        }
+        long valid = scan(segment, null);
+        if (valid < segment.length()) {
+            zones.getLogger().warn("Discarding {} bytes of incomplete records from {}",
+                    segment.length() - valid, segment.getName());
+            try (FileChannel fileChannel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+                fileChannel.truncate(valid);
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        this.records = countRecords();
+    }
+
+    private int countRecords() throws IOException {
+        int[] count = {0};
+        scan(file, (op, payload) -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Records the current state of a region.
+     */
+    public void upsert(Region region) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream payload = new DataOutputStream(bytes)) {
+            writeRegion(payload, region);
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to encode region {}: {}", region.getKey(), e.getMessage());
+            return;
+        }
+        append(OP_UPSERT, bytes.toByteArray());
+    }
+
+    /**
+     * Records the deletion of a region.
+     */
+    public void delete(String key) {
+        int value = RegionKey.fromString(key).getValue();
+        append(OP_DELETE, new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+
+    private synchronized void append(byte op, byte[] payload) {
+        if (out == null) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(op);
+        crc.update(payload);
+        try {
+            out.writeInt(payload.length + 1);
+            out.writeByte(op);
+            out.write(payload);
+            out.writeInt((int) crc.getValue());
+            records++;
+            dirty = true;
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to append to region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes and fsyncs all pending records.
+     * Blocks until the records are on disk, use {@link #flushLater()} on the main thread.
+     * Appending records is not blocked while the file is synced.
+     */
+    public void flush() {
+        FileChannel synced;
+        synchronized (this) {
+            if (!dirty || out == null) {
+                return;
+            }
+            try {
+                out.flush();
+            } catch (IOException e) {
+                zones.getLogger().error("Failed to write region journal: {}", e.getMessage());
+                if (zones.debug) {
+                    e.printStackTrace();
+                }
+                return;
+            }
+            dirty = false;
+            synced = channel;
+        }
+        try {
+            synced.force(false);
+        } catch (ClosedChannelException e) {
+            // Rotated or closed in the meantime, the segment is synced by compaction or was closed on shutdown
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            zones.getLogger().error("Failed to sync region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Syncs all pending records on the journal thread, without waiting for it.
+     */
+    public void flushLater() {
+        executor.execute(this::flush);
+    }
+
+    /**
+     * @return The number of records in the current segment.
+     */
+    public synchronized int size() {
+        return records;
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     * Records written up to this point stay in the rotated segment until {@link #deleteRotated()} is called.
+     *
+     * @return {@code false} if a previous rotation has not been compacted yet.
+     */
+    public synchronized boolean rotate() {
+        if (rotatedFile.exists() || out == null) {
+            return false;
+        }
+        try {
+            // Synced by syncRotated() on the journal thread
+            out.close();
+            dirty = false;
+            Files.move(file.toPath(), rotatedFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            open();
+            return true;
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to rotate region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Fsyncs the rotated segment, called on the journal thread before it is compacted.
+     */
+    public void syncRotated() {
+        try (FileChannel rotated = FileChannel.open(rotatedFile.toPath(), StandardOpenOption.WRITE)) {
+            rotated.force(false);
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to sync region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Deletes the rotated segment after its changes have been written to the data source.
+     */
+    public void deleteRotated() {
+        if (rotatedFile.exists() && !rotatedFile.delete()) {
+            zones.getLogger().warn("Failed to delete compacted journal segment {}", rotatedFile.getName());
+        }
+    }
+
+    /**
+     * Runs a task on the journal thread, used for compaction.
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Applies all recorded changes of a world to the given regions.
+     *
+     * @param world   The world whose regions are replayed, or {@code null} for all loaded worlds.
+     * @param regions The regions of the world by key, modified in place.
+     * @param deleted Receives the keys of all deleted regions.
+     */
+    public void replay(@Nullable World world, Map<Integer, Region> regions, Set<String> deleted) {
+        try {
+            synchronized (this) {
+                // Only buffered records have to be written to be read back
+                if (out != null) {
+                    out.flush();
+                }
+            }
+            for (File segment : new File[]{rotatedFile, file}) {
+                if (!segment.exists()) {
+                    continue;
+                }
+                scan(segment, (op, payload) -> {
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                    if (op == OP_DELETE) {
+                        int key = in.readInt();
+                        regions.remove(key);
+                        deleted.add(RegionKey.fromInt(key).toString());
+                    } else if (op == OP_UPSERT) {
+                        String worldName = in.readUTF();
+                        World regionWorld = world != null ? world : zones.getPlatform().getWorld(worldName);
+                        if (regionWorld == null || !regionWorld.getName().equals(worldName)) {
+                            return;
+                        }
+                        Region region = readRegion(in, regionWorld);
+                        regions.put(region.getKey().getValue(), region);
+                        deleted.remove(region.getKey().toString());
+                    }
+                });
+            }
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to replay region journal: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Reads the latest recorded state of the regions in the rotated segment whose world is not one of the given ones,
+     * e.g. regions imported into a world that is not loaded. They have to be saved before the segment is deleted,
+     * as they are missing from the loaded regions. Worlds that do not exist on this server are kept,
+     * see {@link World#unloaded(String)}.
+     *
+     * @param loadedWorlds The names of the worlds whose regions are saved from memory.
+     */
+    public List<Region> readRotated(Set<String> loadedWorlds) throws IOException {
+        Map<Integer, Region> regions = new LinkedHashMap<>();
+        scan(rotatedFile, (op, payload) -> {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (op == OP_DELETE) {
+                regions.remove(in.readInt());
+            } else if (op == OP_UPSERT) {
+                String worldName = in.readUTF();
+                if (loadedWorlds.contains(worldName)) {
+                    return;
+                }
+                World world = zones.getPlatform().getWorld(worldName);
+                Region region = readRegion(in, world != null ? world : World.unloaded(worldName));
+                regions.put(region.getKey().getValue(), region);
+            }
+        });
+        return new ArrayList<>(regions.values());
+    }
+
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                zones.getLogger().warn("Region journal compaction did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+            } catch (IOException e) {
+                zones.getLogger().error("Failed to close region journal: {}", e.getMessage());
+            }
+        }
+    }
+
+    private interface RecordConsumer {
+        void accept(byte op, byte[] payload) throws IOException;
+    }
+
+    /**
+     * Reads all intact records of a segment.
+     *
+     * @return The length of the intact part of the segment.
+     */
+    private static long scan(File segment, RecordConsumer consumer) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+            while (true) {
+                int length;
+                byte op;
+                byte[] payload;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    if (length < 1) {
+                        break;
+                    }
+                    op = in.readByte();
+                    payload = new byte[length - 1];
+                    in.readFully(payload);
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(op);
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                if (consumer != null) {
+                    consumer.accept(op, payload);
+                }
+                valid += Integer.BYTES + length + Integer.BYTES;
+            }
+        } catch (FileNotFoundException e) {
+            return 0;
+        }
+        return valid;
+    }
+
+    private static void writeRegion(DataOutputStream out, Region region) throws IOException {
+        out.writeUTF(region.getWorld().getName());
+        out.writeInt(region.getKey().getValue());
+        out.writeUTF(region.getName());
+        out.writeInt(region.getParent() != null ? region.getParent().getValue() : 0);
+        out.writeInt(region.getPriority());
+        BlockLocation min = region.getMin();
+        BlockLocation max = region.getMax();
+        out.writeInt(min.getX());
+        out.writeInt(min.getY());
+        out.writeInt(min.getZ());
+        out.writeInt(max.getX());
+        out.writeInt(max.getY());
+        out.writeInt(max.getZ());
+        out.writeInt(region.getMembers().size());
+        for (Map.Entry<String, List<RegionFlagEntry>> member : region.getMembers().entrySet()) {
+            out.writeUTF(member.getKey());
+            out.writeInt(member.getValue().size());
+            for (RegionFlagEntry entry : member.getValue()) {
+                out.writeUTF(entry.getFlagValue());
+                out.writeInt(entry.getValues().size());
+                for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                    out.writeUTF(value.getValue());
+                    out.writeBoolean(value.isInverted());
+                }
+            }
+        }
+        // Shapes can exceed the 64 KB limit of writeUTF, e.g. polygons with many points
+        RegionShape shape = region.getShape();
+        out.writeBoolean(shape != null);
+        if (shape != null) {
+            byte[] bytes = shape.serialize().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static Region readRegion(DataInputStream in, World world) throws IOException {
+        RegionKey key = RegionKey.fromInt(in.readInt());
+        String name = in.readUTF();
+        int parentKey = in.readInt();
+        RegionKey parent = parentKey != 0 ? RegionKey.fromInt(parentKey) : null;
+        int priority = in.readInt();
+        BlockLocation min = new BlockLocation(in.readInt(), in.readInt(), in.readInt());
+        BlockLocation max = new BlockLocation(in.readInt(), in.readInt(), in.readInt());
+        int memberCount = in.readInt();
+        Map<String, List<RegionFlagEntry>> members = new HashMap<>();
+        for (int m = 0; m < memberCount; m++) {
+            String who = in.readUTF();
+            int flagCount = in.readInt();
+            List<RegionFlagEntry> entries = new ArrayList<>(flagCount);
+            for (int f = 0; f < flagCount; f++) {
+                String flag = in.readUTF();
+                int valueCount = in.readInt();
+                List<RegionFlagEntry.FlagValue> values = new ArrayList<>(valueCount);
+                for (int v = 0; v < valueCount; v++) {
+                    values.add(new RegionFlagEntry.FlagValue(in.readUTF(), in.readBoolean()));
+                }
+                entries.add(new RegionFlagEntry(flag, values));
+            }
+            members.put(who, entries);
+        }
+        RegionShape shape = null;
+        if (in.readBoolean()) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            shape = RegionShape.parse(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return new Region(name, min, max, world, members, key, parent, priority, shape);
+    }
+}
@@ -0,0 +1,217 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.RegionFlagEntry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Streams all regions from one data source to another in fixed-size batches.
+ * <p>
+ * Regions are read page by page ordered by key, so memory usage does not depend on the number of regions.
+ * The source is read through a {@link RegionReader}, so saves made in the meantime do not change the copied state
+ * and regions of worlds that are not loaded keep their world.
+ * After every written batch the last key is stored in {@code migration.checkpoint},
+ * an interrupted migration to the same target continues from there.
+ * Finally, row counts and an order-independent checksum of both data sources are compared.
+ */
+public class RegionMigration {
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+    private static final long PROGRESS_INTERVAL = 5000;
+
+    private final Zones zones;
+    private final AbstractDataSource source;
+    private final AbstractDataSource target;
+    private final String sourceName;
+    private final String targetName;
+    private final int batchSize;
+    private final File checkpointFile;
+
+    public RegionMigration(Zones zones, AbstractDataSource source, DataSourceManager.DataSourceTypes sourceType,
+                           AbstractDataSource target, DataSourceManager.DataSourceTypes targetType) {
+        this.zones = zones;
+        this.source = source;
+        this.target = target;
+        this.sourceName = sourceType.name();
+        this.targetName = targetType.name();
+        this.batchSize = Math.max(1, zones.getConfig().getInt("storage.migration.batch-size", 1000));
+        this.checkpointFile = new File(zones.getDataFolder(), "migration.checkpoint");
+    }
+
+    public record Progress(long migrated, long total, double regionsPerSecond) {
+    }
+
+    public record Result(boolean success, long migrated, long sourceCount, long targetCount,
+                         boolean checksumMatches, long millis) {
+        public boolean verified() {
+            return success && sourceCount == targetCount && checksumMatches;
+        }
+    }
+
+    /**
+     * @return Whether a migration is currently running.
+     */
+    public static boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Starts the migration on a background thread.
+     *
+     * @param progressListener Receives progress updates every few seconds.
+     * @return A future completing with the result, or {@code null} if another migration is already running.
+     */
+    public CompletableFuture<Result> start(Consumer<Progress> progressListener) {
+        if (!running.compareAndSet(false, true)) {
+            target.close();
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return run(progressListener);
+                } finally {
+                    target.close();
+                    running.set(false);
+                }
+            }, zones.getScheduler());
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private Result run(Consumer<Progress> progressListener) {
+        try (RegionReader reader = source.openReader()) {
+            return run(reader, progressListener);
+        }
+    }
+
+    private Result run(RegionReader reader, Consumer<Progress> progressListener) {
+        long start = System.currentTimeMillis();
+        long total = reader.countRegions();
+
+        // Resume from the checkpoint of an interrupted migration
+        Properties checkpoint = loadCheckpoint();
+        long lastKey = Long.MIN_VALUE;
+        long migrated = 0;
+        long checksum = 0;
+        if (sourceName.equals(checkpoint.getProperty("source")) && targetName.equals(checkpoint.getProperty("target"))) {
+            lastKey = Long.parseLong(checkpoint.getProperty("last-key"));
+            migrated = Long.parseLong(checkpoint.getProperty("migrated"));
+            checksum = Long.parseLong(checkpoint.getProperty("checksum"));
+            zones.getLogger().info("Resuming migration to {} after {} regions", targetName, migrated);
+        }
+
+        long resumedFrom = migrated;
+        long lastProgress = start;
+        List<Region> batch;
+        while (!(batch = reader.loadRegionsAfter(lastKey, batchSize)).isEmpty()) {
+            if (!target.writeBatch(batch)) {
+                zones.getLogger().error("Migration to {} stopped after {} regions, run it again to resume",
+                        targetName, migrated);
+                return new Result(false, migrated, total, -1, false, System.currentTimeMillis() - start);
+            }
+            for (Region region : batch) {
+                checksum += checksum(region);
+            }
+            migrated += batch.size();
+            lastKey = batch.get(batch.size() - 1).getKey().getValue();
+            saveCheckpoint(lastKey, migrated, checksum);
+
+            long now = System.currentTimeMillis();
+            if (now - lastProgress >= PROGRESS_INTERVAL) {
+                lastProgress = now;
+                progressListener.accept(new Progress(migrated, total,
+                        (migrated - resumedFrom) * 1000.0 / Math.max(1, now - start)));
+            }
+        }
+
+        // Verify the target by reading it back
+        long targetCount = target.countRegions();
+        long targetChecksum = 0;
+        long key = Long.MIN_VALUE;
+        while (!(batch = target.loadRegionsAfter(key, batchSize)).isEmpty()) {
+            for (Region region : batch) {
+                targetChecksum += checksum(region);
+            }
+            key = batch.get(batch.size() - 1).getKey().getValue();
+        }
+        if (!checkpointFile.delete()) {
+            zones.getLogger().warn("Failed to delete migration checkpoint");
+        }
+
+        long millis = System.currentTimeMillis() - start;
+        zones.getLogger().info("Migrated {} regions to {} in {}ms", migrated, targetName, millis);
+        return new Result(true, migrated, total, targetCount, checksum == targetChecksum, millis);
+    }
+
+    /**
+     * Calculates a checksum of the stored state of a region, independent of member and flag order.
+     */
+    static long checksum(Region region) {
+        CRC32 crc = new CRC32();
+        StringBuilder builder = new StringBuilder()
+                .append(region.getKey()).append('|')
+                .append(region.getName()).append('|')
+                .append(region.getWorld() != null ? region.getWorld().getName() : "").append('|')
+                .append(region.getMinString()).append('|')
+                .append(region.getMaxString()).append('|')
+                .append(region.getParent()).append('|')
+                .append(region.getPriority());
+        if (region.getShape() != null) {
+            builder.append('|').append(region.getShape().serialize());
+        }
+        new TreeMap<>(region.getMembers()).forEach((who, entries) -> {
+            builder.append('|').append(who);
+            entries.stream()
+                    .sorted(Comparator.comparing(RegionFlagEntry::getFlagValue))
+                    .forEach(entry -> {
+                        builder.append(';').append(entry.getFlagValue());
+                        entry.getValues().stream()
+                                .map(value -> (value.isInverted() ? "!" : "") + value.getValue())
+                                .sorted()
+                                .forEach(value -> builder.append(',').append(value));
+                    });
+        });
+        crc.update(builder.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private Properties loadCheckpoint() {
+        Properties properties = new Properties();
+        if (checkpointFile.exists()) {
+            try (FileInputStream in = new FileInputStream(checkpointFile)) {
+                properties.load(in);
+            } catch (IOException e) {
+                zones.getLogger().error("Failed to read migration checkpoint: {}", e.getMessage());
+            }
+        }
+        return properties;
+    }
+
+    private void saveCheckpoint(long lastKey, long migrated, long checksum) {
+        Properties properties = new Properties();
+        properties.setProperty("source", sourceName);
+        properties.setProperty("target", targetName);
+        properties.setProperty("last-key", String.valueOf(lastKey));
+        properties.setProperty("migrated", String.valueOf(migrated));
+        properties.setProperty("checksum", String.valueOf(checksum));
+        try (FileOutputStream out = new FileOutputStream(checkpointFile)) {
+            properties.store(out, "Zones migration checkpoint, delete to restart the migration");
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to write migration checkpoint: {}", e.getMessage());
+        }
+    }
+}
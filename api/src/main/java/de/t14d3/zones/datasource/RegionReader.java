@@ -0,0 +1,31 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.objects.World;
+
+import java.util.List;
+
+/**
+ * Reads a consistent snapshot of a data source, e.g. for a migration or an export running in the background.
+ * Changes made to the data source after the reader was opened are not visible to it.
+ * <p>
+ * Regions of worlds that are not loaded keep their stored world, see {@link World#unloaded(String)},
+ * so they can be copied without being moved to another world.
+ *
+ * @see AbstractDataSource#openReader()
+ */
+public interface RegionReader extends AutoCloseable {
+
+    /**
+     * @return The number of regions in the snapshot, or {@code -1} if counting failed.
+     */
+    long countRegions();
+
+    /**
+     * @see AbstractDataSource#loadRegionsAfter(long, int)
+     */
+    List<Region> loadRegionsAfter(long afterKey, int limit);
+
+    @Override
+    void close();
+}
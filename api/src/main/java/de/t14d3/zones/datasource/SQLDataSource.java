@@ -1,32 +1,116 @@
 package de.t14d3.zones.datasource;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import de.t14d3.zones.Region;
 import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.Zones;
+import de.t14d3.zones.datasource.codec.JsonMembersCodec;
+import de.t14d3.zones.datasource.codec.MembersCodec;
 import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.Box;
+import de.t14d3.zones.objects.ChunkPresenceMap;
 import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
 import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class SQLDataSource extends AbstractDataSource {
     private Connection connection;
     private final Zones zones;
-    private final Gson gson = new Gson();
+    private final MembersCodec membersCodec;
     private final String tableName;
+    private final String metaTableName;
+    // Mirrors the counter of the metadata table, which every write increments, -1 if it could not be read
+    private final AtomicLong modifications = new AtomicLong(-1);
     private final DataSourceManager.DataSourceTypes dbType;
+    private RegionChangeFeed changeFeed;
+    // Background batches and lazy loading queries get their own connection,
+    // so they never wait for main thread statements and their transactions never include them
+    private final Object backgroundLock = new Object();
+    private Connection backgroundConnection;
 
     public SQLDataSource(Zones zones, DataSourceManager.DataSourceTypes type) {
         super(zones);
         this.zones = zones;
         this.dbType = type;
         this.tableName = zones.getConfig().getString("storage.table", "regions");
-        switch (type) {
+        this.metaTableName = tableName + "_meta";
+        this.membersCodec = MembersCodec.forName(zones.getConfig().getString("storage.members-codec", "JSON"));
+        this.connection = connect();
+        try {
+            String createTableSQL =
+                    "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                            "\"key\" INT PRIMARY KEY, " +
+                            "name VARCHAR(255), " +
+                            "minX INT, " +
+                            "minY INT, " +
+                            "minZ INT, " +
+                            "maxX INT, " +
+                            "maxY INT, " +
+                            "maxZ INT, " +
+                            "world VARCHAR(255), " +
+                            "members TEXT, " +
+                            "parent INT, " +
+                            "priority INT, " +
+                            "members_data " + binaryType() + ", " +
+                            "shape TEXT" +
+                            ")";
+            connection.prepareStatement(createTableSQL).execute();
+            addColumnIfMissing("members_data", binaryType());
+            addColumnIfMissing("shape", "TEXT");
+            createMetaTable();
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to create table! Error: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        // Area queries filter on world plus a range on each axis, a B-tree can only use one range per index,
+        // so there is one index per leading axis and the planner picks the more selective one
+        createIndex("idx_" + tableName + "_bounds", tableName, "(world, minX, maxX, minZ, maxZ)");
+        createIndex("idx_" + tableName + "_bounds_z", tableName, "(world, minZ, maxZ, minX, maxX)");
+        if (dbType == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            // Native 2D index on the region footprint, used by the && operator in area queries
+            createIndex("idx_" + tableName + "_area", tableName, "USING GIST (box(point(minX, minZ), point(maxX, maxZ)))");
+        }
+        if (zones.getConfig().getBoolean("storage.change-feed.enabled", false)) {
+            if (zones.getConfig().getBoolean("storage.journal.enabled", false)) {
+                zones.getLogger().warn("The change feed can not be used together with the journal, disabling it");
+            } else {
+                try {
+                    this.changeFeed = new RegionChangeFeed(zones, this, dbType, connection);
+                } catch (SQLException e) {
+                    zones.getLogger().error("Failed to create change table! Error: {}", e.getMessage());
+                    if (zones.debug) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The change feed shared with other servers, or {@code null} if {@code storage.change-feed} is disabled.
+     */
+    public @Nullable RegionChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    /**
+     * Opens a new connection to the configured database.
+     *
+     * @return The connection, or {@code null} if connecting failed.
+     */
+    Connection connect() {
+        switch (dbType) {
             case MYSQL -> {
                 try {
                     String host = zones.getConfig().getString("storage.mysql.host", "localhost:3306");
@@ -37,7 +121,7 @@ public class SQLDataSource extends AbstractDataSource {
                             .getString("storage.mysql.options", "?serverTimezone=UTC&autoReconnect=true");
                     Class.forName("com.mysql.cj.jdbc.Driver");
                     String url = "jdbc:mysql://" + host + "/" + database + options;
-                    this.connection = DriverManager.getConnection(url, user, password);
+                    return DriverManager.getConnection(url, user, password);
                 } catch (Exception e) {
                     zones.getLogger().error("Failed to initialize MySQL database! Error: {}", e.getMessage());
                     if (zones.debug) {
@@ -48,7 +132,7 @@ public class SQLDataSource extends AbstractDataSource {
             case SQLITE -> {
                 try {
                     Class.forName("org.sqlite.JDBC");
-                    this.connection = DriverManager.getConnection("jdbc:sqlite:./plugins/Zones/regions.sqlite.db");
+                    return DriverManager.getConnection("jdbc:sqlite:./plugins/Zones/regions.sqlite.db");
                 } catch (Exception e) {
                     zones.getLogger().error("Failed to initialize SQLite database! Error: {}", e.getMessage());
                     if (zones.debug) {
@@ -59,7 +143,8 @@ public class SQLDataSource extends AbstractDataSource {
             case H2 -> {
                 try {
                     Class.forName("org.h2.Driver");
-                    this.connection = DriverManager.getConnection("jdbc:h2:file:./plugins/Zones/regions.h2");
+                    String url = zones.getConfig().getString("storage.h2.url", "jdbc:h2:file:./plugins/Zones/regions.h2");
+                    return DriverManager.getConnection(url);
                 } catch (Exception e) {
                     zones.getLogger().error("Failed to initialize H2 database! Error: {}", e.getMessage());
                     if (zones.debug) {
@@ -77,7 +162,7 @@ public class SQLDataSource extends AbstractDataSource {
                             .getString("storage.postgresql.options", "?serverTimezone=UTC&autoReconnect=true");
                     Class.forName("org.postgresql.Driver");
                     String url = "jdbc:postgresql://" + host + "/" + database + options;
-                    this.connection = DriverManager.getConnection(url, user, password);
+                    return DriverManager.getConnection(url, user, password);
                 } catch (Exception e) {
                     zones.getLogger().error("Failed to initialize PostgreSQL database! Error: {}", e.getMessage());
                     if (zones.debug) {
@@ -90,7 +175,7 @@ public class SQLDataSource extends AbstractDataSource {
                     String url = zones.getConfig().getString("storage.custom.url");
                     String driver = zones.getConfig().getString("storage.custom.driver");
                     Class.forName(driver);
-                    this.connection = DriverManager.getConnection(url);
+                    return DriverManager.getConnection(url);
                 } catch (Exception e) {
                     zones.getLogger().error("Failed to initialize custom database! Error: {}", e.getMessage());
                     if (zones.debug) {
@@ -99,25 +184,79 @@ public class SQLDataSource extends AbstractDataSource {
                 }
             }
         }
-        try {
-            String createTableSQL =
-                    "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
-                            "\"key\" INT PRIMARY KEY, " +
-                            "name VARCHAR(255), " +
-                            "minX INT, " +
-                            "minY INT, " +
-                            "minZ INT, " +
-                            "maxX INT, " +
-                            "maxY INT, " +
-                            "maxZ INT, " +
-                            "world VARCHAR(255), " +
-                            "members TEXT, " +
-                            "parent INT, " +
-                            "priority INT" +
-                            ")";
-            connection.prepareStatement(createTableSQL).execute();
+        return null;
+    }
+
+    private String binaryType() {
+        return switch (dbType) {
+            case POSTGRESQL -> "BYTEA";
+            case MYSQL -> "MEDIUMBLOB";
+            default -> "BLOB";
+        };
+    }
+
+    /**
+     * Adds a column to tables created by older versions.
+     */
+    private void addColumnIfMissing(String column, String type) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT * FROM " + tableName + " WHERE 1 = 0")) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (metaData.getColumnName(i).equalsIgnoreCase(column)) {
+                    return;
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + tableName + " ADD COLUMN " + column + " " + type);
+        }
+    }
+
+    /**
+     * Creates the one-row table holding the modification counter, see {@link #getLastModified()}.
+     */
+    private void createMetaTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + metaTableName + " (" +
+                    "id INT PRIMARY KEY, " +
+                    "modifications BIGINT NOT NULL)");
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT modifications FROM " + metaTableName + " WHERE id = 1")) {
+            if (rs.next()) {
+                modifications.set(rs.getLong(1));
+                return;
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO " + metaTableName + " (id, modifications) VALUES (1, 0)");
+        }
+        modifications.set(0);
+    }
+
+    /**
+     * Counts a write in the metadata table, called after every change of the regions table.
+     */
+    private void touch(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE " + metaTableName + " SET modifications = modifications + 1 WHERE id = 1");
+        }
+        modifications.updateAndGet(count -> count == -1 ? -1 : count + 1);
+    }
+
+    void createIndex(String name, String table, String definition) {
+        String sql = dbType == DataSourceManager.DataSourceTypes.MYSQL
+                // MySQL does not support IF NOT EXISTS for indexes, an existing index fails with error 1061
+                ? "CREATE INDEX " + name + " ON " + table + " " + definition
+                : "CREATE INDEX IF NOT EXISTS " + name + " ON " + table + " " + definition;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
         } catch (SQLException e) {
-            zones.getLogger().error("Failed to create table! Error: {}", e.getMessage());
+            if (e.getErrorCode() == 1061) {
+                return;
+            }
+            zones.getLogger().error("Failed to create index {}! Error: {}", name, e.getMessage());
             if (zones.debug) {
                 e.printStackTrace();
             }
@@ -126,7 +265,16 @@ public class SQLDataSource extends AbstractDataSource {
 
     @Override
     public void close() {
+        if (changeFeed != null) {
+            changeFeed.close();
+        }
         try {
+            synchronized (backgroundLock) {
+                if (backgroundConnection != null) {
+                    backgroundConnection.close();
+                    backgroundConnection = null;
+                }
+            }
             this.connection.close();
         } catch (SQLException e) {
             zones.getLogger().error("Error closing the database connection: {}", e.getMessage());
@@ -137,14 +285,15 @@ public class SQLDataSource extends AbstractDataSource {
     }
 
     private String buildUpsertSQL() {
-        String columns = "(\"key\", name, minX, minY, minZ, maxX, maxY, maxZ, world, members, parent, priority)";
-        String values = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String columns = "(\"key\", name, minX, minY, minZ, maxX, maxY, maxZ, world, members, parent, priority, members_data, shape)";
+        String values = "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         String updates;
         switch (dbType) {
             case MYSQL:
                 updates = "name=VALUES(name), minX=VALUES(minX), minY=VALUES(minY), minZ=VALUES(minZ), " +
                         "maxX=VALUES(maxX), maxY=VALUES(maxY), maxZ=VALUES(maxZ), world=VALUES(world), " +
-                        "members=VALUES(members), parent=VALUES(parent), priority=VALUES(priority)";
+                        "members=VALUES(members), parent=VALUES(parent), priority=VALUES(priority), " +
+                        "members_data=VALUES(members_data), shape=VALUES(shape)";
                 return String.format("INSERT INTO %s %s %s ON DUPLICATE KEY UPDATE %s",
                         tableName, columns, values, updates);
             case SQLITE:
@@ -152,7 +301,8 @@ public class SQLDataSource extends AbstractDataSource {
             case POSTGRESQL:
                 updates = "name=EXCLUDED.name, minX=EXCLUDED.minX, minY=EXCLUDED.minY, " +
                         "minZ=EXCLUDED.minZ, maxX=EXCLUDED.maxX, maxY=EXCLUDED.maxY, maxZ=EXCLUDED.maxZ, " +
-                        "world=EXCLUDED.world, members=EXCLUDED.members, parent=EXCLUDED.parent, priority=EXCLUDED.priority";
+                        "world=EXCLUDED.world, members=EXCLUDED.members, parent=EXCLUDED.parent, priority=EXCLUDED.priority, " +
+                        "members_data=EXCLUDED.members_data, shape=EXCLUDED.shape";
                 return String.format("INSERT INTO %s %s %s ON CONFLICT (key) DO UPDATE SET %s",
                         tableName, columns, values, updates);
             case H2:
@@ -170,9 +320,7 @@ public class SQLDataSource extends AbstractDataSource {
              ResultSet rs = statement.executeQuery()) {
 
             while (rs.next()) {
-                Region region = parseRegion(rs);
-                zones.getRegionManager().addRegion(region);
-                regions.add(region);
+                regions.add(parseRegion(rs));
             }
         } catch (SQLException e) {
             zones.getLogger().error("Failed to load regions! Error: {}", e.getMessage());
@@ -183,7 +331,141 @@ public class SQLDataSource extends AbstractDataSource {
         return regions;
     }
 
+    @Override
+    public List<Region> loadRegions(World world) {
+        List<Region> regions = new ArrayList<>();
+        String sql = "SELECT * FROM " + tableName + " WHERE world = ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, world.getName());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    regions.add(parseRegion(rs));
+                }
+            }
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to load regions for world {}! Error: {}", world.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Builds the condition selecting all rows of a world intersecting a box,
+     * bound by {@link #bindIntersecting(PreparedStatement, World, Box)}.
+     */
+    private String intersectingCondition() {
+        if (dbType == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            // Matches the expression of the GiST index
+            return "world = ? AND box(point(minX, minZ), point(maxX, maxZ)) && box(point(?, ?), point(?, ?))"
+                    + " AND minY <= ? AND maxY >= ?";
+        }
+        return "world = ? AND minX <= ? AND maxX >= ? AND minZ <= ? AND maxZ >= ? AND minY <= ? AND maxY >= ?";
+    }
+
+    private void bindIntersecting(PreparedStatement statement, World world, Box box) throws SQLException {
+        BlockLocation min = box.getMin();
+        BlockLocation max = box.getMax();
+        statement.setString(1, world.getName());
+        if (dbType == DataSourceManager.DataSourceTypes.POSTGRESQL) {
+            statement.setInt(2, min.getX());
+            statement.setInt(3, min.getZ());
+            statement.setInt(4, max.getX());
+            statement.setInt(5, max.getZ());
+        } else {
+            statement.setInt(2, max.getX());
+            statement.setInt(3, min.getX());
+            statement.setInt(4, max.getZ());
+            statement.setInt(5, min.getZ());
+        }
+        statement.setInt(6, max.getY());
+        statement.setInt(7, min.getY());
+    }
+
+    @Override
+    public List<Region> loadRegionsIntersecting(World world, Box box) {
+        List<Region> regions = new ArrayList<>();
+        String sql = "SELECT * FROM " + tableName + " WHERE " + intersectingCondition();
+        try {
+            // Lazy loading queries areas from background tasks
+            inBackground(lookup -> {
+                try (PreparedStatement statement = lookup.prepareStatement(sql)) {
+                    bindIntersecting(statement, world, box);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            regions.add(parseRegion(rs));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to load regions in area of world {}! Error: {}", world.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        return regions;
+    }
+
+    @Override
+    public long countRegionsIn(World world, Box box) {
+        String sql = "SELECT COUNT(*) FROM " + tableName + " WHERE " + intersectingCondition();
+        try {
+            return inBackground(lookup -> {
+                try (PreparedStatement statement = lookup.prepareStatement(sql)) {
+                    bindIntersecting(statement, world, box);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        return rs.next() ? rs.getLong(1) : 0L;
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to count regions in area of world {}! Error: {}", world.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public ChunkPresenceMap loadChunkPresence(World world) {
+        ChunkPresenceMap presence = new ChunkPresenceMap();
+        // Only the bounds are needed, members are never parsed
+        String sql = "SELECT minX, minZ, maxX, maxZ FROM " + tableName + " WHERE world = ?";
+        try {
+            inBackground(lookup -> {
+                try (PreparedStatement statement = lookup.prepareStatement(sql)) {
+                    statement.setString(1, world.getName());
+                    statement.setFetchSize(10000);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            presence.markBlocks(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to load region bounds for world {}! Error: {}", world.getName(), e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        return presence;
+    }
+
     private Region parseRegion(ResultSet rs) throws SQLException {
+        return parseRegion(rs, false);
+    }
+
+    /**
+     * @param keepWorld Whether regions of worlds that are not loaded keep their stored world,
+     *                  otherwise their world is {@code null}.
+     */
+    private Region parseRegion(ResultSet rs, boolean keepWorld) throws SQLException {
         int key = rs.getInt("key");
         String name = rs.getString("name");
         BlockLocation min = new BlockLocation(
@@ -196,17 +478,23 @@ public class SQLDataSource extends AbstractDataSource {
                 rs.getInt("maxY"),
                 rs.getInt("maxZ")
         );
-        World world = Zones.getInstance().getPlatform().getWorld(rs.getString("world"));
-        String membersJson = rs.getString("members");
-        Map<String, List<RegionFlagEntry>> members = gson.fromJson(membersJson,
-                new TypeToken<Map<String, List<RegionFlagEntry>>>() {
-                }.getType());
+        String worldName = rs.getString("world");
+        World world = Zones.getInstance().getPlatform().getWorld(worldName);
+        if (world == null && keepWorld && worldName != null) {
+            world = World.unloaded(worldName);
+        }
+        // Rows written by the binary codec only fill members_data, older rows only members
+        byte[] membersData = rs.getBytes("members_data");
+        Map<String, List<RegionFlagEntry>> members = membersData != null
+                ? MembersCodec.detect(membersData).decode(membersData)
+                : JsonMembersCodec.INSTANCE.fromJson(rs.getString("members"));
         int parentKey = rs.getInt("parent");
         RegionKey parent = parentKey != 0 ? RegionKey.fromInt(parentKey) : null;
         int priority = rs.getInt("priority");
+        RegionShape shape = RegionShape.parse(rs.getString("shape"));
 
         return new Region(name, min, max, world, members,
-                RegionKey.fromInt(key), parent, priority);
+                RegionKey.fromInt(key), parent, priority, shape);
     }
 
     @Override
@@ -214,23 +502,11 @@ public class SQLDataSource extends AbstractDataSource {
         String sql = buildUpsertSQL();
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             for (Region region : regions) {
-                stmt.setInt(1, region.getKey().getValue());
-                stmt.setString(2, region.getName());
-                BlockLocation min = region.getMin();
-                stmt.setInt(3, min.getX());
-                stmt.setInt(4, min.getY());
-                stmt.setInt(5, min.getZ());
-                BlockLocation max = region.getMax();
-                stmt.setInt(6, max.getX());
-                stmt.setInt(7, max.getY());
-                stmt.setInt(8, max.getZ());
-                stmt.setString(9, region.getWorld() != null ? region.getWorld().getName() : null);
-                stmt.setString(10, gson.toJson(region.getMembers()));
-                stmt.setInt(11, region.getParent() != null ? region.getParent().getValue() : 0);
-                stmt.setInt(12, region.getPriority());
+                bindRegion(stmt, region.getKey().getValue(), region);
                 stmt.addBatch();
             }
             stmt.executeBatch();
+            touch(connection);
         } catch (SQLException e) {
             zones.getLogger().error("Failed to save regions! Error: {}", e.getMessage());
             if (zones.debug) {
@@ -239,15 +515,21 @@ public class SQLDataSource extends AbstractDataSource {
         }
     }
 
+    /**
+     * Returns the number of writes counted in a one-row metadata table.
+     * The counter is read on startup and then incremented in memory along with the table,
+     * so this never queries the database. Changes made by other servers or tools while this server runs
+     * are not noticed, which is why the snapshot can not be used together with the change feed.
+     */
+    @Override
+    public long getLastModified() {
+        return modifications.get();
+    }
+
     @Override
     public Region loadRegion(String key) {
-        String sql = "SELECT * FROM " + tableName + " WHERE key = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, key);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return parseRegion(rs);
-            }
+        try {
+            return loadRegion(connection, RegionKey.fromString(key).getValue());
         } catch (SQLException e) {
             zones.getLogger().error("Failed to load region {}! Error: {}", key, e.getMessage());
             if (zones.debug) {
@@ -257,25 +539,30 @@ public class SQLDataSource extends AbstractDataSource {
         return null;
     }
 
+    Region loadRegion(Connection connection, int key) throws SQLException {
+        String sql = "SELECT * FROM " + tableName + " WHERE \"key\" = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? parseRegion(rs) : null;
+            }
+        }
+    }
+
     @Override
     public void saveRegion(String key, Region region) {
-        String sql = buildUpsertSQL();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, RegionKey.fromString(key).getValue());
-            stmt.setString(2, region.getName());
-            BlockLocation min = region.getMin();
-            stmt.setInt(3, min.getX());
-            stmt.setInt(4, min.getY());
-            stmt.setInt(5, min.getZ());
-            BlockLocation max = region.getMax();
-            stmt.setInt(6, max.getX());
-            stmt.setInt(7, max.getY());
-            stmt.setInt(8, max.getZ());
-            stmt.setString(9, region.getWorld() != null ? region.getWorld().getName() : null);
-            stmt.setString(10, gson.toJson(region.getMembers()));
-            stmt.setInt(11, region.getParent() != null ? region.getParent().getValue() : 0);
-            stmt.setInt(12, region.getPriority());
-            stmt.executeUpdate();
+        int value = RegionKey.fromString(key).getValue();
+        try {
+            write(() -> {
+                try (PreparedStatement stmt = connection.prepareStatement(buildUpsertSQL())) {
+                    bindRegion(stmt, value, region);
+                    stmt.executeUpdate();
+                }
+                touch(connection);
+                if (changeFeed != null) {
+                    changeFeed.record(connection, new int[]{value}, false);
+                }
+            });
         } catch (SQLException e) {
             zones.getLogger()
                     .error("Failed to save region {}! Error: {}", region.getKey().toString(), e.getMessage());
@@ -284,4 +571,262 @@ public class SQLDataSource extends AbstractDataSource {
             }
         }
     }
+
+    private void bindRegion(PreparedStatement stmt, int key, Region region) throws SQLException {
+        stmt.setInt(1, key);
+        stmt.setString(2, region.getName());
+        BlockLocation min = region.getMin();
+        stmt.setInt(3, min.getX());
+        stmt.setInt(4, min.getY());
+        stmt.setInt(5, min.getZ());
+        BlockLocation max = region.getMax();
+        stmt.setInt(6, max.getX());
+        stmt.setInt(7, max.getY());
+        stmt.setInt(8, max.getZ());
+        stmt.setString(9, region.getWorld() != null ? region.getWorld().getName() : null);
+        if (membersCodec == JsonMembersCodec.INSTANCE) {
+            stmt.setString(10, JsonMembersCodec.INSTANCE.toJson(region.getMembers()));
+            stmt.setNull(13, Types.BINARY);
+        } else {
+            stmt.setNull(10, Types.VARCHAR);
+            stmt.setBytes(13, membersCodec.encode(region.getMembers()));
+        }
+        stmt.setInt(11, region.getParent() != null ? region.getParent().getValue() : 0);
+        stmt.setInt(12, region.getPriority());
+        stmt.setString(14, region.getShape() != null ? region.getShape().serialize() : null);
+    }
+
+    @Override
+    public List<Region> loadRegionsAfter(long afterKey, int limit) {
+        return loadRegionsAfter(connection, afterKey, limit);
+    }
+
+    private List<Region> loadRegionsAfter(Connection connection, long afterKey, int limit) {
+        List<Region> regions = new ArrayList<>(limit);
+        String sql = "SELECT * FROM " + tableName + " WHERE \"key\" > ? ORDER BY \"key\" LIMIT ?";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, afterKey);
+            statement.setInt(2, limit);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    regions.add(parseRegion(rs, true));
+                }
+            }
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to load regions after {}! Error: {}", afterKey, e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+        return regions;
+    }
+
+    @Override
+    public boolean writeBatch(List<Region> regions) {
+        try {
+            inBackground(batch -> {
+                inTransaction(batch, () -> {
+                    try (PreparedStatement stmt = batch.prepareStatement(buildUpsertSQL())) {
+                        for (Region region : regions) {
+                            bindRegion(stmt, region.getKey().getValue(), region);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                    if (changeFeed != null) {
+                        changeFeed.record(batch,
+                                regions.stream().mapToInt(region -> region.getKey().getValue()).toArray(), false);
+                    }
+                });
+                // After the commit, so the counter row is not locked while the batch is written
+                touch(batch);
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to write region batch! Error: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads in a transaction on a new connection, which sees the table as it was at the first read.
+     */
+    @Override
+    public RegionReader openReader() {
+        Connection reader = connect();
+        if (reader == null) {
+            throw new IllegalStateException("Could not open a connection to read the regions");
+        }
+        try {
+            if (dbType == DataSourceManager.DataSourceTypes.SQLITE) {
+                // Readers in rollback journal mode would block all writes until the reader is closed
+                try (Statement statement = reader.createStatement()) {
+                    statement.execute("PRAGMA journal_mode=WAL");
+                }
+            } else {
+                reader.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            }
+            reader.setAutoCommit(false);
+        } catch (SQLException e) {
+            zones.getLogger().warn("Failed to isolate the region reader, it may see concurrent changes: {}",
+                    e.getMessage());
+        }
+        return new RegionReader() {
+            @Override
+            public long countRegions() {
+                return SQLDataSource.this.countRegions(reader);
+            }
+
+            @Override
+            public List<Region> loadRegionsAfter(long afterKey, int limit) {
+                return SQLDataSource.this.loadRegionsAfter(reader, afterKey, limit);
+            }
+
+            @Override
+            public void close() {
+                try {
+                    if (!reader.getAutoCommit()) {
+                        reader.rollback();
+                    }
+                    reader.close();
+                } catch (SQLException e) {
+                    zones.getLogger().error("Error closing the region reader: {}", e.getMessage());
+                    if (zones.debug) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public IntSet findExistingKeys(int[] keys) {
+        IntSet existing = new IntOpenHashSet();
+        try {
+            // Imports look up their keys in the background
+            inBackground(lookup -> {
+                // Looked up in chunks, databases limit the number of parameters per statement
+                for (int from = 0; from < keys.length; from += 500) {
+                    int to = Math.min(keys.length, from + 500);
+                    String sql = "SELECT \"key\" FROM " + tableName + " WHERE \"key\" IN ("
+                            + String.join(", ", Collections.nCopies(to - from, "?")) + ")";
+                    try (PreparedStatement statement = lookup.prepareStatement(sql)) {
+                        for (int i = from; i < to; i++) {
+                            statement.setInt(i - from + 1, keys[i]);
+                        }
+                        try (ResultSet rs = statement.executeQuery()) {
+                            while (rs.next()) {
+                                existing.add(rs.getInt(1));
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to look up region keys! Error: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            // Unknown keys are treated as taken, so they are never reused
+            for (int key : keys) {
+                existing.add(key);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public long countRegions() {
+        return countRegions(connection);
+    }
+
+    private long countRegions(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM " + tableName);
+             ResultSet rs = statement.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to count regions! Error: {}", e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+            return -1;
+        }
+    }
+
+    @Override
+    public void deleteRegion(String key) {
+        int value = RegionKey.fromString(key).getValue();
+        try {
+            write(() -> {
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "DELETE FROM " + tableName + " WHERE \"key\" = ?")) {
+                    stmt.setInt(1, value);
+                    stmt.executeUpdate();
+                }
+                touch(connection);
+                if (changeFeed != null) {
+                    changeFeed.record(connection, new int[]{value}, true);
+                }
+            });
+        } catch (SQLException e) {
+            zones.getLogger().error("Failed to delete region {}! Error: {}", key, e.getMessage());
+            if (zones.debug) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private interface SQLWrite {
+        void run() throws SQLException;
+    }
+
+    private interface SQLWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs a write, in a transaction if it also records changes.
+     */
+    private void write(SQLWrite write) throws SQLException {
+        if (changeFeed == null) {
+            write.run();
+        } else {
+            inTransaction(connection, write);
+        }
+    }
+
+    /**
+     * Runs work of a background task on the connection reserved for it, which is opened on first use.
+     * Background tasks run one at a time.
+     */
+    private <T> T inBackground(SQLWork<T> work) throws SQLException {
+        synchronized (backgroundLock) {
+            if (backgroundConnection == null || backgroundConnection.isClosed()) {
+                backgroundConnection = connect();
+                if (backgroundConnection == null) {
+                    throw new SQLException("Could not open a connection for background tasks");
+                }
+            }
+            return work.run(backgroundConnection);
+        }
+    }
+
+    private static void inTransaction(Connection connection, SQLWrite write) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            write.run();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
 }
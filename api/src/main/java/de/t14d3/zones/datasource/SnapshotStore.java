@@ -0,0 +1,252 @@
+package de.t14d3.zones.datasource;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
+import de.t14d3.zones.objects.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary snapshot of all loaded regions, kept next to the configured data source.
+ * Startup reads the snapshot through a memory-mapped file instead of parsing the data source,
+ * and falls back to the data source whenever the snapshot is missing or stale.
+ * <p>
+ * Layout (big endian): magic, version, source stamp, string table, covered worlds, regions.
+ * Every region is stored as a length-prefixed block with fixed-width bounds and
+ * string table indices for its name, world and member entries,
+ * so regions of other worlds can be skipped without decoding them.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x5A534E50; // "ZSNP"
+    private static final int VERSION = 2;
+
+    private final Zones zones;
+    private final File file;
+
+    public SnapshotStore(Zones zones, File file) {
+        this.zones = zones;
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Deletes the snapshot, forcing the next load to use the data source.
+     */
+    public void invalidate() {
+        if (file.exists() && !file.delete()) {
+            zones.getLogger().warn("Failed to delete region snapshot {}", file.getName());
+        }
+    }
+
+    /**
+     * Writes the given regions to the snapshot file, replacing the previous snapshot atomically.
+     * Concurrent writes run one after another, as they share the temporary file.
+     *
+     * @param regions The regions to write.
+     * @param worlds  The worlds whose regions are completely contained in {@code regions}.
+     * @param stamp   The modification stamp of the data source the regions were saved to.
+     */
+    public synchronized void write(Collection<Region> regions, Collection<World> worlds, long stamp) {
+        // Intern all strings first, so the table can be written before the regions
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (World world : worlds) {
+            intern(strings, world.getName());
+        }
+        for (Region region : regions) {
+            intern(strings, region.getName());
+            intern(strings, region.getWorld().getName());
+            if (region.getShape() != null) {
+                intern(strings, region.getShape().serialize());
+            }
+            for (Map.Entry<String, List<RegionFlagEntry>> member : region.getMembers().entrySet()) {
+                intern(strings, member.getKey());
+                for (RegionFlagEntry entry : member.getValue()) {
+                    intern(strings, entry.getFlagValue());
+                    for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                        intern(strings, value.getValue());
+                    }
+                }
+            }
+        }
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(stamp);
+
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            out.writeInt(worlds.size());
+            for (World world : worlds) {
+                out.writeInt(strings.get(world.getName()));
+            }
+
+            out.writeInt(regions.size());
+            ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(256);
+            DataOutputStream block = new DataOutputStream(blockBytes);
+            for (Region region : regions) {
+                blockBytes.reset();
+                writeRegion(block, region, strings);
+                out.writeInt(blockBytes.size());
+                blockBytes.writeTo(out);
+            }
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to write region snapshot: {}", e.getMessage());
+            invalidate();
+            return;
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to replace region snapshot: {}", e.getMessage());
+            invalidate();
+        }
+    }
+
+    private static void writeRegion(DataOutputStream out, Region region, Map<String, Integer> strings) throws IOException {
+        out.writeInt(region.getKey().getValue());
+        out.writeInt(strings.get(region.getWorld().getName()));
+        out.writeInt(strings.get(region.getName()));
+        out.writeInt(region.getParent() != null ? region.getParent().getValue() : 0);
+        out.writeInt(region.getPriority());
+        BlockLocation min = region.getMin();
+        BlockLocation max = region.getMax();
+        out.writeInt(min.getX());
+        out.writeInt(min.getY());
+        out.writeInt(min.getZ());
+        out.writeInt(max.getX());
+        out.writeInt(max.getY());
+        out.writeInt(max.getZ());
+        // Index + 1, 0 for cuboids
+        out.writeInt(region.getShape() != null ? strings.get(region.getShape().serialize()) + 1 : 0);
+
+        out.writeInt(region.getMembers().size());
+        for (Map.Entry<String, List<RegionFlagEntry>> member : region.getMembers().entrySet()) {
+            out.writeInt(strings.get(member.getKey()));
+            out.writeInt(member.getValue().size());
+            for (RegionFlagEntry entry : member.getValue()) {
+                out.writeInt(strings.get(entry.getFlagValue()));
+                out.writeInt(entry.getValues().size());
+                for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                    out.writeInt(strings.get(value.getValue()) << 1 | (value.isInverted() ? 1 : 0));
+                }
+            }
+        }
+    }
+
+    private static void intern(Map<String, Integer> strings, String string) {
+        strings.putIfAbsent(string, strings.size());
+    }
+
+    /**
+     * Reads the regions of a world from the snapshot.
+     *
+     * @param world The world to read the regions for.
+     * @param stamp The current modification stamp of the data source, {@code -1} if unknown.
+     * @return The regions of the world, or {@code null} if the snapshot is missing, stale or
+     * does not cover the given world.
+     */
+    public @Nullable List<Region> read(World world, long stamp) {
+        if (stamp == -1 || !file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != stamp) {
+                return null;
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int worldIndex = -1;
+            int worldCount = buffer.getInt();
+            for (int i = 0; i < worldCount; i++) {
+                int index = buffer.getInt();
+                if (strings[index].equals(world.getName())) {
+                    worldIndex = index;
+                }
+            }
+            if (worldIndex == -1) {
+                return null; // Regions of this world were not loaded when the snapshot was written
+            }
+
+            int regionCount = buffer.getInt();
+            List<Region> regions = new ArrayList<>();
+            for (int i = 0; i < regionCount; i++) {
+                int length = buffer.getInt();
+                int start = buffer.position();
+                // World index is stored right after the key
+                if (buffer.getInt(start + Integer.BYTES) != worldIndex) {
+                    buffer.position(start + length);
+                    continue;
+                }
+                regions.add(readRegion(buffer, strings, world));
+            }
+            return regions;
+        } catch (IOException | RuntimeException e) {
+            zones.getLogger().warn("Failed to read region snapshot, falling back to data source: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Region readRegion(ByteBuffer buffer, String[] strings, World world) {
+        RegionKey key = RegionKey.fromInt(buffer.getInt());
+        buffer.getInt(); // World, already matched
+        String name = strings[buffer.getInt()];
+        int parentKey = buffer.getInt();
+        RegionKey parent = parentKey != 0 ? RegionKey.fromInt(parentKey) : null;
+        int priority = buffer.getInt();
+        BlockLocation min = new BlockLocation(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        BlockLocation max = new BlockLocation(buffer.getInt(), buffer.getInt(), buffer.getInt());
+        int shapeIndex = buffer.getInt();
+        RegionShape shape = shapeIndex != 0 ? RegionShape.parse(strings[shapeIndex - 1]) : null;
+
+        int memberCount = buffer.getInt();
+        Map<String, List<RegionFlagEntry>> members = new HashMap<>(Math.max(4, memberCount * 2));
+        for (int m = 0; m < memberCount; m++) {
+            String who = strings[buffer.getInt()];
+            int flagCount = buffer.getInt();
+            List<RegionFlagEntry> entries = new ArrayList<>(flagCount);
+            for (int f = 0; f < flagCount; f++) {
+                String flag = strings[buffer.getInt()];
+                int valueCount = buffer.getInt();
+                List<RegionFlagEntry.FlagValue> values = new ArrayList<>(valueCount);
+                for (int v = 0; v < valueCount; v++) {
+                    int value = buffer.getInt();
+                    values.add(new RegionFlagEntry.FlagValue(strings[value >>> 1], (value & 1) == 1));
+                }
+                entries.add(new RegionFlagEntry(flag, values));
+            }
+            members.put(who, entries);
+        }
+        return new Region(name, min, max, world, members, key, parent, priority, shape);
+    }
+}
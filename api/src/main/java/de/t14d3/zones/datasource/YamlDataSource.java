@@ -5,7 +5,10 @@ import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.objects.BlockLocation;
 import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
 import de.t14d3.zones.objects.World;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 import org.simpleyaml.configuration.ConfigurationSection;
 import org.simpleyaml.configuration.file.YamlFile;
 
@@ -17,9 +20,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
+/**
+ * Stores all regions in {@code regions.yml}.
+ * <p>
+ * The file is shared by the main thread, background saves and batch writes of imports,
+ * so every access is synchronized on the data source.
+ */
 public class YamlDataSource extends AbstractDataSource {
     private final YamlFile regionsFile;
     private final Zones zones;
+    private volatile CompletableFuture<Void> pendingSave = CompletableFuture.completedFuture(null);
 
     public YamlDataSource(File dataFolder, Zones zones) {
         super(zones);
@@ -38,7 +48,7 @@ public class YamlDataSource extends AbstractDataSource {
     }
 
     @Override
-    public List<Region> loadRegions() {
+    public synchronized List<Region> loadRegions() {
         List<Region> regions = new ArrayList<>();
         final ConfigurationSection regionsSection = regionsFile.getConfigurationSection("regions");
 
@@ -46,7 +56,6 @@ public class YamlDataSource extends AbstractDataSource {
             for (String regionKey : regionsSection.getKeys(false)) {
                 Region region = loadRegion(regionKey);
                 if (region != null) {
-                    zones.getRegionManager().addRegion(region);
                     regions.add(region);
                 }
             }
@@ -55,44 +64,93 @@ public class YamlDataSource extends AbstractDataSource {
     }
 
     @Override
-    public Region loadRegion(String key) {
+    public synchronized List<Region> loadRegions(World world) {
+        List<Region> regions = new ArrayList<>();
+        final ConfigurationSection regionsSection = regionsFile.getConfigurationSection("regions");
+
+        if (regionsSection != null) {
+            for (String regionKey : regionsSection.getKeys(false)) {
+                // Only parse the regions of the requested world
+                if (!world.getName().equals(regionsSection.getString(regionKey + ".world"))) {
+                    continue;
+                }
+                Region region = loadRegion(regionKey);
+                if (region != null) {
+                    regions.add(region);
+                }
+            }
+        }
+        return regions;
+    }
+
+    @Override
+    public synchronized IntSet findExistingKeys(int[] keys) {
+        IntSet existing = new IntOpenHashSet();
+        for (int key : keys) {
+            if (regionsFile.contains("regions." + RegionKey.fromInt(key))) {
+                existing.add(key);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public synchronized Region loadRegion(String key) {
+        return parseRegion(regionsFile, key, false);
+    }
+
+    /**
+     * @param keepWorld Whether regions of worlds that are not loaded keep their stored world,
+     *                  otherwise they are moved to the first world.
+     */
+    private Region parseRegion(ConfigurationSection root, String key, boolean keepWorld) {
         final String pathPrefix = "regions." + key + ".";
 
         // Basic properties
-        final String name = regionsFile.getString(pathPrefix + "name");
-        final int priority = regionsFile.getInt(pathPrefix + "priority", 0);
+        final String name = root.getString(pathPrefix + "name");
+        final int priority = root.getInt(pathPrefix + "priority", 0);
 
         // World data
-        final String worldName = regionsFile.getString(pathPrefix + "world");
+        final String worldName = root.getString(pathPrefix + "world");
         World world = zones.getPlatform().getWorld(worldName);
-        if (world == null) {
+        if (world == null && keepWorld && worldName != null) {
+            world = World.unloaded(worldName);
+        } else if (world == null) {
             zones.getLogger().warn("World {} for region {} not found, using default", worldName, key);
             world = zones.getPlatform().getWorlds().get(0);
         }
 
         // Location data
         final BlockLocation min = new BlockLocation(
-                regionsFile.getInt(pathPrefix + "min.x"),
-                regionsFile.getInt(pathPrefix + "min.y"),
-                regionsFile.getInt(pathPrefix + "min.z")
+                root.getInt(pathPrefix + "min.x"),
+                root.getInt(pathPrefix + "min.y"),
+                root.getInt(pathPrefix + "min.z")
         );
 
         final BlockLocation max = new BlockLocation(
-                regionsFile.getInt(pathPrefix + "max.x"),
-                regionsFile.getInt(pathPrefix + "max.y"),
-                regionsFile.getInt(pathPrefix + "max.z")
+                root.getInt(pathPrefix + "max.x"),
+                root.getInt(pathPrefix + "max.y"),
+                root.getInt(pathPrefix + "max.z")
         );
 
+        // Footprint of non-cuboid regions
+        RegionShape shape = null;
+        try {
+            shape = RegionShape.parse(root.getString(pathPrefix + "shape"));
+        } catch (IllegalArgumentException e) {
+            zones.getLogger().warn("Invalid shape of region {}, using its bounds: {}", key, e.getMessage());
+        }
+
         // Parent relationship
-        final String parentKey = regionsFile.getString(pathPrefix + "parent");
+        final String parentKey = root.getString(pathPrefix + "parent");
         final RegionKey parent = parentKey != null ? RegionKey.fromString(parentKey) : null;
 
         // Member permissions
         final Map<String, List<RegionFlagEntry>> members = parseMembers(
-                regionsFile.getConfigurationSection(pathPrefix + "members")
+                root.getConfigurationSection(pathPrefix + "members")
         );
 
-        return new Region(name, min, max, world, members, RegionKey.fromString(key), parent, priority);
+        return new Region(name, min, max, world, members, RegionKey.fromString(key), parent, priority, shape);
     }
 
     private Map<String, List<RegionFlagEntry>> parseMembers(ConfigurationSection membersSection) {
@@ -129,24 +187,129 @@ public class YamlDataSource extends AbstractDataSource {
 
     @Override
     public void saveRegions(List<Region> regions) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                regionsFile.set("regions", null); // Clear existing regions
+        pendingSave = CompletableFuture.runAsync(() -> saveAll(regions));
+    }
 
-                for (Region region : regions) {
-                    saveRegion(region.getKey().toString(), region);
+    private synchronized void saveAll(List<Region> regions) {
+        try {
+            // Clear existing regions, but keep those of worlds that are currently not loaded
+            final ConfigurationSection regionsSection = regionsFile.getConfigurationSection("regions");
+            if (regionsSection != null) {
+                for (String regionKey : regionsSection.getKeys(false)) {
+                    World world = zones.getPlatform().getWorld(regionsSection.getString(regionKey + ".world"));
+                    if (world != null && zones.getRegionManager().isWorldLoaded(world)) {
+                        regionsSection.set(regionKey, null);
+                    }
                 }
+            }
 
-                regionsFile.setComment("regions", "All registered regions");
-                regionsFile.save();
-            } catch (IOException e) {
-                zones.getLogger().error("Failed to save regions", e);
+            for (Region region : regions) {
+                saveRegion(region.getKey().toString(), region);
             }
-        });
+
+            regionsFile.setComment("regions", "All registered regions");
+            regionsFile.save();
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to save regions", e);
+        }
     }
 
     @Override
-    public void saveRegion(String key, Region region) {
+    public synchronized List<Region> loadRegionsAfter(long afterKey, int limit) {
+        return loadRegionsAfter(regionsFile, afterKey, limit);
+    }
+
+    private List<Region> loadRegionsAfter(ConfigurationSection root, long afterKey, int limit) {
+        final ConfigurationSection regionsSection = root.getConfigurationSection("regions");
+        if (regionsSection == null) {
+            return List.of();
+        }
+        // Only the keys are sorted, regions are parsed for the requested page only
+        int[] keys = regionsSection.getKeys(false).stream()
+                .mapToInt(key -> RegionKey.fromString(key).getValue())
+                .filter(key -> key > afterKey)
+                .sorted()
+                .limit(limit)
+                .toArray();
+        List<Region> regions = new ArrayList<>(keys.length);
+        for (int key : keys) {
+            Region region = parseRegion(root, RegionKey.fromInt(key).toString(), true);
+            if (region != null) {
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    @Override
+    public synchronized boolean writeBatch(List<Region> regions) {
+        for (Region region : regions) {
+            saveRegion(region.getKey().toString(), region);
+        }
+        try {
+            regionsFile.save();
+            return true;
+        } catch (IOException e) {
+            zones.getLogger().error("Failed to save regions", e);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized long countRegions() {
+        return countRegions(regionsFile);
+    }
+
+    private static long countRegions(ConfigurationSection root) {
+        final ConfigurationSection regionsSection = root.getConfigurationSection("regions");
+        return regionsSection != null ? regionsSection.getKeys(false).size() : 0;
+    }
+
+    /**
+     * Reads a copy of the regions taken when the reader is opened, so background tasks
+     * neither block nor see changes of the main thread.
+     */
+    @Override
+    public RegionReader openReader() {
+        YamlFile copy = new YamlFile();
+        try {
+            String contents;
+            synchronized (this) {
+                contents = regionsFile.saveToString();
+            }
+            copy.loadFromString(contents);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to copy the regions: " + e.getMessage(), e);
+        }
+        return new RegionReader() {
+            @Override
+            public long countRegions() {
+                return YamlDataSource.countRegions(copy);
+            }
+
+            @Override
+            public List<Region> loadRegionsAfter(long afterKey, int limit) {
+                return YamlDataSource.this.loadRegionsAfter(copy, afterKey, limit);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @Override
+    public long getLastModified() {
+        return regionsFile.getConfigurationFile().lastModified();
+    }
+
+    @Override
+    public CompletableFuture<Void> whenSaved() {
+        return pendingSave;
+    }
+
+    @Override
+    public synchronized void saveRegion(String key, Region region) {
         final String pathPrefix = "regions." + key + ".";
 
         // Basic properties
@@ -170,6 +333,13 @@ public class YamlDataSource extends AbstractDataSource {
         regionsFile.set(pathPrefix + "max.z", region.getMax().getZ());
         regionsFile.setComment(pathPrefix + "max", "Maximum bounding box coordinates");
 
+        if (region.getShape() != null) {
+            regionsFile.set(pathPrefix + "shape", region.getShape().serialize());
+            regionsFile.setComment(pathPrefix + "shape", "Footprint of the region within its bounding box");
+        } else {
+            regionsFile.set(pathPrefix + "shape", null);
+        }
+
         // Parent relationship
         if (region.getParent() != null) {
             regionsFile.set(pathPrefix + "parent", region.getParent().toString());
@@ -182,6 +352,11 @@ public class YamlDataSource extends AbstractDataSource {
         regionsFile.setComment(pathPrefix + "members", "Region members and their permissions");
     }
 
+    @Override
+    public synchronized void deleteRegion(String key) {
+        regionsFile.set("regions." + key, null);
+    }
+
     private void serializeMembers(ConfigurationSection membersSection, Map<String, List<RegionFlagEntry>> members) {
         for (Map.Entry<String, List<RegionFlagEntry>> entry : members.entrySet()) {
             final ConfigurationSection flagSection = membersSection.createSection(entry.getKey());
@@ -0,0 +1,135 @@
+package de.t14d3.zones.datasource.codec;
+
+import de.t14d3.zones.objects.RegionFlagEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary encoding of region members.
+ * <p>
+ * Layout: version byte, string dictionary (count, then length-prefixed UTF-8 strings),
+ * member count, then per member the subject id and its flags,
+ * each flag being a flag id followed by its values as {@code id << 1 | inverted}.
+ * All numbers are unsigned varints, every subject, flag and value is stored once in the dictionary.
+ */
+public final class BinaryMembersCodec implements MembersCodec {
+    public static final BinaryMembersCodec INSTANCE = new BinaryMembersCodec();
+    // Never '{', so JSON and binary data can be told apart
+    static final byte VERSION = 1;
+
+    private BinaryMembersCodec() {
+    }
+
+    @Override
+    public String getName() {
+        return "BINARY";
+    }
+
+    @Override
+    public byte[] encode(Map<String, List<RegionFlagEntry>> members) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Map.Entry<String, List<RegionFlagEntry>> member : members.entrySet()) {
+            dictionary.putIfAbsent(member.getKey(), dictionary.size());
+            for (RegionFlagEntry entry : member.getValue()) {
+                dictionary.putIfAbsent(entry.getFlagValue(), dictionary.size());
+                for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                    dictionary.putIfAbsent(value.getValue(), dictionary.size());
+                }
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + members.size() * 32);
+        out.write(VERSION);
+        writeVarInt(out, dictionary.size());
+        for (String string : dictionary.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        writeVarInt(out, members.size());
+        for (Map.Entry<String, List<RegionFlagEntry>> member : members.entrySet()) {
+            writeVarInt(out, dictionary.get(member.getKey()));
+            writeVarInt(out, member.getValue().size());
+            for (RegionFlagEntry entry : member.getValue()) {
+                writeVarInt(out, dictionary.get(entry.getFlagValue()));
+                writeVarInt(out, entry.getValues().size());
+                for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                    writeVarInt(out, dictionary.get(value.getValue()) << 1 | (value.isInverted() ? 1 : 0));
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Map<String, List<RegionFlagEntry>> decode(byte[] data) {
+        Reader in = new Reader(data);
+        if (in.readByte() != VERSION) {
+            throw new IllegalArgumentException("Unsupported members encoding version " + data[0]);
+        }
+        String[] dictionary = new String[in.readVarInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readString(in.readVarInt());
+        }
+        int memberCount = in.readVarInt();
+        Map<String, List<RegionFlagEntry>> members = new HashMap<>(Math.max(4, memberCount * 2));
+        for (int m = 0; m < memberCount; m++) {
+            String who = dictionary[in.readVarInt()];
+            int flagCount = in.readVarInt();
+            List<RegionFlagEntry> entries = new ArrayList<>(flagCount);
+            for (int f = 0; f < flagCount; f++) {
+                String flag = dictionary[in.readVarInt()];
+                int valueCount = in.readVarInt();
+                List<RegionFlagEntry.FlagValue> values = new ArrayList<>(valueCount);
+                for (int v = 0; v < valueCount; v++) {
+                    int value = in.readVarInt();
+                    values.add(new RegionFlagEntry.FlagValue(dictionary[value >>> 1], (value & 1) == 1));
+                }
+                entries.add(new RegionFlagEntry(flag, values));
+            }
+            members.put(who, entries);
+        }
+        return members;
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private byte readByte() {
+            return data[position++];
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readString(int length) {
+            String string = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package de.t14d3.zones.datasource.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+import de.t14d3.zones.objects.RegionFlagEntry;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores members as JSON, the original format of the {@code members} column.
+ */
+public final class JsonMembersCodec implements MembersCodec {
+    public static final JsonMembersCodec INSTANCE = new JsonMembersCodec();
+
+    private static final Type TYPE = new TypeToken<Map<String, List<RegionFlagEntry>>>() {
+    }.getType();
+    private final Gson gson = new Gson();
+
+    private JsonMembersCodec() {
+    }
+
+    @Override
+    public String getName() {
+        return "JSON";
+    }
+
+    @Override
+    public byte[] encode(Map<String, List<RegionFlagEntry>> members) {
+        return toJson(members).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Map<String, List<RegionFlagEntry>> decode(byte[] data) {
+        return fromJson(new String(data, StandardCharsets.UTF_8));
+    }
+
+    public String toJson(Map<String, List<RegionFlagEntry>> members) {
+        return gson.toJson(members);
+    }
+
+    public Map<String, List<RegionFlagEntry>> fromJson(String json) {
+        Map<String, List<RegionFlagEntry>> members = gson.fromJson(json, TYPE);
+        return members != null ? members : new HashMap<>();
+    }
+
+    public JsonElement toJsonTree(Map<String, List<RegionFlagEntry>> members) {
+        return gson.toJsonTree(members, TYPE);
+    }
+
+    public Map<String, List<RegionFlagEntry>> fromJson(JsonElement json) {
+        Map<String, List<RegionFlagEntry>> members = json != null ? gson.fromJson(json, TYPE) : null;
+        return members != null ? members : new HashMap<>();
+    }
+}
@@ -0,0 +1,37 @@
+package de.t14d3.zones.datasource.codec;
+
+import de.t14d3.zones.objects.RegionFlagEntry;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes region members and their flags for database storage.
+ * The codec used for writing is configured with {@code storage.members-codec},
+ * when reading the codec is detected from the stored data.
+ */
+public interface MembersCodec {
+
+    String getName();
+
+    byte[] encode(Map<String, List<RegionFlagEntry>> members);
+
+    Map<String, List<RegionFlagEntry>> decode(byte[] data);
+
+    static MembersCodec forName(String name) {
+        return switch (name.toUpperCase()) {
+            case "BINARY" -> BinaryMembersCodec.INSTANCE;
+            case "JSON" -> JsonMembersCodec.INSTANCE;
+            default -> throw new IllegalArgumentException("Unknown members codec: " + name);
+        };
+    }
+
+    /**
+     * Detects the codec used to encode the given data.
+     */
+    static MembersCodec detect(byte[] data) {
+        return data.length > 0 && data[0] == BinaryMembersCodec.VERSION
+                ? BinaryMembersCodec.INSTANCE
+                : JsonMembersCodec.INSTANCE;
+    }
+}
@@ -0,0 +1,58 @@
+package de.t14d3.zones.objects;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact bitmap of the chunks of a world that are covered by at least one region.
+ * Chunks are grouped into tiles of 64x64 chunks, each tile being stored as 64 rows of 64 bits,
+ * so only areas that actually contain regions use memory.
+ * <p>
+ * Lookups may run on any thread while chunks are being marked.
+ */
+public class ChunkPresenceMap {
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+
+    private final Map<Long, AtomicLongArray> tiles = new ConcurrentHashMap<>();
+
+    /**
+     * Marks all chunks in the given chunk range (inclusive) as covered.
+     */
+    public void markArea(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        for (int tileX = minChunkX >> TILE_SHIFT; tileX <= maxChunkX >> TILE_SHIFT; tileX++) {
+            int fromX = Math.max(minChunkX, tileX << TILE_SHIFT) & TILE_MASK;
+            int toX = Math.min(maxChunkX, (tileX << TILE_SHIFT) + TILE_MASK) & TILE_MASK;
+            long rowMask = (toX == TILE_MASK ? -1L : (1L << (toX + 1)) - 1) & (-1L << fromX);
+
+            for (int tileZ = minChunkZ >> TILE_SHIFT; tileZ <= maxChunkZ >> TILE_SHIFT; tileZ++) {
+                int fromZ = Math.max(minChunkZ, tileZ << TILE_SHIFT) & TILE_MASK;
+                int toZ = Math.min(maxChunkZ, (tileZ << TILE_SHIFT) + TILE_MASK) & TILE_MASK;
+                AtomicLongArray rows = tiles.computeIfAbsent(key(tileX, tileZ), k -> new AtomicLongArray(1 << TILE_SHIFT));
+                for (int z = fromZ; z <= toZ; z++) {
+                    rows.accumulateAndGet(z, rowMask, (row, mask) -> row | mask);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks all chunks touched by the given block bounds as covered.
+     */
+    public void markBlocks(int minX, int minZ, int maxX, int maxZ) {
+        markArea(minX >> 4, minZ >> 4, maxX >> 4, maxZ >> 4);
+    }
+
+    /**
+     * @return Whether the given chunk may contain regions.
+     */
+    public boolean has(int chunkX, int chunkZ) {
+        AtomicLongArray rows = tiles.get(key(chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT));
+        return rows != null && (rows.get(chunkZ & TILE_MASK) & (1L << (chunkX & TILE_MASK))) != 0;
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
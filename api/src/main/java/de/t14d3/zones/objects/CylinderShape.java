@@ -0,0 +1,85 @@
+package de.t14d3.zones.objects;
+
+/**
+ * Circular or elliptical footprint around a center block, e.g. of a WorldEdit cylinder selection.
+ */
+public class CylinderShape implements RegionShape {
+    static final String TYPE = "cylinder";
+
+    private final int centerX;
+    private final int centerZ;
+    private final int radiusX;
+    private final int radiusZ;
+    // Half a block is added, so the outermost blocks on the axes are included like in WorldEdit
+    private final double inverseX;
+    private final double inverseZ;
+
+    public CylinderShape(int centerX, int centerZ, int radiusX, int radiusZ) {
+        if (radiusX < 0 || radiusZ < 0) {
+            throw new IllegalArgumentException("Cylinder radius must not be negative");
+        }
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radiusX = radiusX;
+        this.radiusZ = radiusZ;
+        this.inverseX = 1.0 / (radiusX + 0.5);
+        this.inverseZ = 1.0 / (radiusZ + 0.5);
+    }
+
+    @Override
+    public boolean contains(int x, int z) {
+        double dx = (x - centerX) * inverseX;
+        double dz = (z - centerZ) * inverseZ;
+        return dx * dx + dz * dz <= 1;
+    }
+
+    public int getCenterX() {
+        return centerX;
+    }
+
+    public int getCenterZ() {
+        return centerZ;
+    }
+
+    public int getRadiusX() {
+        return radiusX;
+    }
+
+    public int getRadiusZ() {
+        return radiusZ;
+    }
+
+    @Override
+    public int getMinX() {
+        return centerX - radiusX;
+    }
+
+    @Override
+    public int getMinZ() {
+        return centerZ - radiusZ;
+    }
+
+    @Override
+    public int getMaxX() {
+        return centerX + radiusX;
+    }
+
+    @Override
+    public int getMaxZ() {
+        return centerZ + radiusZ;
+    }
+
+    @Override
+    public String serialize() {
+        return TYPE + ";" + centerX + "," + centerZ + "," + radiusX + "," + radiusZ;
+    }
+
+    static CylinderShape parse(String data) {
+        String[] values = data.split(",");
+        if (values.length != 4) {
+            throw new IllegalArgumentException("Invalid cylinder: " + data);
+        }
+        return new CylinderShape(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()),
+                Integer.parseInt(values[2].trim()), Integer.parseInt(values[3].trim()));
+    }
+}
@@ -1,18 +1,33 @@
 package de.t14d3.zones.objects;
 
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionTracker;
 import de.t14d3.zones.Zones;
 import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 public class Player implements Audience {
+    /**
+     * Cached permission bits, see {@link #hasCachedPermission(int)}.
+     */
+    public static final int BYPASS_CLAIMED = 1;
+    public static final int BYPASS_UNCLAIMED = 1 << 1;
+    private static final String[] CACHED_PERMISSIONS = {"zones.bypass.claimed", "zones.bypass.unclaimed"};
+
     private final UUID uuid;
     private final String name;
     private Box selection;
     private boolean selectionIsCreating = false;
+    private volatile int permissions;
+    private volatile long permissionsExpire = System.nanoTime();
+    private volatile RegionTracker.Snapshot regionSnapshot;
 
     protected Player(UUID uuid, String name) {
         this.uuid = uuid;
@@ -39,6 +54,41 @@ public class Player implements Audience {
         return Zones.getInstance().getPlatform().hasPermission(this, permission);
     }
 
+    /**
+     * Checks one of the permissions checked on every protected action, without asking the permission plugin.
+     * The permissions are looked up again after {@code advanced.permission-cache-ttl} seconds
+     * or after {@link #invalidatePermissions()}.
+     *
+     * @param permission {@link #BYPASS_CLAIMED} or {@link #BYPASS_UNCLAIMED}
+     */
+    public boolean hasCachedPermission(int permission) {
+        if (System.nanoTime() - permissionsExpire >= 0) {
+            refreshPermissions();
+        }
+        return (permissions & permission) != 0;
+    }
+
+    /**
+     * Makes the next {@link #hasCachedPermission(int)} look up the permissions again,
+     * e.g. after they were changed.
+     */
+    public void invalidatePermissions() {
+        permissionsExpire = System.nanoTime();
+    }
+
+    private void refreshPermissions() {
+        Zones zones = Zones.getInstance();
+        int bits = 0;
+        for (int i = 0; i < CACHED_PERMISSIONS.length; i++) {
+            if (zones.getPlatform().hasPermission(this, CACHED_PERMISSIONS[i])) {
+                bits |= 1 << i;
+            }
+        }
+        permissions = bits;
+        permissionsExpire = System.nanoTime() + TimeUnit.SECONDS.toNanos(
+                zones.getConfig().getInt("advanced.permission-cache-ttl", 5));
+    }
+
     public Box getSelection() {
         return selection;
     }
@@ -55,6 +105,31 @@ public class Player implements Audience {
         this.selectionIsCreating = selectionIsCreating;
     }
 
+    /**
+     * @return The regions the player was in when last tracked, or {@code null} if they were not tracked yet
+     */
+    public @Nullable RegionTracker.Snapshot getRegionSnapshot() {
+        return regionSnapshot;
+    }
+
+    /**
+     * Set by the {@link RegionTracker}.
+     */
+    public void setRegionSnapshot(RegionTracker.Snapshot regionSnapshot) {
+        this.regionSnapshot = regionSnapshot;
+    }
+
+    /**
+     * @return The regions the player is in, looked up if they were not tracked yet
+     */
+    public List<Region> getRegions() {
+        RegionTracker.Snapshot snapshot = regionSnapshot;
+        if (snapshot != null) {
+            return snapshot.regions();
+        }
+        return Zones.getInstance().getRegionManager().getRegionsAt(getLocation(), getWorld());
+    }
+
     @Override
     public void sendMessage(@NotNull Component component) {
         Zones.getInstance().getPlatform().getAudience(this).sendMessage(component);
@@ -79,6 +154,11 @@ public class Player implements Audience {
         return uuid.equals(player.uuid);
     }
 
+    @Override
+    public int hashCode() {
+        return uuid.hashCode();
+    }
+
     public World getWorld() {
         return Zones.getInstance().getPlatform().getWorld(this);
     }
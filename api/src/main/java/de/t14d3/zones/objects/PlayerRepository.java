@@ -1,52 +1,52 @@
 package de.t14d3.zones.objects;
 
 import de.t14d3.zones.Zones;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Keeps the {@link Player} of every player seen this session, along with their selection and cached permissions.
+ */
 public class PlayerRepository {
-    private static final Set<Player> knownPlayers = new HashSet<>();
+    private static final Map<UUID, Player> knownPlayers = new ConcurrentHashMap<>();
 
     protected static Player add(Player player) {
-        knownPlayers.add(player);
-        return player;
+        Player existing = knownPlayers.putIfAbsent(player.getUUID(), player);
+        return existing != null ? existing : player;
     }
 
     public static Player getOrAdd(String name, UUID uuid) {
-        Player player = null;
-        for (Player p : knownPlayers) {
-            if (p.getUUID().equals(uuid)) {
-                player = p;
-                break;
-            }
-        }
-        if (player == null) {
-            player = new Player(uuid, name);
-            knownPlayers.add(player);
-        }
-        return player;
+        return knownPlayers.computeIfAbsent(uuid, k -> new Player(uuid, name));
+    }
+
+    /**
+     * @return The known player, without asking the platform for unknown ones.
+     */
+    public static @Nullable Player getIfPresent(UUID uuid) {
+        return knownPlayers.get(uuid);
     }
 
     public static Player get(UUID uuid) {
-        for (Player player : knownPlayers) {
-            if (player.getUUID().equals(uuid)) {
-                return player;
-            }
+        Player player = knownPlayers.get(uuid);
+        if (player != null) {
+            return player;
         }
-        Player player = Zones.getInstance().getPlatform().getPlayer(uuid);
+        player = Zones.getInstance().getPlatform().getPlayer(uuid);
         if (player != null) {
-            PlayerRepository.add(player);
+            player = PlayerRepository.add(player);
         }
         return player;
     }
 
     public static void remove(UUID uuid) {
-        knownPlayers.removeIf(player -> player.getUUID().equals(uuid));
+        knownPlayers.remove(uuid);
     }
 
-    public static Set<Player> getPlayers() {
-        return knownPlayers;
+    public static Collection<Player> getPlayers() {
+        return knownPlayers.values();
     }
 }
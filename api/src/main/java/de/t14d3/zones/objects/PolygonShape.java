@@ -0,0 +1,203 @@
+package de.t14d3.zones.objects;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Polygonal footprint given by its corner blocks, e.g. of an imported WorldGuard polygon region.
+ * Blocks on the outline are part of the shape.
+ * <p>
+ * For every block row (Z coordinate) the X intervals inside the polygon are precomputed on first use,
+ * stored as a sorted array of {@code start, end} pairs. A containment test is a binary search in that array,
+ * so it only depends logarithmically on the number of edges.
+ */
+public class PolygonShape implements RegionShape {
+    static final String TYPE = "polygon";
+
+    private final int[] xs;
+    private final int[] zs;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+    private volatile int[][] rows;
+
+    /**
+     * @param points The corners of the polygon in order, only X and Z are used.
+     */
+    public PolygonShape(List<BlockLocation> points) {
+        this(points.stream().mapToInt(BlockLocation::getX).toArray(),
+                points.stream().mapToInt(BlockLocation::getZ).toArray());
+    }
+
+    public PolygonShape(int[] xs, int[] zs) {
+        if (xs.length != zs.length || xs.length < 3) {
+            throw new IllegalArgumentException("A polygon needs at least 3 points");
+        }
+        this.xs = xs.clone();
+        this.zs = zs.clone();
+        this.minX = Arrays.stream(xs).min().getAsInt();
+        this.minZ = Arrays.stream(zs).min().getAsInt();
+        this.maxX = Arrays.stream(xs).max().getAsInt();
+        this.maxZ = Arrays.stream(zs).max().getAsInt();
+    }
+
+    @Override
+    public boolean contains(int x, int z) {
+        if (x < minX || x > maxX || z < minZ || z > maxZ) {
+            return false;
+        }
+        int[] row = rows()[z - minZ];
+        // Find the last interval starting at or before x
+        int low = 0;
+        int high = row.length / 2 - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (row[mid * 2] <= x) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found != -1 && x <= row[found * 2 + 1];
+    }
+
+    private int[][] rows() {
+        int[][] table = rows;
+        if (table == null) {
+            table = buildRows();
+            rows = table;
+        }
+        return table;
+    }
+
+    private int[][] buildRows() {
+        int[][] table = new int[maxZ - minZ + 1][];
+        double[] crossings = new double[xs.length];
+        IntArrayList intervals = new IntArrayList();
+        for (int z = minZ; z <= maxZ; z++) {
+            int count = 0;
+            intervals.clear();
+            for (int i = 0; i < xs.length; i++) {
+                int x1 = xs[i];
+                int z1 = zs[i];
+                int x2 = xs[(i + 1) % xs.length];
+                int z2 = zs[(i + 1) % xs.length];
+                if (z1 == z2) {
+                    if (z == z1) {
+                        intervals.add(Math.min(x1, x2));
+                        intervals.add(Math.max(x1, x2));
+                    }
+                    continue;
+                }
+                if (z < Math.min(z1, z2) || z > Math.max(z1, z2)) {
+                    continue;
+                }
+                long offset = (long) (z - z1) * (x2 - x1);
+                // Each edge covers its lower end only, so vertices are not counted twice
+                if (z < Math.max(z1, z2)) {
+                    crossings[count++] = x1 + (double) offset / (z2 - z1);
+                }
+                // Blocks exactly on the outline are inside
+                if (offset % (z2 - z1) == 0) {
+                    int x = (int) (x1 + offset / (z2 - z1));
+                    intervals.add(x);
+                    intervals.add(x);
+                }
+            }
+            Arrays.sort(crossings, 0, count);
+            for (int i = 0; i + 1 < count; i += 2) {
+                int from = (int) Math.ceil(crossings[i]);
+                int to = (int) Math.floor(crossings[i + 1]);
+                if (from <= to) {
+                    intervals.add(from);
+                    intervals.add(to);
+                }
+            }
+            table[z - minZ] = merge(intervals);
+        }
+        return table;
+    }
+
+    /**
+     * Sorts and merges overlapping or adjacent intervals.
+     */
+    private static int[] merge(IntArrayList intervals) {
+        int count = intervals.size() / 2;
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            // Start in the upper half, so sorting the longs sorts by start
+            sorted[i] = (long) intervals.getInt(i * 2) << 32 | (intervals.getInt(i * 2 + 1) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(sorted);
+        IntArrayList merged = new IntArrayList(count * 2);
+        for (long interval : sorted) {
+            int start = (int) (interval >> 32);
+            int end = (int) interval;
+            int last = merged.size() - 1;
+            if (last > 0 && (long) start <= (long) merged.getInt(last) + 1) {
+                merged.set(last, Math.max(merged.getInt(last), end));
+            } else {
+                merged.add(start);
+                merged.add(end);
+            }
+        }
+        return merged.toIntArray();
+    }
+
+    public int[] getXs() {
+        return xs.clone();
+    }
+
+    public int[] getZs() {
+        return zs.clone();
+    }
+
+    @Override
+    public int getMinX() {
+        return minX;
+    }
+
+    @Override
+    public int getMinZ() {
+        return minZ;
+    }
+
+    @Override
+    public int getMaxX() {
+        return maxX;
+    }
+
+    @Override
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public String serialize() {
+        StringBuilder builder = new StringBuilder(TYPE);
+        for (int i = 0; i < xs.length; i++) {
+            builder.append(';').append(xs[i]).append(',').append(zs[i]);
+        }
+        return builder.toString();
+    }
+
+    static PolygonShape parse(String data) {
+        String[] points = data.split(";");
+        int[] xs = new int[points.length];
+        int[] zs = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            String[] coordinates = points[i].split(",");
+            if (coordinates.length != 2) {
+                throw new IllegalArgumentException("Invalid polygon point: " + points[i]);
+            }
+            xs[i] = Integer.parseInt(coordinates[0].trim());
+            zs[i] = Integer.parseInt(coordinates[1].trim());
+        }
+        return new PolygonShape(xs, zs);
+    }
+}
@@ -0,0 +1,50 @@
+package de.t14d3.zones.objects;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Footprint of a region that is not a plain cuboid.
+ * The shape only describes the X/Z columns of a region, the vertical extent is taken from its bounds.
+ * Regions are indexed by their bounding box, the shape is only tested for the regions found there.
+ */
+public interface RegionShape {
+
+    /**
+     * @return Whether the block column at the given coordinates is part of the shape.
+     */
+    boolean contains(int x, int z);
+
+    int getMinX();
+
+    int getMinZ();
+
+    int getMaxX();
+
+    int getMaxZ();
+
+    /**
+     * @return The shape as a single line of text, readable by {@link #parse(String)}.
+     */
+    String serialize();
+
+    /**
+     * Parses a shape written by {@link #serialize()}.
+     *
+     * @param value The serialized shape.
+     * @return The shape, or {@code null} for an empty value (a cuboid region).
+     * @throws IllegalArgumentException If the value is not a valid shape.
+     */
+    static @Nullable RegionShape parse(@Nullable String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        int separator = value.indexOf(';');
+        String type = separator == -1 ? value : value.substring(0, separator);
+        String data = separator == -1 ? "" : value.substring(separator + 1);
+        return switch (type) {
+            case PolygonShape.TYPE -> PolygonShape.parse(data);
+            case CylinderShape.TYPE -> CylinderShape.parse(data);
+            default -> throw new IllegalArgumentException("Unknown region shape: " + type);
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package de.t14d3.zones.objects;
 
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 public class World {
@@ -27,6 +28,14 @@ public class World {
         return new World(name, uid);
     }
 
+    /**
+     * Creates a world that is not loaded on this server, used to copy its regions between data sources.
+     * The UID is derived from the name and never matches a loaded world.
+     */
+    public static World unloaded(String name) {
+        return new World(name, UUID.nameUUIDFromBytes(("unloaded:" + name).getBytes(StandardCharsets.UTF_8)));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
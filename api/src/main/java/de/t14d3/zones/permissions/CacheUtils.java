@@ -1,5 +1,6 @@
 package de.t14d3.zones.permissions;
 
+import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.objects.BlockLocation;
 import de.t14d3.zones.utils.DebugLoggerManager;
@@ -34,8 +35,7 @@ public class CacheUtils {
 
     public void startCacheRunnable() {
         CacheRunnable runnable = new CacheRunnable(plugin.getDebugLogger());
-        cacheTask = Executors.newSingleThreadScheduledExecutor()
-                .scheduleAtFixedRate(runnable, checkInterval, checkInterval, TimeUnit.MINUTES);
+        cacheTask = plugin.getScheduler().scheduleAtFixedRate(runnable, checkInterval, checkInterval, TimeUnit.MINUTES);
         plugin.getLogger()
                 .info("Cache scheduler has been started! (TTL: {} seconds, Interval: {} minutes, Limit: {})", ttl,
                         checkInterval, limit);
@@ -54,7 +54,7 @@ public class CacheUtils {
     }
 
     public void invalidateInteractionCacheForChunk(int chunkX, int chunkZ, String world) {
-        Zones.getInstance().getThreadPool().execute(() -> {
+        plugin.getScheduler().execute(() -> {
             synchronized (interactionCache) {
                 interactionCache.forEach((uuid, cacheEntries) -> {
                     for (CacheEntry entry : cacheEntries) {
@@ -70,6 +70,29 @@ public class CacheUtils {
         });
     }
 
+    /**
+     * Invalidates all cached interactions inside the given block area.
+     * The cache does not store worlds, so matching locations of other worlds are invalidated as well.
+     */
+    public void invalidateInteractionCacheForArea(int minX, int minZ, int maxX, int maxZ) {
+        synchronized (interactionCache) {
+            interactionCache.values().forEach(entries -> entries.removeIf(entry -> {
+                BlockLocation location = (BlockLocation) entry.getFlag();
+                return location.getX() >= minX && location.getX() <= maxX
+                        && location.getZ() >= minZ && location.getZ() <= maxZ;
+            }));
+        }
+    }
+
+    /**
+     * Invalidates all cached permissions of a region.
+     */
+    public void invalidateCacheForRegion(RegionKey key) {
+        synchronized (permissionCache) {
+            permissionCache.values().forEach(entries -> entries.removeIf(entry -> key.equals(entry.getKey())));
+        }
+    }
+
     public void invalidateCache(String target) {
         permissionCache.remove(target);
     }
@@ -5,6 +5,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
 import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionManager;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.objects.*;
 import de.t14d3.zones.utils.DebugLoggerManager;
@@ -22,6 +23,7 @@ public class PermissionManager {
     private final Zones zones;
     public static final String UNIVERSAL = "+universal";
     private final List<Permission> permissionMap;
+    private volatile SectionFlagCache sectionFlags;
 
     public PermissionManager(Zones zones) {
         this.zones = zones;
@@ -52,6 +54,9 @@ public class PermissionManager {
             debugLogger.log(DebugLoggerManager.UNI_CHECK, action.name(), location, type);
             return checkAction(location, world, action, type, extra);
         }
+        if (zones.getRegionManager().isLoading(location, world)) {
+            return false; // Regions there are not known yet, not cached as they are loaded in the background
+        }
         // Check interaction cache
         if (base && cacheUtils.interactionCache.containsKey(who)) {
             ConcurrentLinkedQueue<CacheEntry> entries = cacheUtils.interactionCache.get(who);
@@ -108,7 +113,7 @@ public class PermissionManager {
             // No region found, check player permissions
             boolean bypass = false;
             Player player = PlayerRepository.get(UUID.fromString(who));
-            if (player != null && player.hasPermission("zones.bypass.unclaimed")) {
+            if (player != null && player.hasCachedPermission(Player.BYPASS_UNCLAIMED)) {
                 bypass = true;
             }
             debugLogger.log(DebugLoggerManager.PERM, action.name(), who, location, type, bypass);
@@ -131,6 +136,14 @@ public class PermissionManager {
      * @return true if the action is allowed, false otherwise
      */
     public boolean checkAction(BlockLocation location, World world, Flag action, String type, Object... extra) {
+        if (zones.getRegionManager().isLoading(location, world)) {
+            return false; // Regions there are not known yet, not cached as they are loaded in the background
+        }
+        Result uniform = sectionFlags().get(location, world, action);
+        if (uniform != Result.UNDEFINED) {
+            return uniform == Result.TRUE;
+        }
+
         boolean base = extra == null || extra.length == 0;
 
         if (base && cacheUtils.interactionCache.containsKey(UNIVERSAL)) {
@@ -144,7 +157,69 @@ public class PermissionManager {
             }
         }
 
-        List<Region> regions = zones.getRegionManager().getRegionsAt(location, world);
+        Result result = resolve(zones.getRegionManager().getRegionsAt(location, world), action, type);
+
+        cacheUtils.interactionCache.computeIfAbsent(UNIVERSAL, k -> new ConcurrentLinkedQueue<>())
+                .add(new CacheEntry(location, action.name(), type, result));
+
+        debugLogger.log(DebugLoggerManager.CACHE_MISS_ACTION, DebugLoggerManager.UNI_CHECK, action.name(), location,
+                type, result, extra);
+
+        return result == Result.TRUE;
+    }
+
+    /**
+     * Checks a universal flag for a block flowing or moving from one location to another, e.g. water or lava.
+     * The destination is only evaluated if the flow crosses a region boundary,
+     * flows inside the same regions can not change the result.
+     *
+     * @param from   The location of the source block
+     * @param to     The location the block flows to
+     * @param action The action being performed
+     * @param type   The type of the flowing block
+     * @param extra  Additional context (used for cache control)
+     * @return true if the action is allowed at the source and, if the flow crosses a boundary, at the destination
+     */
+    public boolean checkFlow(BlockLocation from, BlockLocation to, World world, Flag action, String type,
+                             Object... extra) {
+        if (!checkAction(from, world, action, type, extra)) {
+            return false;
+        }
+        Result uniform = sectionFlags().get(to, world, action);
+        if (uniform != Result.UNDEFINED) {
+            return uniform == Result.TRUE;
+        }
+        RegionManager regionManager = zones.getRegionManager();
+        if (sameRegions(regionManager.getRegionsAt(from, world), regionManager.getRegionsAt(to, world))) {
+            return true;
+        }
+        return checkAction(to, world, action, type, extra);
+    }
+
+    private static boolean sameRegions(List<Region> first, List<Region> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (Region region : first) {
+            boolean found = false;
+            for (Region other : second) {
+                if (other == region) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves a universal flag from the regions at a location, respecting their priorities.
+     * Falls back to the default value of the flag if no region sets it.
+     */
+    Result resolve(List<Region> regions, Flag action, String type) {
         Result result = Result.UNDEFINED;
         if (!regions.isEmpty()) {
             int priority = Integer.MIN_VALUE;
@@ -166,18 +241,20 @@ public class PermissionManager {
             }
         }
         // No regions at location - use default value
-
         if (result == Result.UNDEFINED) {
             result = Result.valueOf(action.getDefaultValue(UNIVERSAL));
         }
+        return result;
+    }
 
-        cacheUtils.interactionCache.computeIfAbsent(UNIVERSAL, k -> new ConcurrentLinkedQueue<>())
-                .add(new CacheEntry(location, action.name(), type, result));
-
-        debugLogger.log(DebugLoggerManager.CACHE_MISS_ACTION, DebugLoggerManager.UNI_CHECK, action.name(), location,
-                type, result, extra);
-
-        return result == Result.TRUE;
+    private SectionFlagCache sectionFlags() {
+        SectionFlagCache cache = sectionFlags;
+        if (cache == null) {
+            // Created on first use, as flags and regions are not yet set up on construction
+            cache = new SectionFlagCache(this, zones);
+            sectionFlags = cache;
+        }
+        return cache;
     }
 
     public static Result isAllowed(String perm, String type, Result result) {
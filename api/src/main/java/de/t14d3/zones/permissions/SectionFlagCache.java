@@ -0,0 +1,131 @@
+package de.t14d3.zones.permissions;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.*;
+import de.t14d3.zones.permissions.flags.Flags;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the result of universal world-event flags per 16x16x16 block section.
+ * <p>
+ * A section that no region boundary cuts through has the same regions at every block.
+ * If their flag values also do not name specific block types, the flag is allowed or denied for the whole section,
+ * which is stored as a single bit. Sections cut by a boundary or with type-specific values are fully evaluated.
+ * <p>
+ * Every world has a fixed-size table, a section replaces whatever section was stored in its slot before.
+ * Entries are computed lazily and become invalid once any region changes.
+ */
+class SectionFlagCache {
+    private static final int SIZE = 4096;
+    private static final String NO_TYPE = "";
+
+    private final PermissionManager permissionManager;
+    private final Zones zones;
+    private final Flag[] flags;
+    private final Map<UUID, AtomicReferenceArray<Entry>> worlds = new ConcurrentHashMap<>();
+
+    /**
+     * @param bits Two bits per flag, the lower one set if the flag is allowed, the upper one if it is denied.
+     */
+    private record Entry(long section, long modifications, int bits) {
+    }
+
+    SectionFlagCache(PermissionManager permissionManager, Zones zones) {
+        this.permissionManager = permissionManager;
+        this.zones = zones;
+        this.flags = new Flag[]{Flags.PHYSICS, Flags.SPREAD, Flags.TRANSFORM, Flags.CREATE, Flags.DESTROY,
+                Flags.RELOCATE};
+    }
+
+    /**
+     * @return The result of the flag in the whole section of the location,
+     * or {@link Result#UNDEFINED} if it has to be evaluated for the block.
+     */
+    Result get(BlockLocation location, World world, Flag flag) {
+        int slot = slot(flag);
+        if (slot == -1 || world == null) {
+            return Result.UNDEFINED;
+        }
+        int sectionX = location.getX() >> 4;
+        int sectionY = location.getY() >> 4;
+        int sectionZ = location.getZ() >> 4;
+        long section = (sectionX & 0x3FFFFFL) << 42 | (sectionZ & 0x3FFFFFL) << 20 | (sectionY & 0xFFFFFL);
+        long modifications = zones.getRegionManager().getModificationCount();
+
+        AtomicReferenceArray<Entry> table = worlds.computeIfAbsent(world.getUID(),
+                k -> new AtomicReferenceArray<>(SIZE));
+        int index = (int) HashCommon.mix(section) & (SIZE - 1);
+        Entry entry = table.get(index);
+        if (entry == null || entry.section() != section || entry.modifications() != modifications) {
+            entry = new Entry(section, modifications, compute(world, sectionX, sectionY, sectionZ));
+            table.set(index, entry);
+        }
+        int bits = entry.bits() >> (slot * 2);
+        if ((bits & 1) != 0) {
+            return Result.TRUE;
+        }
+        return (bits & 2) != 0 ? Result.FALSE : Result.UNDEFINED;
+    }
+
+    private int slot(Flag flag) {
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i] == flag) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int compute(World world, int sectionX, int sectionY, int sectionZ) {
+        List<Region> regions = zones.getRegionManager().getSectionRegions(world, sectionX, sectionY, sectionZ);
+        if (regions == null) {
+            return 0;
+        }
+        int bits = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if (isTypeSpecific(regions, flags[i])) {
+                continue;
+            }
+            Result result = permissionManager.resolve(regions, flags[i], NO_TYPE);
+            bits |= (result == Result.TRUE ? 1 : 2) << (i * 2);
+        }
+        return bits;
+    }
+
+    /**
+     * Whether any region (or a parent) has values for the flag other than {@code true} and {@code false},
+     * i.e. values naming block types, so the result depends on the block.
+     */
+    private static boolean isTypeSpecific(List<Region> regions, Flag flag) {
+        for (Region region : regions) {
+            Region current = region;
+            for (int depth = 0; current != null; depth++) {
+                if (depth == 16) {
+                    return true; // Too deep to tell, evaluate per block
+                }
+                for (List<RegionFlagEntry> entries : current.getMembers().values()) {
+                    for (RegionFlagEntry entry : entries) {
+                        if (!entry.getFlagValue().equalsIgnoreCase(flag.name())) {
+                            continue;
+                        }
+                        for (RegionFlagEntry.FlagValue value : entry.getValues()) {
+                            if (!value.getValue().equalsIgnoreCase("true")
+                                    && !value.getValue().equalsIgnoreCase("false")) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+                current = current.getParent() != null ? current.getParentRegion() : null;
+            }
+        }
+        return false;
+    }
+}
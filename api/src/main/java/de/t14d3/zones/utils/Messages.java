@@ -9,6 +9,7 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
 
@@ -16,6 +17,11 @@ public class Messages {
     private final Zones zones;
     private final Map<String, String> messages = new HashMap<>();
     private final static MiniMessage mm = MiniMessage.miniMessage();
+    private static final int MAX_RENDERED = 4096;
+    private final Map<Long, RenderedInfo> renderedInfo = new ConcurrentHashMap<>();
+
+    private record RenderedInfo(Region region, int version, Component component) {
+    }
 
     public Messages(Properties messagesConfig, Zones zones) {
         this.zones = zones;
@@ -47,6 +53,23 @@ public class Messages {
     }
 
     public static Component regionInfo(Region region, boolean showMembers) {
+        // Rendering resolves the names of all members, so the result is kept until the region changes
+        Map<Long, RenderedInfo> cache = Zones.getInstance().getMessages().renderedInfo;
+        long cacheKey = (long) region.getKey().getValue() << 1 | (showMembers ? 1 : 0);
+        int version = region.getVersion();
+        RenderedInfo cached = cache.get(cacheKey);
+        if (cached != null && cached.region() == region && cached.version() == version) {
+            return cached.component();
+        }
+        Component component = renderRegionInfo(region, showMembers);
+        if (cache.size() >= MAX_RENDERED) {
+            cache.clear();
+        }
+        cache.put(cacheKey, new RenderedInfo(region, version, component));
+        return component;
+    }
+
+    private static Component renderRegionInfo(Region region, boolean showMembers) {
         Messages messages = Zones.getInstance().getMessages();
         Component comp = Component.empty();
         comp = comp.append(
@@ -11,6 +11,17 @@ import java.util.List;
  * Contains lists for blocks and entities for their respective {@link Flag} type.
  */
 public abstract class Types {
+    /**
+     * Block classification bits, see the platform implementations for the per-block tables.
+     */
+    public static final int CONTAINER = 1;
+    public static final int REDSTONE = 1 << 1;
+    public static final int IGNITE = 1 << 2;
+    /**
+     * Set for blocks that require {@link de.t14d3.zones.permissions.flags.Flags#INTERACT} when right-clicked.
+     */
+    public static final int INTERACT = 1 << 3;
+
     protected static List<String> allTypes = new ArrayList<>();
     protected static List<String> blockTypes = new ArrayList<>();
     protected static List<String> entityTypes = new ArrayList<>();
@@ -0,0 +1,187 @@
+package de.t14d3.zones.utils;
+
+import de.t14d3.zones.Zones;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs all background work of Zones.
+ * <p>
+ * Delayed and repeating tasks share a single timer thread, so they should be short.
+ * Blocking work like database queries is run on virtual threads with {@link #execute(Runnable)}.
+ * A semaphore lets at most {@code advanced.thread-pool.max-size} of those run at once, and up to
+ * {@code advanced.thread-pool.queue-size} more wait for it. Any task beyond that is rejected
+ * with a {@link RejectedExecutionException} and counted in {@link #getRejectedCount()}.
+ * Long-running background services get a dedicated {@link #lane(String) lane} instead.
+ */
+public class ZonesScheduler implements Executor {
+    private final Zones zones;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService workers;
+    private final Semaphore permits;
+    private final int maxSize;
+    private final int capacity;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final List<ScheduledThreadPoolExecutor> lanes = new CopyOnWriteArrayList<>();
+    private final LongAdder rejected = new LongAdder();
+
+    public ZonesScheduler(Zones zones) {
+        this.zones = zones;
+        this.maxSize = Math.max(1, zones.getConfig().getInt("advanced.thread-pool.max-size",
+                Runtime.getRuntime().availableProcessors() * 2));
+        this.capacity = maxSize + Math.max(1, zones.getConfig().getInt("advanced.thread-pool.queue-size", 1024));
+
+        this.timer = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("Zones Timer").daemon().factory());
+        timer.setRemoveOnCancelPolicy(true);
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+
+        // Virtual threads are cheap to create, only the number running at once is limited
+        this.workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Zones Worker ", 0).factory());
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Runs a task on a worker thread.
+     *
+     * @throws RejectedExecutionException If the queue is full or the scheduler is shut down.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Zones task queue is full (" + (capacity - maxSize) + " tasks)");
+        }
+        Runnable guarded = guarded(task);
+        try {
+            workers.execute(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        guarded.run();
+                    } finally {
+                        permits.release();
+                    }
+                } catch (InterruptedException e) {
+                    // Shut down while waiting for a permit
+                    Thread.currentThread().interrupt();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Zones scheduler is shut down");
+        }
+    }
+
+    /**
+     * Runs a task on a worker thread, or right away on the calling thread if it can not be queued.
+     */
+    public void executeOrRun(Runnable task) {
+        try {
+            execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    /**
+     * Runs a task on the timer thread after the given delay.
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(guarded(task), delay, unit);
+    }
+
+    /**
+     * Runs a task on the timer thread repeatedly until the returned future is cancelled.
+     * A failing run is logged and does not stop later runs.
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return timer.scheduleAtFixedRate(guarded(task), initialDelay, period, unit);
+    }
+
+    /**
+     * Creates a lane, a dedicated thread running its tasks one after another, for background services that
+     * should neither occupy a worker nor wait for one, like the region journal or the change feed.
+     * Lanes are shut down with the scheduler, after the tasks already queued on them ran.
+     *
+     * @param name The name of the thread, e.g. {@code "Zones Journal"}.
+     */
+    public ScheduledExecutorService lane(String name) {
+        ScheduledThreadPoolExecutor lane = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name(name).daemon().factory());
+        lane.setRemoveOnCancelPolicy(true);
+        lane.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * @return The number of tasks rejected since startup.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return The number of tasks waiting for a worker.
+     */
+    public int getQueuedCount() {
+        return Math.max(0, pending.get() - getActiveCount());
+    }
+
+    /**
+     * @return The number of workers currently running a task.
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    public boolean isShutdown() {
+        return workers.isShutdown();
+    }
+
+    /**
+     * Cancels all timer tasks and waits up to 5 seconds for running and queued worker tasks to finish,
+     * then up to 30 seconds for the tasks queued on the lanes.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        workers.shutdown();
+        lanes.forEach(ScheduledThreadPoolExecutor::shutdown);
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                zones.getLogger().warn("Interrupting {} unfinished tasks", pending.get());
+                workers.shutdownNow();
+            }
+            for (ScheduledThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                    zones.getLogger().warn("Interrupting unfinished background tasks");
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            lanes.forEach(ScheduledThreadPoolExecutor::shutdownNow);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Runnable guarded(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                zones.getLogger().error("Task failed: {}", e.getMessage());
+                if (zones.debug) {
+                    e.printStackTrace();
+                }
+            }
+        };
+    }
+}
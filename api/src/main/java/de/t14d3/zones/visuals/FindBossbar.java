@@ -1,20 +1,31 @@
 package de.t14d3.zones.visuals;
 
 import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionTracker;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.objects.Player;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Shows the names of the regions a player is in on a bossbar.
+ * <p>
+ * The bossbar is only renamed when the {@link RegionTracker} reports that the player entered or left a region,
+ * or that regions changed while the player stayed in the same ones, e.g. when one of them was renamed.
+ * Texts are shared between all players in the same regions.
+ */
 public class FindBossbar {
+    private static final int MAX_TEXTS = 256;
+
     private final Zones zones;
-    public Map<Player, BossBar> players = new HashMap<>();
+    private final Map<UUID, BossBar> players = new ConcurrentHashMap<>();
+    private final Map<String, Component> texts = new ConcurrentHashMap<>();
     private final BossBar.Color color;
     private final BossBar.Overlay overlay;
     private final float progress;
@@ -27,30 +38,66 @@ public class FindBossbar {
         this.textColor = NamedTextColor.NAMES.value(zones.getConfig().getString("visuals.bossbar.text-color", "WHITE"));
         this.progress = zones.getConfig().getFloat("visuals.bossbar.progress", 1.0f);
 
-        Executors.newSingleThreadScheduledExecutor()
-                .scheduleAtFixedRate(new FindBossbarRunnable(), 0, 1, java.util.concurrent.TimeUnit.SECONDS);
+        zones.getRegionTracker().addListener(this::onTransition);
+        zones.getRegionTracker().addRefreshListener(this::onRefresh);
     }
 
-    private class FindBossbarRunnable implements Runnable {
-        @Override
-        public void run() {
-            for (Map.Entry<Player, BossBar> entry : players.entrySet()) {
-                List<Region> regions = zones.getRegionManager()
-                        .getRegionsAt(entry.getKey().getLocation(), entry.getKey().getWorld());
-                BossBar bar = entry.getValue() == null ? BossBar.bossBar(Component.text("Initializing..."), progress,
-                        color, overlay) : entry.getValue();
-                Component[] names = new Component[regions.size()];
-                int i = 0;
-                for (Region region : regions) {
-                    names[i] = Component.text(region.getName() + (i == regions.size() - 1 ? "" : ", "));
-                    i++;
-                }
-                Component text = Component.textOfChildren(names).color(textColor);
-                bar.name(text);
-                entry.setValue(bar);
-                zones.getPlatform().getAudience(entry.getKey()).showBossBar(bar);
-            }
+    /**
+     * Shows the bossbar to a player, or hides it if it is already shown.
+     *
+     * @return {@code true} if the bossbar is shown now
+     */
+    public boolean toggle(Player player) {
+        BossBar bar = players.remove(player.getUUID());
+        if (bar != null) {
+            zones.getPlatform().getAudience(player).hideBossBar(bar);
+            return false;
+        }
+        bar = BossBar.bossBar(text(player.getRegions()), progress, color, overlay);
+        players.put(player.getUUID(), bar);
+        zones.getPlatform().getAudience(player).showBossBar(bar);
+        return true;
+    }
+
+    /**
+     * Forgets the bossbar of a player, e.g. after they left the server.
+     */
+    public void remove(UUID uuid) {
+        players.remove(uuid);
+    }
+
+    private void onTransition(RegionTracker.Transition transition) {
+        BossBar bar = players.get(transition.player().getUUID());
+        if (bar != null) {
+            // Renaming to an equal text sends nothing
+            bar.name(text(transition.regions()));
         }
+    }
 
+    private void onRefresh(Player player) {
+        BossBar bar = players.get(player.getUUID());
+        if (bar != null) {
+            bar.name(text(player.getRegions()));
+        }
+    }
+
+    private Component text(List<Region> regions) {
+        StringBuilder names = new StringBuilder();
+        for (Region region : regions) {
+            if (!names.isEmpty()) {
+                names.append(", ");
+            }
+            names.append(region.getName());
+        }
+        String signature = names.toString();
+        Component text = texts.get(signature);
+        if (text == null) {
+            if (texts.size() >= MAX_TEXTS) {
+                texts.clear();
+            }
+            text = Component.text(signature).color(textColor);
+            texts.put(signature, text);
+        }
+        return text;
     }
 }
@@ -7,7 +7,6 @@ import de.t14d3.zones.objects.Box;
 import de.t14d3.zones.objects.Player;
 import de.t14d3.zones.objects.PlayerRepository;
 
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -15,15 +14,21 @@ public class ParticleHandler {
     private final Zones zones;
     private final ZonesPlatform platform;
     private final double range;
+    private final int detail;
     private ScheduledFuture<?> particleScheduler;
 
     public ParticleHandler(Zones zones) {
         this.zones = zones;
         this.platform = zones.getPlatform();
-        this.range = zones.getConfig().getInt("selection-particles.range", 15);
+        this.range = zones.getConfig().getInt("visuals.particles.range", 15);
+        this.detail = Math.max(0, zones.getConfig().getInt("visuals.particles.detail", 1));
     }
 
     void spawnParticleOutline(Player player, BlockLocation min, BlockLocation max) {
+        BlockLocation origin = player.getLocation();
+        if (origin == null) {
+            return;
+        }
         int x1 = min.getX();
         int y1 = min.getY();
         int z1 = min.getZ();
@@ -32,28 +37,81 @@ public class ParticleHandler {
         int z2 = max.getZ() + 1;
 
         // Generate particles for all 6 faces
-        spawnFace(player, 'y', y1, x1, x2, z1, z2, x1, x2, y1, y2, z1, z2); // Floor
-        spawnFace(player, 'y', y2, x1, x2, z1, z2, x1, x2, y1, y2, z1, z2); // Roof
-        spawnFace(player, 'x', x1, y1, y2, z1, z2, x1, x2, y1, y2, z1, z2); // Left wall
-        spawnFace(player, 'x', x2, y1, y2, z1, z2, x1, x2, y1, y2, z1, z2); // Right wall
-        spawnFace(player, 'z', z1, x1, x2, y1, y2, x1, x2, y1, y2, z1, z2); // Front wall
-        spawnFace(player, 'z', z2, x1, x2, y1, y2, x1, x2, y1, y2, z1, z2); // Back wall
+        spawnFace(player, origin, 'y', y1, x1, x2, z1, z2); // Floor
+        spawnFace(player, origin, 'y', y2, x1, x2, z1, z2); // Roof
+        spawnFace(player, origin, 'x', x1, y1, y2, z1, z2); // Left wall
+        spawnFace(player, origin, 'x', x2, y1, y2, z1, z2); // Right wall
+        spawnFace(player, origin, 'z', z1, x1, x2, y1, y2); // Front wall
+        spawnFace(player, origin, 'z', z2, x1, x2, y1, y2); // Back wall
     }
 
-    public void spawnFace(Player player, char axis, int fixedVal,
-                          int axis1Start, int axis1End, int axis2Start, int axis2End,
-                          int x1, int x2, int y1, int y2, int z1, int z2) {
+    /**
+     * Spawns the particles of one face within range of the player.
+     * <p>
+     * Only the part of the face inside the range sphere is iterated. Edges get a particle on every block,
+     * the inside of the face only on every {@code detail}th row and column.
+     */
+    private void spawnFace(Player player, BlockLocation origin, char axis, int fixedVal,
+                           int axis1Start, int axis1End, int axis2Start, int axis2End) {
         BlockLocation loc = new BlockLocation(0, 0, 0);
-        for (int a1 = axis1Start; a1 <= axis1End; a1++) {
-            for (int a2 = axis2Start; a2 <= axis2End; a2++) {
-                loc = createLocation(axis, fixedVal, a1, a2, loc);
-                if (loc.distance(player.getLocation()) >= range) continue;
+        int originFixed = axis == 'x' ? origin.getX() : axis == 'y' ? origin.getY() : origin.getZ();
+        int origin1 = axis == 'x' ? origin.getY() : origin.getX();
+        int origin2 = axis == 'z' ? origin.getY() : origin.getZ();
 
-                platform.spawnParticle(isCorner(loc, x1, x2, y1, y2, z1, z2) ? 2 : 1, loc, player);
+        double rangeSquared = range * range;
+        double planeSquared = square(fixedVal - originFixed);
+        if (planeSquared >= rangeSquared) {
+            return;
+        }
+        double radius = Math.sqrt(rangeSquared - planeSquared);
+        int from1 = Math.max(axis1Start, (int) Math.floor(origin1 - radius));
+        int to1 = Math.min(axis1End, (int) Math.ceil(origin1 + radius));
+        for (int a1 = from1; a1 <= to1; a1++) {
+            double rowSquared = planeSquared + square(a1 - origin1);
+            if (rowSquared >= rangeSquared) {
+                continue;
+            }
+            double halfWidth = Math.sqrt(rangeSquared - rowSquared);
+            int from2 = Math.max(axis2Start, (int) Math.floor(origin2 - halfWidth));
+            int to2 = Math.min(axis2End, (int) Math.ceil(origin2 + halfWidth));
+            boolean edgeRow = a1 == axis1Start || a1 == axis1End;
+            if (edgeRow || (detail > 0 && (a1 - axis1Start) % detail == 0)) {
+                int step = edgeRow ? 1 : detail;
+                // Start on the grid of the level of detail, which starts at the edge
+                int a2 = from2 + Math.floorMod(axis2Start - from2, step);
+                for (; a2 <= to2; a2 += step) {
+                    spawn(player, loc, axis, fixedVal, a1, a2, rowSquared + square(a2 - origin2),
+                            edgeRow || a2 == axis2Start || a2 == axis2End);
+                }
+                if (!edgeRow && (axis2End - axis2Start) % step != 0 && axis2End <= to2) {
+                    spawn(player, loc, axis, fixedVal, a1, axis2End, rowSquared + square(axis2End - origin2),
+                            true);
+                }
+            } else {
+                if (axis2Start >= from2) {
+                    spawn(player, loc, axis, fixedVal, a1, axis2Start,
+                            rowSquared + square(axis2Start - origin2), true);
+                }
+                if (axis2End <= to2 && axis2End != axis2Start) {
+                    spawn(player, loc, axis, fixedVal, a1, axis2End,
+                            rowSquared + square(axis2End - origin2), true);
+                }
             }
         }
     }
 
+    private void spawn(Player player, BlockLocation loc, char axis, int fixedVal, int a1, int a2,
+                       double distanceSquared, boolean edge) {
+        if (distanceSquared >= range * range) {
+            return;
+        }
+        platform.spawnParticle(edge ? 2 : 1, createLocation(axis, fixedVal, a1, a2, loc), player);
+    }
+
+    private static double square(int value) {
+        return (double) value * value;
+    }
+
     private static BlockLocation createLocation(char axis, int fixedVal, int a1, int a2, BlockLocation locToChange) {
         return switch (axis) {
             case 'x' -> locToChange.setX(fixedVal).setY(a1).setZ(a2);
@@ -63,15 +121,8 @@ public class ParticleHandler {
         };
     }
 
-    private static boolean isCorner(BlockLocation loc, int x1, int x2, int y1, int y2, int z1, int z2) {
-        boolean xEdge = loc.getX() == x1 || loc.getX() == x2;
-        boolean yEdge = loc.getY() == y1 || loc.getY() == y2;
-        boolean zEdge = loc.getZ() == z1 || loc.getZ() == z2;
-        return (xEdge && yEdge) || (xEdge && zEdge) || (yEdge && zEdge);
-    }
-
     public void particleScheduler() {
-        if (!zones.getConfig().getBoolean("selection-particles.enabled", false)) {
+        if (!zones.getConfig().getBoolean("visuals.particles.enabled", false)) {
             return;
         }
         Runnable runnable = () -> {
@@ -88,6 +139,6 @@ public class ParticleHandler {
                         selection.getMax());
             }
         };
-        Executors.newSingleThreadScheduledExecutor().scheduleAtFixedRate(runnable, 0L, 200, TimeUnit.MILLISECONDS);
+        particleScheduler = zones.getScheduler().scheduleAtFixedRate(runnable, 0L, 200, TimeUnit.MILLISECONDS);
     }
 }
@@ -25,6 +25,11 @@ public class BukkitPermissionManager extends PermissionManager {
         return super.checkAction(BlockLocation.of(loc), World.of(loc.getWorld()), action, type, extra);
     }
 
+    public boolean checkFlow(Location from, Location to, Flag action, String type, Object... extra) {
+        return super.checkFlow(BlockLocation.of(from), BlockLocation.of(to), World.of(from.getWorld()), action, type,
+                extra);
+    }
+
     public boolean checkAction(Location location, UUID playerUUID, Flag action, String name) {
         return checkAction(location, playerUUID.toString(), action, name);
     }
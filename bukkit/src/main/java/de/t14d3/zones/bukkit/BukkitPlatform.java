@@ -16,6 +16,8 @@ import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.block.data.BlockData;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Entity;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.metadata.MetadataValue;
 import org.jetbrains.annotations.Nullable;
@@ -32,8 +34,8 @@ public class BukkitPlatform implements ZonesPlatform {
 
     public BukkitPlatform(ZonesBukkit plugin) {
         this.plugin = plugin;
-        this.primary = Particle.valueOf(plugin.getConfig().getString("selection-particles.primary", "WAX_OFF"));
-        this.secondary = Particle.valueOf(plugin.getConfig().getString("selection-particles.secondary", "WAX_ON"));
+        this.primary = Particle.valueOf(plugin.getConfig().getString("visuals.particles.primary", "WAX_OFF"));
+        this.secondary = Particle.valueOf(plugin.getConfig().getString("visuals.particles.secondary", "WAX_ON"));
     }
 
     @Override
@@ -51,6 +53,10 @@ public class BukkitPlatform implements ZonesPlatform {
 
     @Override
     public Player getPlayer(UUID uuid) {
+        Player known = PlayerRepository.getIfPresent(uuid);
+        if (known != null) {
+            return known;
+        }
         org.bukkit.OfflinePlayer player = plugin.getServer().getOfflinePlayer(uuid);
         String name = player.getName();
         if (name == null) {
@@ -155,7 +161,8 @@ public class BukkitPlatform implements ZonesPlatform {
     }
 
     public void showBeacon(org.bukkit.entity.Player player, Location location, NamedTextColor color) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        // Blocks are read, so this has to run on the thread owning the location (on Folia)
+        plugin.getServer().getRegionScheduler().execute(plugin, location, () -> {
             for (BeaconUtils.BlockChange change : BeaconUtils.createList(BlockLocation.of(location), color)) {
                 BlockData data = Bukkit.createBlockData(Material.valueOf(change.getBlockData()));
                 Location loc = new Location(player.getWorld(), change.getX(), change.getY(), change.getZ());
@@ -175,7 +182,7 @@ public class BukkitPlatform implements ZonesPlatform {
     }
 
     public void removeBeacon(org.bukkit.entity.Player player, Location location) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        plugin.getServer().getRegionScheduler().execute(plugin, location, () -> {
             for (BeaconUtils.BlockChange change : BeaconUtils.resetList(BlockLocation.of(location))) {
                 Location loc = new Location(player.getWorld(), change.getX(), change.getY(), change.getZ());
                 BlockData data = loc.getBlock().getBlockData();
@@ -184,4 +191,25 @@ public class BukkitPlatform implements ZonesPlatform {
             }
         });
     }
+
+    @Override
+    public void runTask(Runnable task) {
+        if (plugin.isEnabled()) {
+            plugin.getServer().getGlobalRegionScheduler().execute(plugin, task);
+        }
+    }
+
+    /**
+     * Runs a task on the thread owning the sender, which on Folia is the region thread of a player.
+     */
+    public void runTask(CommandSender sender, Runnable task) {
+        if (!plugin.isEnabled()) {
+            return;
+        }
+        if (sender instanceof Entity entity) {
+            entity.getScheduler().run(plugin, scheduled -> task.run(), null);
+        } else {
+            runTask(task);
+        }
+    }
 }
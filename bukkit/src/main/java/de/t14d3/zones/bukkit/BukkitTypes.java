@@ -4,7 +4,6 @@ import de.t14d3.zones.utils.Types;
 import io.papermc.paper.registry.RegistryAccess;
 import io.papermc.paper.registry.RegistryKey;
 import org.bukkit.Material;
-import org.bukkit.block.BlockState;
 import org.bukkit.block.Container;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.block.data.Powerable;
@@ -17,6 +16,18 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class BukkitTypes extends Types {
+    private static final Material[] MATERIALS = Material.values();
+    private static final String[] IDS = new String[MATERIALS.length];
+    /**
+     * Classification bits per {@link Material#ordinal()}, built in the background on startup.
+     */
+    private static volatile int[] classes;
+
+    static {
+        for (Material material : MATERIALS) {
+            IDS[material.ordinal()] = material.name().toLowerCase();
+        }
+    }
 
     public BukkitTypes() {
         super();
@@ -48,36 +59,11 @@ public class BukkitTypes extends Types {
 
 
         new Thread(() -> {
-            containerTypes = Arrays.stream(Material.values())
-                    .parallel()
-                    .filter(material -> material.isBlock() && !material.isLegacy())
-                    .flatMap(material -> {
-                        try {
-                            BlockData data = material.createBlockData();
-                            BlockState state = data.createBlockState();
-                            return (state instanceof Container) ? Stream.of(material) : Stream.empty();
-                        } catch (Exception e) {
-                            return Stream.empty();
-                        }
-                    })
-                    .flatMap(material -> Stream.of(material.name().toLowerCase(), "!" + material.name().toLowerCase()))
-                    .collect(Collectors.toList());
-            containerTypes.addAll(List.of("owner", "admin", "true", "false"));
-
-            redstoneTypes = Arrays.stream(Material.values())
-                    .parallel()
-                    .filter(material -> material.isBlock() && !material.isLegacy())
-                    .flatMap(material -> {
-                        try {
-                            BlockData data = material.createBlockData();
-                            return (data instanceof Powerable) ? Stream.of(material) : Stream.empty();
-                        } catch (Exception e) {
-                            return Stream.empty();
-                        }
-                    })
-                    .flatMap(material -> Stream.of(material.name().toLowerCase(), "!" + material.name().toLowerCase()))
-                    .collect(Collectors.toList());
-            redstoneTypes.addAll(List.of("owner", "admin", "true", "false"));
+            int[] table = new int[MATERIALS.length];
+            Arrays.parallelSetAll(table, i -> compute(MATERIALS[i]));
+            classes = table;
+            containerTypes = typesWith(table, CONTAINER);
+            redstoneTypes = typesWith(table, REDSTONE);
         }).start();
 
         damageTypes = RegistryAccess.registryAccess().getRegistry(RegistryKey.DAMAGE_TYPE).stream()
@@ -89,4 +75,55 @@ public class BukkitTypes extends Types {
                 .collect(Collectors.toList());
         damageTypes.addAll(List.of("owner", "admin", "true", "false"));
     }
+
+    /**
+     * Classifies a material without looking at a block state.
+     *
+     * @return The {@link Types#CONTAINER}, {@link Types#REDSTONE}, {@link Types#IGNITE} and {@link Types#INTERACT}
+     * bits of the material
+     */
+    public static int classify(Material material) {
+        int[] table = classes;
+        return table != null ? table[material.ordinal()] : compute(material);
+    }
+
+    /**
+     * @return The lower case name of the material, as used in flag values
+     */
+    public static String id(Material material) {
+        return IDS[material.ordinal()];
+    }
+
+    private static int compute(Material material) {
+        if (!material.isBlock() || material.isLegacy()) {
+            return 0;
+        }
+        int bits = material == Material.TNT ? IGNITE : 0;
+        try {
+            BlockData data = material.createBlockData();
+            if (data instanceof Powerable) {
+                bits |= REDSTONE;
+            }
+            if (data.createBlockState() instanceof Container) {
+                bits |= CONTAINER;
+            }
+        } catch (Exception ignored) {
+        }
+        if ((bits & (CONTAINER | REDSTONE)) != 0) {
+            bits |= INTERACT;
+        }
+        return bits;
+    }
+
+    private static List<String> typesWith(int[] table, int bit) {
+        List<String> types = new ArrayList<>();
+        for (int i = 0; i < table.length; i++) {
+            if ((table[i] & bit) != 0) {
+                types.add(IDS[i]);
+                types.add("!" + IDS[i]);
+            }
+        }
+        types.addAll(List.of("owner", "admin", "true", "false"));
+        return types;
+    }
 }
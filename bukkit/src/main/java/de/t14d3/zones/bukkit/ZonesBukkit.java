@@ -3,12 +3,12 @@ package de.t14d3.zones.bukkit;
 import com.sk89q.worldedit.WorldEdit;
 import de.t14d3.zones.RegionManager;
 import de.t14d3.zones.Zones;
-import de.t14d3.zones.ZonesPlatform;
 import de.t14d3.zones.bukkit.commands.RootCommand;
 import de.t14d3.zones.bukkit.listeners.*;
 import de.t14d3.zones.integrations.FAWEIntegration;
 import de.t14d3.zones.integrations.PlaceholderAPI;
 import de.t14d3.zones.integrations.WorldEditSession;
+import de.t14d3.zones.objects.World;
 import de.t14d3.zones.permissions.CacheUtils;
 import de.t14d3.zones.utils.DebugLoggerManager;
 import de.t14d3.zones.utils.Messages;
@@ -16,21 +16,25 @@ import de.t14d3.zones.utils.Types;
 import de.t14d3.zones.utils.Utils;
 import dev.jorel.commandapi.CommandAPI;
 import dev.jorel.commandapi.CommandAPIBukkitConfig;
+import org.bukkit.Chunk;
 import org.bukkit.permissions.Permission;
 import org.bukkit.permissions.PermissionDefault;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.TimeUnit;
+
 public final class ZonesBukkit extends JavaPlugin {
 
     private static ZonesBukkit instance;
     public boolean debug = false;
-    private ZonesPlatform platform;
+    private BukkitPlatform platform;
     private Zones zones;
     private BukkitPermissionManager permissionManager;
     private RegionManager regionManager;
     private Messages messages;
     private DebugLoggerManager debugLogger;
     private BukkitTypes types;
+    private ExplosivesListener explosivesListener;
 
     public static ZonesBukkit getInstance() {
         return instance;
@@ -71,9 +75,18 @@ public final class ZonesBukkit extends JavaPlugin {
         // Register listeners
         this.getServer().getPluginManager().registerEvents(new PlayerEventListener(this), this);
         this.getServer().getPluginManager().registerEvents(new PlayerQuitListener(zones), this);
+        this.getServer().getPluginManager().registerEvents(new MovementListener(this), this);
         this.getServer().getPluginManager().registerEvents(new WorldEventListener(zones), this);
-        this.getServer().getPluginManager().registerEvents(new ChunkEventListener(), this);
-        ExplosivesListener explosivesListener = new ExplosivesListener(this);
+        this.getServer().getPluginManager().registerEvents(new ChunkEventListener(zones), this);
+        if (regionManager.isLazyLoading()) {
+            // Chunks loaded before the listener was registered
+            getServer().getWorlds().forEach(world -> {
+                for (Chunk chunk : world.getLoadedChunks()) {
+                    regionManager.onChunkLoad(World.of(world), chunk.getX(), chunk.getZ());
+                }
+            });
+        }
+        explosivesListener = new ExplosivesListener(this);
         BlockEventListener blockEventListener = new BlockEventListener(zones);
 
         // Register mode permissions
@@ -94,10 +107,10 @@ public final class ZonesBukkit extends JavaPlugin {
 
         // Register saving task
         if (getSavingMode() == Utils.SavingModes.PERIODIC) {
-            getServer().getScheduler().runTaskTimerAsynchronously(this, () -> {
+            getServer().getAsyncScheduler().runAtFixedRate(this, task -> {
                 regionManager.saveRegions();
                 getLogger().info("Zones have been saved.");
-            }, 20L, getConfig().getInt("zone-saving.period", 60) * 20L);
+            }, 1L, getConfig().getInt("zone-saving.period", 60), TimeUnit.SECONDS);
         }
 
 
@@ -125,8 +138,9 @@ public final class ZonesBukkit extends JavaPlugin {
     public void onDisable() {
         // Save regions to datasource before plugin shutdown
         regionManager.saveRegions();
-        regionManager.regions().clear();
+        regionManager.clear();
         CommandAPI.onDisable();
+        zones.shutdown();
         regionManager.getDataSourceManager().close();
 
         getLogger().info("Zones plugin is disabling and regions are saved.");
@@ -153,10 +167,14 @@ public final class ZonesBukkit extends JavaPlugin {
         return messages;
     }
 
-    public ZonesPlatform getPlatform() {
+    public BukkitPlatform getPlatform() {
         return platform;
     }
 
+    public ExplosivesListener getExplosivesListener() {
+        return explosivesListener;
+    }
+
     public Zones getZones() {
         return zones;
     }
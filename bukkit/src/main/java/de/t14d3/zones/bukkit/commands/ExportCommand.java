@@ -0,0 +1,75 @@
+package de.t14d3.zones.bukkit.commands;
+
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.bukkit.ZonesBukkit;
+import de.t14d3.zones.datasource.DataSourceManager;
+import de.t14d3.zones.datasource.RegionArchive;
+import de.t14d3.zones.utils.Messages;
+import dev.jorel.commandapi.CommandAPICommand;
+import dev.jorel.commandapi.arguments.ArgumentSuggestions;
+import dev.jorel.commandapi.arguments.StringArgument;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.unparsed;
+
+public class ExportCommand {
+    private Zones zones;
+    private Messages messages;
+    private final MiniMessage mm = MiniMessage.miniMessage();
+
+    public ExportCommand(ZonesBukkit plugin) {
+        this.zones = plugin.getZones();
+        this.messages = plugin.getMessages();
+    }
+
+    public CommandAPICommand export = new CommandAPICommand("export")
+            .withPermission("zones.export")
+            .withArguments(
+                    new StringArgument("file")
+                            .replaceSuggestions(ArgumentSuggestions.strings("regions.ndjson", "regions.ndjson.gz")))
+            .executes((sender, args) -> {
+                String name = args.getRaw("file");
+                File file = RegionArchive.resolve(zones, name);
+                if (file == null) {
+                    sender.sendMessage(mm.deserialize(messages.get("commands.export.invalid-file"),
+                            unparsed("file", name)));
+                    return;
+                }
+                if (RegionArchive.isRunning()) {
+                    sender.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+                    return;
+                }
+                sender.sendMessage(mm.deserialize(messages.get("commands.export.started"), unparsed("file", name)));
+
+                // Make sure the current datasource contains all changes before streaming from it
+                DataSourceManager dataSourceManager = zones.getRegionManager().getDataSourceManager();
+                dataSourceManager.flush(zones.getRegionManager().regions().values().stream().toList())
+                        .thenRun(() -> export(sender, dataSourceManager, file));
+            });
+
+    private void export(CommandSender sender, DataSourceManager dataSourceManager, File file) {
+        CompletableFuture<RegionArchive.ExportResult> future = new RegionArchive(zones, dataSourceManager).export(
+                file, progress -> sender.sendMessage(mm.deserialize(messages.get("commands.import.progress"),
+                        parsed("count", String.valueOf(progress.processed())),
+                        parsed("rate", String.valueOf(Math.round(progress.regionsPerSecond()))))));
+        if (future == null) {
+            sender.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+            return;
+        }
+        future.thenAccept(result -> {
+            if (!result.success()) {
+                sender.sendMessage(mm.deserialize(messages.get("commands.export.failed")));
+                return;
+            }
+            sender.sendMessage(mm.deserialize(messages.get("commands.export.success"),
+                    parsed("count", String.valueOf(result.exported())),
+                    unparsed("file", file.getName()),
+                    parsed("seconds", String.valueOf(result.millis() / 1000))));
+        });
+    }
+}
@@ -16,14 +16,7 @@ public class FindCommand {
             .executes((sender, args) -> {
                 if (sender instanceof org.bukkit.entity.Player nativePlayer) {
                     Player player = plugin.getPlatform().getPlayer(nativePlayer.getUniqueId());
-                    if (plugin.getZones().getFindBossbar().players.containsKey(player)) {
-                        plugin.getPlatform().getAudience(player)
-                                .hideBossBar(plugin.getZones().getFindBossbar().players.get(player));
-                        plugin.getZones().getFindBossbar().players.remove(player);
-                    } else {
-                        plugin.getZones().getFindBossbar().players.put(player,
-                                null); // null to let the bossbar handler do the creation
-                    }
+                    plugin.getZones().getFindBossbar().toggle(player);
                 } else {
                     sender.sendMessage(plugin.getMessages().getCmp("commands.only-player"));
                 }
@@ -1,19 +1,24 @@
 package de.t14d3.zones.bukkit.commands;
 
 import de.t14d3.zones.bukkit.ZonesBukkit;
+import de.t14d3.zones.datasource.RegionArchive;
 import de.t14d3.zones.integrations.WorldGuardImporter;
 import de.t14d3.zones.utils.Messages;
 import dev.jorel.commandapi.BukkitTooltip;
 import dev.jorel.commandapi.CommandAPICommand;
 import dev.jorel.commandapi.StringTooltip;
 import dev.jorel.commandapi.arguments.ArgumentSuggestions;
+import dev.jorel.commandapi.arguments.BooleanArgument;
 import dev.jorel.commandapi.arguments.StringArgument;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.CommandSender;
 
+import java.io.File;
 import java.util.concurrent.CompletableFuture;
 
 import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.unparsed;
 
 public class ImportCommand {
     private ZonesBukkit plugin;
@@ -32,13 +37,19 @@ public class ImportCommand {
                             .setOptional(false)
                             .replaceSuggestions(ArgumentSuggestions.stringsWithTooltipsAsync(info -> {
                                 return CompletableFuture.supplyAsync(() -> {
-                                    StringTooltip[] suggestions = new StringTooltip[1];
+                                    StringTooltip[] suggestions = new StringTooltip[2];
                                     suggestions[0] = StringTooltip.ofMessage("worldguard",
                                             BukkitTooltip.messageFromAdventureComponent(
                                                     Component.text("Imports regions from WorldGuard")));
+                                    suggestions[1] = StringTooltip.ofMessage("ndjson",
+                                            BukkitTooltip.messageFromAdventureComponent(
+                                                    Component.text("Imports regions from a file created by /zone export")));
                                     return suggestions;
                                 });
                             })))
+            .withOptionalArguments(
+                    new StringArgument("file"),
+                    new BooleanArgument("dryRun"))
             .executes((sender, args) -> {
                         if (args.getRaw("source").equalsIgnoreCase("worldguard")) {
                             if (plugin.getServer().getPluginManager().getPlugin("WorldGuard") == null) {
@@ -47,9 +58,54 @@ public class ImportCommand {
                                 return;
                             }
                             WorldGuardImporter worldGuardImporter = new WorldGuardImporter(plugin);
-                            worldGuardImporter.importRegions();
-                            sender.sendMessage(mm.deserialize(messages.get("commands.import.success")));
+                            sender.sendMessage(mm.deserialize(messages.get("commands.import.started")));
+                            worldGuardImporter.importRegions().whenComplete((result, throwable) -> {
+                                if (throwable != null || !result.success()) {
+                                    sender.sendMessage(mm.deserialize(messages.get("commands.import.failed")));
+                                    return;
+                                }
+                                sender.sendMessage(mm.deserialize(messages.get("commands.import.success"),
+                                        parsed("count", String.valueOf(result.imported()))));
+                            });
+                        } else if (args.getRaw("source").equalsIgnoreCase("ndjson")) {
+                            String name = args.getRaw("file") == null ? "regions.ndjson" : args.getRaw("file");
+                            importFile(sender, name, args.get("dryRun") != null && (boolean) args.get("dryRun"));
                         }
                     }
             );
+
+    private void importFile(CommandSender sender, String name, boolean dryRun) {
+        File file = RegionArchive.resolve(plugin.getZones(), name);
+        if (file == null) {
+            sender.sendMessage(mm.deserialize(messages.get("commands.import.invalid-file"), unparsed("file", name)));
+            return;
+        }
+        if (!file.isFile()) {
+            sender.sendMessage(mm.deserialize(messages.get("commands.import.file-missing"), unparsed("file", name)));
+            return;
+        }
+        RegionArchive archive = new RegionArchive(plugin.getZones(), plugin.getRegionManager().getDataSourceManager());
+        CompletableFuture<RegionArchive.ImportResult> future = archive.importRegions(file, dryRun,
+                progress -> sender.sendMessage(mm.deserialize(messages.get("commands.import.progress"),
+                        parsed("count", String.valueOf(progress.processed())),
+                        parsed("rate", String.valueOf(Math.round(progress.regionsPerSecond()))))));
+        if (future == null) {
+            sender.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+            return;
+        }
+        sender.sendMessage(mm.deserialize(messages.get("commands.import.started")));
+        future.thenAccept(result -> {
+            result.errors().forEach(error -> sender.sendMessage(
+                    mm.deserialize(messages.get("commands.import.line-error"), unparsed("error", error))));
+            if (!result.success()) {
+                sender.sendMessage(mm.deserialize(messages.get("commands.import.failed")));
+                return;
+            }
+            sender.sendMessage(mm.deserialize(messages.get(result.dryRun()
+                            ? "commands.import.validated" : "commands.import.file-success"),
+                    parsed("count", String.valueOf(result.imported())),
+                    unparsed("file", name),
+                    parsed("invalid", String.valueOf(result.invalid()))));
+        });
+    }
 }
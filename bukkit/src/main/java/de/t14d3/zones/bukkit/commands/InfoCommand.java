@@ -12,17 +12,21 @@ import dev.jorel.commandapi.CommandAPICommand;
 import dev.jorel.commandapi.StringTooltip;
 import dev.jorel.commandapi.arguments.ArgumentSuggestions;
 import dev.jorel.commandapi.arguments.StringArgument;
+import net.kyori.adventure.text.Component;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class InfoCommand {
+    private final ZonesBukkit plugin;
     private RegionManager regionManager;
     private Messages messages;
 
     public InfoCommand(ZonesBukkit plugin) {
+        this.plugin = plugin;
         this.regionManager = plugin.getRegionManager();
         this.messages = plugin.getMessages();
     }
@@ -52,38 +56,54 @@ public class InfoCommand {
                         });
                     })))
             .executes((sender, args) -> {
-                List<Region> regions;
                 Player player = null;
                 if (sender instanceof Player temp) {
                     player = temp;
                 }
+                RegionKey key = null;
                 if (args.get("key") == null) {
-                    if (player != null) {
-                        regions = regionManager.getRegionsAt(BlockLocation.of(player.getLocation()),
-                                World.of(player.getWorld()));
-                    } else {
+                    if (player == null) {
                         sender.sendMessage(messages.getCmp("commands.invalid-region"));
                         return;
                     }
                 } else {
                     try {
-                        regions = List.of(RegionManager.getRegion(RegionKey.fromString((String) args.get("key"))));
+                        key = RegionKey.fromString((String) args.get("key"));
                     } catch (Exception e) {
                         sender.sendMessage(messages.getCmp("commands.invalid-region"));
                         return;
                     }
                 }
 
-                if (regions.isEmpty()) {
-                    sender.sendMessage(messages.getCmp("commands.invalid-region"));
-                    return;
-                }
-                for (Region region : regions) {
-                    if (sender.hasPermission("zones.info.other")) {
-                        sender.sendMessage(Messages.regionInfo(region, true));
-                    } else if (player != null && region.isMember(player.getUniqueId())) {
-                        sender.sendMessage(Messages.regionInfo(region, region.isAdmin(player.getUniqueId())));
+                // Everything depending on the sender is read here, the lookup and rendering run in the background
+                boolean perm = sender.hasPermission("zones.info.other");
+                UUID uuid = player != null ? player.getUniqueId() : null;
+                BlockLocation location = player != null ? BlockLocation.of(player.getLocation()) : null;
+                World world = player != null ? World.of(player.getWorld()) : null;
+                RegionKey regionKey = key;
+                plugin.getZones().getScheduler().executeOrRun(() -> {
+                    List<Region> regions;
+                    if (regionKey == null) {
+                        regions = regionManager.getRegionsAt(location, world);
+                    } else {
+                        Region region = regionManager.regions().get(regionKey.getValue());
+                        regions = region == null ? List.of() : List.of(region);
                     }
-                }
+
+                    List<Component> infos = new ArrayList<>();
+                    for (Region region : regions) {
+                        if (perm) {
+                            infos.add(Messages.regionInfo(region, true));
+                        } else if (uuid != null && region.isMember(uuid)) {
+                            infos.add(Messages.regionInfo(region, region.isAdmin(uuid)));
+                        }
+                    }
+                    plugin.getPlatform().runTask(sender, () -> {
+                        if (regions.isEmpty()) {
+                            sender.sendMessage(messages.getCmp("commands.invalid-region"));
+                        }
+                        infos.forEach(sender::sendMessage);
+                    });
+                });
             });
 }
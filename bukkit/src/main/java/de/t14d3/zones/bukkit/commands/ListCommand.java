@@ -13,15 +13,18 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.entity.Player;
 
 import java.util.List;
+import java.util.UUID;
 
 import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
 
 public class ListCommand {
     private final MiniMessage mm = MiniMessage.miniMessage();
+    private final ZonesBukkit plugin;
     private RegionManager regionManager;
     private Messages messages;
 
     public ListCommand(ZonesBukkit plugin) {
+        this.plugin = plugin;
         this.regionManager = plugin.getRegionManager();
         this.messages = plugin.getMessages();
     }
@@ -42,25 +45,30 @@ public class ListCommand {
                 } else {
                     player = null;
                 }
-                List<Region> regions = regionManager.regions().values().parallelStream()
-                        .filter(region -> perm || (player != null && region.isMember(player.getUniqueId()))).toList();
-                if (regions.isEmpty()) {
-                    sender.sendMessage(messages.getCmp("region.none-found"));
-                    return;
-                }
-                regions = regions.subList((page - 1) * 10, Math.min(regions.size(), page * 10));
-                Component[] msgs = new Component[regions.size()];
-                int i = 0;
-                for (Region region : regions) {
-                    msgs[i] = Component.newline()
-                            .append(mm.deserialize(messages.get("region.info.name"), parsed("name", region.getName()),
-                                            parsed("key", region.getKey().toString()))
-                                    .hoverEvent(HoverEvent.showText(Messages.regionInfo(region,
-                                            (perm || region.isAdmin(player.getUniqueId())))))
-                                    .clickEvent(ClickEvent.runCommand("/zone info " + region.getKey())));
-                    i++;
-                }
-                Component msg = Component.textOfChildren(msgs);
-                sender.sendMessage(msg);
+                UUID uuid = player != null ? player.getUniqueId() : null;
+                int skip = (page - 1) * 10;
+                // Filtering and rendering the hover texts is done off the main thread
+                plugin.getZones().getScheduler().executeOrRun(() -> {
+                    List<Region> regions = regionManager.findRegions(
+                            region -> perm || (uuid != null && region.isMember(uuid)), skip, 10);
+                    if (regions.isEmpty()) {
+                        plugin.getPlatform().runTask(sender,
+                                () -> sender.sendMessage(messages.getCmp("region.none-found")));
+                        return;
+                    }
+                    Component[] msgs = new Component[regions.size()];
+                    int i = 0;
+                    for (Region region : regions) {
+                        msgs[i] = Component.newline()
+                                .append(mm.deserialize(messages.get("region.info.name"), parsed("name", region.getName()),
+                                                parsed("key", region.getKey().toString()))
+                                        .hoverEvent(HoverEvent.showText(Messages.regionInfo(region,
+                                                (perm || region.isAdmin(uuid)))))
+                                        .clickEvent(ClickEvent.runCommand("/zone info " + region.getKey())));
+                        i++;
+                    }
+                    Component msg = Component.textOfChildren(msgs);
+                    plugin.getPlatform().runTask(sender, () -> sender.sendMessage(msg));
+                });
             });
 }
@@ -1,17 +1,15 @@
 package de.t14d3.zones.bukkit.commands;
 
-import de.t14d3.zones.Region;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.bukkit.ZonesBukkit;
-import de.t14d3.zones.datasource.AbstractDataSource;
 import de.t14d3.zones.datasource.DataSourceManager;
-import de.t14d3.zones.datasource.SQLDataSource;
-import de.t14d3.zones.datasource.YamlDataSource;
+import de.t14d3.zones.datasource.RegionMigration;
 import dev.jorel.commandapi.CommandAPICommand;
 import dev.jorel.commandapi.arguments.ArgumentSuggestions;
 import dev.jorel.commandapi.arguments.StringArgument;
+import org.bukkit.command.CommandSender;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 public class MigrateCommand {
@@ -34,26 +32,44 @@ public class MigrateCommand {
                 DataSourceManager.DataSourceTypes targetType = DataSourceManager.DataSourceTypes.valueOf(
                         args.getRaw("targetType").toUpperCase());
                 DataSourceManager dataSourceManager = zones.getRegionManager().getDataSourceManager();
-
-                // Load current regions from the existing datasource
-                List<Region> regions = dataSourceManager.loadRegions();
-
-                // Initialize target datasource
-                AbstractDataSource targetDataSource;
-                switch (targetType) {
-                    case YAML:
-                        targetDataSource = new YamlDataSource(plugin.getDataFolder(), zones);
-                        break;
-                    case SQLITE, MYSQL, H2, POSTGRESQL, CUSTOM:
-                        targetDataSource = new SQLDataSource(zones, targetType);
-                        break;
-                    default:
-                        sender.sendMessage("Invalid target datasource type.");
-                        return;
+                if (targetType == dataSourceManager.getType()) {
+                    sender.sendMessage("Regions are already stored in " + targetType + ".");
+                    return;
+                }
+                if (RegionMigration.isRunning()) {
+                    sender.sendMessage("A migration is already running.");
+                    return;
                 }
-                // Save regions to the new datasource
-                targetDataSource.saveRegions(regions);
+                sender.sendMessage("Starting migration to " + targetType + "...");
 
-                sender.sendMessage("Migration to " + targetType + " completed successfully.");
+                // Make sure the current datasource contains all changes before streaming from it
+                dataSourceManager.flush(zones.getRegionManager().regions().values().stream().toList())
+                        .thenRun(() -> migrate(sender, dataSourceManager, targetType));
             });
+
+    private void migrate(CommandSender sender, DataSourceManager dataSourceManager,
+                         DataSourceManager.DataSourceTypes targetType) {
+        RegionMigration migration = new RegionMigration(zones, dataSourceManager.getDataSource(),
+                dataSourceManager.getType(), DataSourceManager.createDataSource(zones, targetType), targetType);
+        CompletableFuture<RegionMigration.Result> future = migration.start(progress -> sender.sendMessage(
+                String.format("Migrated %d/%d regions (%.0f regions/s)",
+                        progress.migrated(), progress.total(), progress.regionsPerSecond())));
+        if (future == null) {
+            sender.sendMessage("A migration is already running.");
+            return;
+        }
+        future.thenAccept(result -> {
+            if (!result.success()) {
+                sender.sendMessage("Migration to " + targetType + " failed after " + result.migrated()
+                        + " regions, run the command again to resume.");
+            } else if (result.verified()) {
+                sender.sendMessage("Migration to " + targetType + " completed successfully. Migrated "
+                        + result.migrated() + " regions in " + result.millis() / 1000 + "s.");
+            } else {
+                sender.sendMessage("Migration to " + targetType + " completed, but verification failed: "
+                        + result.sourceCount() + " source and " + result.targetCount()
+                        + " target regions, checksums " + (result.checksumMatches() ? "match." : "differ."));
+            }
+        });
+    }
 }
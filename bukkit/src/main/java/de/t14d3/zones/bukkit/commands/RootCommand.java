@@ -23,6 +23,7 @@ public class RootCommand {
                 .withSubcommand(new SaveCommand(plugin).save)
                 .withSubcommand(new LoadCommand(plugin).load)
                 .withSubcommand(new ImportCommand(plugin).importcmd)
+                .withSubcommand(new ExportCommand(plugin).export)
                 .withSubcommand(new ModeCommand(plugin).mode)
                 .withSubcommand(new MigrateCommand(plugin).migrate)
                 .withSubcommand(new FindCommand(plugin).find)
@@ -0,0 +1,33 @@
+package de.t14d3.zones.bukkit.events;
+
+import de.t14d3.zones.Region;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Called after a player left a region, on the thread owning the player.
+ */
+public class RegionLeaveEvent extends PlayerEvent {
+    private static final HandlerList HANDLERS = new HandlerList();
+    private final Region region;
+
+    public RegionLeaveEvent(@NotNull Player player, @NotNull Region region) {
+        super(player);
+        this.region = region;
+    }
+
+    public @NotNull Region getRegion() {
+        return region;
+    }
+
+    @Override
+    public @NotNull HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static @NotNull HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
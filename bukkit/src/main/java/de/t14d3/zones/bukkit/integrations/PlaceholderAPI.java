@@ -1,20 +1,40 @@
 package de.t14d3.zones.integrations;
 
 import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.bukkit.ZonesBukkit;
-import de.t14d3.zones.objects.BlockLocation;
-import de.t14d3.zones.objects.World;
+import de.t14d3.zones.objects.PlayerRepository;
 import de.t14d3.zones.permissions.flags.Flags;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Region placeholders of the region a player is in.
+ * <p>
+ * Placeholders are requested many times per second by scoreboard and tab plugins, so the regions are taken
+ * from the {@link de.t14d3.zones.RegionTracker} snapshot of the player, and the values of a region
+ * are only formatted again once it changed.
+ */
 public class PlaceholderAPI extends PlaceholderExpansion {
+    private static final int MAX_VALUES = 4096;
+
     private final ZonesBukkit plugin;
+    private final Map<RegionKey, Values> values = new ConcurrentHashMap<>();
+
+    private record Values(Region region, int version, String name, String key, String members, String owner,
+                          String min, String minX, String minY, String minZ,
+                          String max, String maxX, String maxY, String maxZ,
+                          String priority, String parent) {
+    }
 
     public PlaceholderAPI(ZonesBukkit plugin) {
         this.plugin = plugin;
@@ -67,150 +87,119 @@ public class PlaceholderAPI extends PlaceholderExpansion {
 
     @Override
     public String onPlaceholderRequest(Player player, @NotNull String params) {
-        List<Region> regions = plugin.getRegionManager()
-                .getRegionsAt(BlockLocation.of(player.getLocation()), World.of(player.getWorld()));
-        if (params.equalsIgnoreCase("get_name")) {
-            String name = "";
-            if (!regions.isEmpty()) {
-                name = regions.get(0).getName();
-            }
-            return name;
-        }
-        if (params.equalsIgnoreCase("get_key")) {
-            String key = "";
-            if (!regions.isEmpty()) {
-                key = regions.get(0).getKey().toString();
-            }
-            return key;
-        }
-        if (params.equalsIgnoreCase("get_members")) {
-            final String[] members = {""};
-            regions.get(0).getMembers().keySet().forEach(val -> {
-                String member;
-                try {
-                    UUID uuid = UUID.fromString(val);
-                    member = Bukkit.getOfflinePlayer(uuid).getName() != null ? Bukkit.getOfflinePlayer(uuid)
-                            .getName() : String.valueOf(uuid);
-                } catch (IllegalArgumentException ignored) {
-                    member = val;
-                }
-
-                if (members[0].isEmpty()) {
-                    members[0] = member;
-                } else {
-                    members[0] = members[0] + ", " + member;
+        List<Region> regions = PlayerRepository.get(player.getUniqueId()).getRegions();
+        Values region = regions.isEmpty() ? null : values(regions.get(0));
+        switch (params.toLowerCase(Locale.ROOT)) {
+            case "get_name":
+                return region != null ? region.name() : "";
+            case "get_key":
+                return region != null ? region.key() : "";
+            case "get_members":
+                return region != null ? region.members() : "";
+            case "get_owner":
+                return region != null ? region.owner() : "";
+            case "get_min":
+                return region != null ? region.min() : "";
+            case "get_min_x":
+                return region != null ? region.minX() : "";
+            case "get_min_y":
+                return region != null ? region.minY() : "0";
+            case "get_min_z":
+                return region != null ? region.minZ() : "";
+            case "get_max":
+                return region != null ? region.max() : "";
+            case "get_max_x":
+                return region != null ? region.maxX() : "";
+            case "get_max_y":
+                return region != null ? region.maxY() : "";
+            case "get_max_z":
+                return region != null ? region.maxZ() : "";
+            case "get_priority":
+                return region != null ? region.priority() : "0";
+            case "get_parent":
+                return region != null ? region.parent() : "";
+            case "is_member":
+                return region != null && region.region().isMember(player.getUniqueId()) ? "true" : "false";
+            case "can_place_hand":
+                if (region != null) {
+                    return plugin.getPermissionManager()
+                            .checkAction(player.getLocation(), player.getUniqueId(), Flags.PLACE,
+                                    player.getInventory().getItemInMainHand().getType().name()) ? "true" : "false";
                 }
-            });
-            return members[0];
-        }
-        if (params.equalsIgnoreCase("get_owner")) {
-            String owner = "";
-            if (!regions.isEmpty()) {
-                if (regions.get(0).getOwner() != null) {
-                    owner = Bukkit.getOfflinePlayer(regions.get(0).getOwner()).getName() != null
-                            ? Bukkit.getOfflinePlayer(regions.get(0).getOwner()).getName() : "";
+                return "false";
+            case "can_break_target":
+                if (region != null) {
+                    Block target = player.getTargetBlockExact(5);
+                    return plugin.getPermissionManager().checkAction(
+                            player.getLocation(),
+                            player.getUniqueId(),
+                            Flags.BREAK,
+                            target != null ? target.getType().name() : "")
+                            ? "true" : "false";
                 }
-            }
-            return owner;
-        }
-        if (params.equalsIgnoreCase("get_min")) {
-            if (!regions.isEmpty()) {
-                return regions.get(0).getMinString();
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_min_x")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getMin().getX());
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_min_y")) {
-            int minY = 0;
-            if (!regions.isEmpty()) {
-                minY = regions.get(0).getMin().getY();
-            }
-            return String.valueOf(minY);
-        }
-        if (params.equalsIgnoreCase("get_min_z")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getMin().getZ());
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_max")) {
-            if (!regions.isEmpty()) {
-                return regions.get(0).getMaxString();
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_max_x")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getMax().getX());
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_max_y")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getMax().getY());
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("get_max_z")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getMax().getZ());
-            }
-            return "";
-        }
-        if (params.equalsIgnoreCase("is_member")) {
-            if (!regions.isEmpty()) {
-                return regions.get(0).isMember(player.getUniqueId()) ? "true" : "false";
-            }
-            return "false";
-        }
-        if (params.equalsIgnoreCase("can_place_hand")) {
-            if (!regions.isEmpty()) {
-                return plugin.getPermissionManager()
-                        .checkAction(player.getLocation(), player.getUniqueId(), Flags.PLACE,
-                                player.getInventory().getItemInMainHand().getType().name()) ? "true" : "false";
-            }
-            return "false";
-        }
-        if (params.equalsIgnoreCase("can_break_target")) {
-            if (!regions.isEmpty()) {
-                return plugin.getPermissionManager().checkAction(
-                        player.getLocation(),
-                        player.getUniqueId(),
-                        Flags.BREAK,
-                        player.getTargetBlockExact(5) != null
-                                ? player.getTargetBlockExact(5).getType().name() : "")
-                        ? "true" : "false";
-            }
-            return "false";
+                return "false";
         }
         if (params.startsWith("can_")) {
             String action = params.split("_")[1].toUpperCase();
             // There's definitely a better way to do this, but it works and I'm too lazy to find a better one
             String type = params.substring(params.indexOf('_', params.indexOf('_') + 1) + 1);
-            if (!regions.isEmpty()) {
+            if (region != null) {
                 return plugin.getPermissionManager()
                         .checkAction(player.getLocation(), player.getUniqueId(), Flags.getFlag(action),
                                 type) ? "true" : "false";
             }
             return "false";
         }
-        if (params.equalsIgnoreCase("get_priority")) {
-            if (!regions.isEmpty()) {
-                return String.valueOf(regions.get(0).getPriority());
-            }
-            return "0";
-        }
-        if (params.equalsIgnoreCase("get_parent")) {
-            if (!regions.isEmpty()) {
-                return regions.get(0).getParent().toString();
-            }
-            return "";
-        }
         return null;
     }
+
+    /**
+     * Gets the formatted values of a region, formatting them again if the region changed since.
+     */
+    private Values values(Region region) {
+        Values cached = values.get(region.getKey());
+        if (cached != null && cached.region() == region && cached.version() == region.getVersion()) {
+            return cached;
+        }
+        if (values.size() >= MAX_VALUES) {
+            values.clear();
+        }
+        int version = region.getVersion();
+        StringBuilder members = new StringBuilder();
+        region.getMembers().keySet().forEach(val -> {
+            if (!members.isEmpty()) {
+                members.append(", ");
+            }
+            members.append(playerName(val));
+        });
+        String owner = "";
+        if (region.getOwner() != null) {
+            String name = Bukkit.getOfflinePlayer(region.getOwner()).getName();
+            owner = name != null ? name : "";
+        }
+        Values formatted = new Values(region, version, region.getName(), region.getKey().toString(),
+                members.toString(), owner,
+                region.getMinString(),
+                String.valueOf(region.getMin().getX()),
+                String.valueOf(region.getMin().getY()),
+                String.valueOf(region.getMin().getZ()),
+                region.getMaxString(),
+                String.valueOf(region.getMax().getX()),
+                String.valueOf(region.getMax().getY()),
+                String.valueOf(region.getMax().getZ()),
+                String.valueOf(region.getPriority()),
+                region.getParent() != null ? region.getParent().toString() : "");
+        values.put(region.getKey(), formatted);
+        return formatted;
+    }
+
+    private static String playerName(String member) {
+        try {
+            UUID uuid = UUID.fromString(member);
+            String name = Bukkit.getOfflinePlayer(uuid).getName();
+            return name != null ? name : String.valueOf(uuid);
+        } catch (IllegalArgumentException ignored) {
+            return member;
+        }
+    }
 }
@@ -1,7 +1,10 @@
 package de.t14d3.zones.integrations;
 
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector2;
 import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedPolygonalRegion;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import com.sk89q.worldguard.protection.regions.RegionContainer;
 import com.sk89q.worldguard.protection.regions.RegionType;
@@ -9,13 +12,13 @@ import de.t14d3.zones.Region;
 import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.bukkit.ZonesBukkit;
 import de.t14d3.zones.objects.BlockLocation;
+import de.t14d3.zones.objects.PolygonShape;
 import de.t14d3.zones.objects.RegionFlagEntry;
+import de.t14d3.zones.objects.RegionShape;
 import org.bukkit.World;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class WorldGuardImporter {
 
@@ -25,53 +28,70 @@ public class WorldGuardImporter {
         this.plugin = plugin;
     }
 
-    public void importRegions() {
-        final int[] count = {0};
-        new Thread(() -> {
-            RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-
-            for (World world : plugin.getServer().getWorlds()) {
-                for (Map.Entry<String, ProtectedRegion> entry : container.get(BukkitAdapter.adapt(world)).getRegions()
-                        .entrySet()) {
-                    ProtectedRegion region = entry.getValue();
-                    if (!region.getType().equals(RegionType.CUBOID)) {
-                        continue;
-                    }
-                    RegionKey key = RegionKey.generate();
-                    String name = entry.getKey();
-                    BlockLocation min = BlockLocation.of(BukkitAdapter.adapt(world, region.getMinimumPoint()));
-                    BlockLocation max = BlockLocation.of(BukkitAdapter.adapt(world, region.getMaximumPoint()));
+    private record Source(World world, String name, ProtectedRegion region) {
+    }
 
-                    Map<String, List<RegionFlagEntry>> members = new HashMap<>();
-                    region.getMembers().getUniqueIds().forEach(uuid -> {
-                        members.put(uuid.toString(), List.of(new RegionFlagEntry("group", "member", false)));
-                    });
+    /**
+     * Imports all cuboid and polygonal regions of all loaded worlds from WorldGuard.
+     * Regions are collected on the calling (main) thread and converted and saved in bulk in the background.
+     *
+     * @return A future completing on the main thread once the regions are imported.
+     */
+    public CompletableFuture<de.t14d3.zones.RegionManager.ImportResult> importRegions() {
+        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
+        Map<de.t14d3.zones.objects.World, List<Source>> sources = new LinkedHashMap<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            RegionManager manager = container.get(BukkitAdapter.adapt(world));
+            if (manager == null) {
+                continue;
+            }
+            List<Source> worldSources = new ArrayList<>();
+            manager.getRegions().forEach((name, region) -> {
+                if (region.getType().equals(RegionType.CUBOID) || region.getType().equals(RegionType.POLYGON)) {
+                    worldSources.add(new Source(world, name, region));
+                }
+            });
+            sources.put(de.t14d3.zones.objects.World.of(world), worldSources);
+        }
 
-                    region.getOwners().getUniqueIds().forEach(uuid -> {
-                        members.put(uuid.toString(), List.of(new RegionFlagEntry("role", "owner", false)));
-                    });
+        return plugin.getRegionManager().importRegions(sources, this::convert).thenApply(result -> {
+            plugin.getLogger().info("Imported " + result.imported() + " regions from WorldGuard in "
+                    + result.millis() + "ms.");
+            return result;
+        });
+    }
 
-                    List<RegionFlagEntry> memberPermissions = new ArrayList<>();
-                    memberPermissions.add(new RegionFlagEntry("break", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("place", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("container", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("redstone", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("interact", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("entity", "true", false));
-                    memberPermissions.add(new RegionFlagEntry("damage", "true", false));
-                    members.put("+group-members", memberPermissions);
+    private Region convert(Source source, RegionKey key) {
+        ProtectedRegion region = source.region();
+        BlockLocation min = BlockLocation.of(BukkitAdapter.adapt(source.world(), region.getMinimumPoint()));
+        BlockLocation max = BlockLocation.of(BukkitAdapter.adapt(source.world(), region.getMaximumPoint()));
+        RegionShape shape = null;
+        if (region instanceof ProtectedPolygonalRegion polygon) {
+            List<BlockVector2> points = polygon.getPoints();
+            shape = new PolygonShape(points.stream().mapToInt(BlockVector2::x).toArray(),
+                    points.stream().mapToInt(BlockVector2::z).toArray());
+        }
 
+        Map<String, List<RegionFlagEntry>> members = new HashMap<>();
+        region.getMembers().getUniqueIds().forEach(uuid -> {
+            members.put(uuid.toString(), new ArrayList<>(List.of(new RegionFlagEntry("group", "member", false))));
+        });
 
-                    Region newRegion = plugin.getRegionManager()
-                            .createNewRegion(key, name, min, max, de.t14d3.zones.objects.World.of(world), members,
-                                    region.getPriority());
-                    count[0]++;
-                }
+        region.getOwners().getUniqueIds().forEach(uuid -> {
+            members.put(uuid.toString(), new ArrayList<>(List.of(new RegionFlagEntry("role", "owner", false))));
+        });
 
-            }
+        List<RegionFlagEntry> memberPermissions = new ArrayList<>();
+        memberPermissions.add(new RegionFlagEntry("break", "true", false));
+        memberPermissions.add(new RegionFlagEntry("place", "true", false));
+        memberPermissions.add(new RegionFlagEntry("container", "true", false));
+        memberPermissions.add(new RegionFlagEntry("redstone", "true", false));
+        memberPermissions.add(new RegionFlagEntry("interact", "true", false));
+        memberPermissions.add(new RegionFlagEntry("entity", "true", false));
+        memberPermissions.add(new RegionFlagEntry("damage", "true", false));
+        members.put("+group-members", memberPermissions);
 
-            plugin.getLogger().info("Imported " + count[0] + " regions from WorldGuard.");
-            plugin.getRegionManager().triggerSave();
-        }).start();
+        return new Region(source.name(), min, max, de.t14d3.zones.objects.World.of(source.world()), members, key,
+                null, region.getPriority(), shape);
     }
 }
@@ -70,8 +70,8 @@ public class BlockEventListener implements Listener {
             case WATER, LAVA -> Flags.SPREAD;
             default -> Flags.RELOCATE;
         };
-        if (!permissionManager.checkAction(event.getBlock().getLocation(), flag, event.getBlock().getType().name(),
-                event.getToBlock().getType().name())) {
+        if (!permissionManager.checkFlow(event.getBlock().getLocation(), event.getToBlock().getLocation(), flag,
+                event.getBlock().getType().name(), event.getToBlock().getType().name())) {
             event.setCancelled(true);
         }
     }
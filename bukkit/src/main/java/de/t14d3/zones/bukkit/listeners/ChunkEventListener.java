@@ -1,14 +1,32 @@
 package de.t14d3.zones.bukkit.listeners;
 
+import de.t14d3.zones.Zones;
+import de.t14d3.zones.objects.World;
 import de.t14d3.zones.permissions.CacheUtils;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
 
 public class ChunkEventListener implements Listener {
+    private final Zones plugin;
+
+    public ChunkEventListener(Zones plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        plugin.getRegionManager().onChunkLoad(World.of(event.getWorld()), event.getChunk().getX(),
+                event.getChunk().getZ());
+    }
+
     @EventHandler
     public void onChunkUnload(ChunkUnloadEvent event) {
         CacheUtils.getInstance().invalidateInteractionCacheForChunk(event.getChunk().getX(), event.getChunk().getZ(),
                         event.getWorld().getName());
+        plugin.getRegionManager().onChunkUnload(World.of(event.getWorld()), event.getChunk().getX(),
+                event.getChunk().getZ());
     }
 }
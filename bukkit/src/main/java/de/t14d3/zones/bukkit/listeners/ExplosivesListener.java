@@ -7,26 +7,98 @@ import de.t14d3.zones.objects.BlockLocation;
 import de.t14d3.zones.objects.World;
 import de.t14d3.zones.permissions.flags.Flags;
 import de.t14d3.zones.utils.DebugLoggerManager;
-import org.bukkit.Bukkit;
+import org.bukkit.ExplosionResult;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.entity.TNTPrimed;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.TNTPrimeEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Checks explosions and TNT ignition.
+ * <p>
+ * Every area of 16x16 chunks has its own budget of explosion checks, a token bucket refilled by
+ * {@code events.explosion.limit} tokens per tick, so a TNT cannon only exhausts the budget of its own area.
+ * Once the budget is used up, the block damage of further explosions is deferred by default:
+ * the explosion happens without breaking blocks, and the blocks are checked and broken over the next ticks.
+ * Every deferred explosion calls a {@link BlockExplodeEvent} of its own before breaking its blocks,
+ * so other plugins can still cancel the damage or log it.
+ */
 public class ExplosivesListener {
+    private static final long TICK_NANOS = 50_000_000L;
+    private static final int AREA_SHIFT = 8;
+    private static final int MAX_AREAS = 1024;
+
     private final ZonesBukkit plugin;
     private final BukkitPermissionManager permissionManager;
 
     private final int limit;
-    private final boolean limitExceededCancel;
-    private final AtomicInteger explosionCount = new AtomicInteger(0);
+    private final int burst;
+    private final LimitAction limitAction;
+    private final int queueSize;
+    private final Map<Area, TokenBucket> budgets = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    // Counts of the last debug log, only used on the global region thread
+    private long loggedDeferred;
+    private long loggedCancelled;
     private final DebugLoggerManager logger;
+    private ExplosionFilter filter;
+
+    private enum LimitAction {
+        DEFER,
+        CANCEL,
+        IGNORE
+    }
+
+    /**
+     * Removes the blocks protected from an explosion.
+     */
+    @FunctionalInterface
+    private interface ExplosionFilter {
+        /**
+         * @param origin The location the explosion originated from
+         * @param type   The type of the exploding block or entity
+         * @param blocks The blocks affected by the explosion, protected blocks are removed
+         * @return {@code false} if the whole explosion has to be cancelled
+         */
+        boolean filter(Location origin, String type, List<Block> blocks);
+    }
+
+    private record Area(UUID world, int x, int z) {
+    }
+
+    private record DeferredBlock(Block block, Material type) {
+    }
+
+    private record DeferredExplosion(Location origin, String type, List<DeferredBlock> blocks, float yield,
+                                     ExplosionResult result) {
+    }
+
+    /**
+     * Called for the block damage of a deferred explosion, which is not checked again.
+     */
+    private static final class DeferredExplodeEvent extends BlockExplodeEvent {
+        DeferredExplodeEvent(Block block, List<Block> blocks, float yield, ExplosionResult result) {
+            super(block, block.getState(), blocks, yield, result);
+        }
+    }
 
     public ExplosivesListener(ZonesBukkit plugin) {
         this.plugin = plugin;
@@ -34,12 +106,18 @@ public class ExplosivesListener {
         this.logger = plugin.getDebugLogger();
 
         String explosionMode = plugin.getConfig().getString("events.explosion.explosion-mode", "ALL").toUpperCase();
-        limit = plugin.getConfig().getInt("events.explosion.limit", 50);
-        limitExceededCancel = plugin.getConfig().getString("events.explosion.limit-exceeded-action", "CANCEL")
-                .equalsIgnoreCase("CANCEL");
-
-        // Reset explosion counter every tick
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> explosionCount.set(0), 1L, 1L);
+        limit = Math.max(1, plugin.getConfig().getInt("events.explosion.limit", 50));
+        burst = Math.max(1, plugin.getConfig().getInt("events.explosion.burst", limit));
+        queueSize = plugin.getConfig().getInt("events.explosion.queue-size", 500);
+        LimitAction action;
+        try {
+            action = LimitAction.valueOf(plugin.getConfig()
+                    .getString("events.explosion.limit-exceeded-action", "DEFER").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid limit-exceeded-action, using DEFER");
+            action = LimitAction.DEFER;
+        }
+        limitAction = action;
 
         switch (plugin.getConfig().getString("events.explosion.mode", "ALL").toUpperCase()) {
             case "ALL":
@@ -55,166 +133,241 @@ public class ExplosivesListener {
             case "NONE":
                 break;
         }
+        if (plugin.debug) {
+            plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task -> logStatistics(), 100L, 100L);
+        }
+    }
+
+    /**
+     * @return The number of explosions waiting for their block damage to be checked.
+     */
+    public int getQueuedExplosions() {
+        return queued.get();
+    }
+
+    /**
+     * @return The number of explosions deferred since startup.
+     */
+    public long getDeferredExplosions() {
+        return deferred.sum();
+    }
+
+    /**
+     * @return The number of explosions cancelled because the budget of their area was exhausted.
+     */
+    public long getCancelledExplosions() {
+        return cancelled.sum();
+    }
+
+    /**
+     * @return The number of explosions the area of the location can currently check.
+     */
+    public int getBudget(Location location) {
+        TokenBucket bucket = budgets.get(area(location));
+        return bucket == null ? burst : bucket.available(System.nanoTime(), limit, burst);
+    }
+
+    /**
+     * Logs the explosion statistics to the debug log, if explosions were deferred or cancelled since the last time.
+     */
+    private void logStatistics() {
+        long deferred = getDeferredExplosions();
+        long cancelled = getCancelledExplosions();
+        if (deferred == loggedDeferred && cancelled == loggedCancelled) {
+            return;
+        }
+        logger.log("Explosions deferred:", deferred - loggedDeferred, "cancelled:", cancelled - loggedCancelled,
+                "queued:", getQueuedExplosions(), "budgets of areas:", budgets.size());
+        loggedDeferred = deferred;
+        loggedCancelled = cancelled;
+    }
+
+    private Area area(Location location) {
+        return new Area(location.getWorld().getUID(), location.getBlockX() >> AREA_SHIFT,
+                location.getBlockZ() >> AREA_SHIFT);
     }
 
-    private boolean limitExceeded() {
-        return explosionCount.incrementAndGet() > limit;
+    /**
+     * Takes a token from the budget of the area of the location.
+     */
+    private boolean tryAcquire(Location location) {
+        long now = System.nanoTime();
+        if (budgets.size() > MAX_AREAS) {
+            budgets.values().removeIf(bucket -> bucket.isFull(now, limit, burst));
+        }
+        return budgets.computeIfAbsent(area(location), k -> new TokenBucket(burst, now)).tryAcquire(now, limit, burst);
+    }
+
+    private void handle(Cancellable event, Location origin, String type, List<Block> blocks, float yield,
+                        ExplosionResult result) {
+        if (tryAcquire(origin)) {
+            if (!filter.filter(origin, type, blocks)) {
+                event.setCancelled(true);
+            }
+            return;
+        }
+        switch (limitAction) {
+            case IGNORE -> {
+            }
+            case DEFER -> {
+                if (queued.get() < queueSize) {
+                    defer(origin, type, blocks, yield, result);
+                } else {
+                    cancelled.increment();
+                    event.setCancelled(true);
+                }
+            }
+            default -> {
+                cancelled.increment();
+                event.setCancelled(true);
+            }
+        }
+    }
+
+    private void defer(Location origin, String type, List<Block> blocks, float yield, ExplosionResult result) {
+        List<DeferredBlock> deferredBlocks = new ArrayList<>(blocks.size());
+        for (Block block : blocks) {
+            deferredBlocks.add(new DeferredBlock(block, block.getType()));
+        }
+        // The explosion still happens, it only does not break any blocks for now
+        blocks.clear();
+        DeferredExplosion explosion = new DeferredExplosion(origin, type, deferredBlocks, yield, result);
+        // Deferred explosions are processed at the rate of the limit, spread over the next ticks
+        long delay = 1 + queued.getAndIncrement() / limit;
+        deferred.increment();
+        logger.log("Explosion budget exhausted, deferring explosion at", origin, "by", delay, "ticks, queued:",
+                queued.get());
+        plugin.getServer().getRegionScheduler().runDelayed(plugin, origin, task -> process(explosion), delay);
+    }
+
+    private void process(DeferredExplosion explosion) {
+        queued.decrementAndGet();
+        List<Block> blocks = new ArrayList<>(explosion.blocks().size());
+        for (DeferredBlock deferredBlock : explosion.blocks()) {
+            // Blocks changed in the meantime are left alone
+            if (deferredBlock.block().getType() == deferredBlock.type()) {
+                blocks.add(deferredBlock.block());
+            }
+        }
+        if (blocks.isEmpty() || !filter.filter(explosion.origin(), explosion.type(), blocks)) {
+            return;
+        }
+        BlockExplodeEvent event = new DeferredExplodeEvent(explosion.origin().getBlock(), blocks, explosion.yield(),
+                explosion.result());
+        plugin.getServer().getPluginManager().callEvent(event);
+        if (event.isCancelled() || event.getExplosionResult() == ExplosionResult.KEEP
+                || event.getExplosionResult() == ExplosionResult.TRIGGER_BLOCK) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Block block : event.blockList()) {
+            if (block.getType() == Material.TNT) {
+                block.setType(Material.AIR);
+                block.getWorld().spawn(block.getLocation().add(0.5, 0, 0.5), TNTPrimed.class,
+                        tnt -> tnt.setFuseTicks(10 + random.nextInt(20)));
+            } else if (random.nextFloat() < event.getYield()) {
+                block.breakNaturally();
+            } else {
+                block.setType(Material.AIR);
+            }
+        }
     }
 
     private void registerExplosionListener(String explosionMode) {
         switch (explosionMode.toUpperCase()) {
             case "ANY":
-                class ExplosionListenerAny implements Listener {
-                    @EventHandler
-                    public void onBlockExplode(BlockExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        for (Block block : event.blockList()) {
-                            if (!permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
-                                    block.getType().name(), event.getExplodedBlockState().getType())) {
-                                event.setCancelled(true);
-                                break;
-                            }
+                filter = (origin, type, blocks) -> {
+                    for (Block block : blocks) {
+                        if (!permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
+                                block.getType().name(), type)) {
+                            return false;
                         }
                     }
-
-                    @EventHandler
-                    public void onEntityExplode(EntityExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        for (Block block : event.blockList()) {
-                            if (!permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
-                                    block.getType().name(), event.getEntityType())) {
-                                event.setCancelled(true);
-                                break;
-                            }
-                        }
-                    }
-                }
-                plugin.getServer().getPluginManager().registerEvents(new ExplosionListenerAny(), plugin);
+                    return true;
+                };
                 break;
             case "ALL":
-                class ExplosionListenerAll implements Listener {
-                    @EventHandler
-                    public void onBlockExplode(BlockExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        event.blockList().removeIf(
-                                block -> !permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
-                                        block.getType().name(), event.getExplodedBlockState().getType()));
-                    }
-
-                    @EventHandler
-                    public void onEntityExplode(EntityExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        event.blockList().removeIf(
-                                block -> !permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
-                                        block.getType().name(), event.getEntityType().name()));
-                    }
-                }
-                plugin.getServer().getPluginManager().registerEvents(new ExplosionListenerAll(), plugin);
-                return;
+                filter = (origin, type, blocks) -> {
+                    blocks.removeIf(block -> !permissionManager.checkAction(block.getLocation(), Flags.EXPLOSION,
+                            block.getType().name(), type));
+                    return true;
+                };
+                break;
             case "REGION":
-                class ExplosionListenerRegion implements Listener {
-                    @EventHandler
-                    public void onBlockExplode(BlockExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        if (permissionManager.checkAction(event.getBlock().getLocation(), Flags.EXPLOSION,
-                                event.getBlock().getType().name(), event.getExplodedBlockState().getType())) {
-                            Region region = plugin.getRegionManager()
-                                    .getEffectiveRegionAt(BlockLocation.of(event.getBlock().getLocation()),
-                                            World.of(event.getBlock().getWorld()));
-                            event.blockList().removeIf(block -> !Objects.equals(
-                                    plugin.getRegionManager()
-                                            .getEffectiveRegionAt(BlockLocation.of(block.getLocation()),
-                                                    World.of(block.getWorld())), region));
-                        } else {
-                            event.setCancelled(true);
-                        }
+                filter = (origin, type, blocks) -> {
+                    if (!permissionManager.checkAction(origin, Flags.EXPLOSION, type)) {
+                        return false;
                     }
-
-                    @EventHandler
-                    public void onEntityExplode(EntityExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        Location location = switch (event.getEntity().getType()) {
-                            case TNT, TNT_MINECART -> event.getEntity().getOrigin();
-                            default -> event.getEntity().getLocation();
-                        };
-                        if (permissionManager.checkAction(location, Flags.EXPLOSION,
-                                event.getEntityType().name())) {
-                            Region region = plugin.getRegionManager()
-                                    .getEffectiveRegionAt(BlockLocation.of(location), World.of(location.getWorld()));
-                            event.blockList().removeIf(block -> !Objects.equals(
-                                    plugin.getRegionManager()
-                                            .getEffectiveRegionAt(BlockLocation.of(block.getLocation()),
-                                                    World.of(block.getWorld())), region));
-                        } else {
-                            event.setCancelled(true);
-                        }
-                    }
-                }
-                plugin.getServer().getPluginManager().registerEvents(new ExplosionListenerRegion(), plugin);
-                return;
+                    Region region = plugin.getRegionManager()
+                            .getEffectiveRegionAt(BlockLocation.of(origin), World.of(origin.getWorld()));
+                    blocks.removeIf(block -> !Objects.equals(
+                            plugin.getRegionManager()
+                                    .getEffectiveRegionAt(BlockLocation.of(block.getLocation()),
+                                            World.of(block.getWorld())), region));
+                    return true;
+                };
+                break;
             case "SOURCE":
-                class ExplosionListenerBlock implements Listener {
-                    @EventHandler
-                    public void onBlockExplode(BlockExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        if (!permissionManager.checkAction(event.getBlock().getLocation(), Flags.EXPLOSION,
-                                event.getExplodedBlockState().getType().name())) {
-                            event.setCancelled(true);
-                        }
-                    }
-
-                    @EventHandler
-                    public void onEntityExplode(EntityExplodeEvent event) {
-                        if (limitExceeded()) {
-                            if (limitExceededCancel) {
-                                event.setCancelled(true);
-                            }
-                            return;
-                        }
-                        if (!permissionManager.checkAction(event.getEntity().getOrigin(), Flags.EXPLOSION,
-                                event.getEntityType().name())) {
-                            event.setCancelled(true);
-                        }
-                    }
-                }
-                plugin.getServer().getPluginManager().registerEvents(new ExplosionListenerBlock(), plugin);
-                return;
+                filter = (origin, type, blocks) -> permissionManager.checkAction(origin, Flags.EXPLOSION, type);
+                break;
             default:
+                return;
+        }
+        plugin.getServer().getPluginManager().registerEvents(new ExplosionListener(), plugin);
+    }
+
+    private class ExplosionListener implements Listener {
+        @EventHandler
+        public void onBlockExplode(BlockExplodeEvent event) {
+            if (event instanceof DeferredExplodeEvent) {
+                return; // Checked before it was called
+            }
+            handle(event, event.getBlock().getLocation(), event.getExplodedBlockState().getType().name(),
+                    event.blockList(), event.getYield(), event.getExplosionResult());
+        }
+
+        @EventHandler
+        public void onEntityExplode(EntityExplodeEvent event) {
+            Location origin = switch (event.getEntity().getType()) {
+                case TNT, TNT_MINECART -> event.getEntity().getOrigin();
+                default -> null;
+            };
+            handle(event, origin != null ? origin : event.getLocation(), event.getEntityType().name(),
+                    event.blockList(), event.getYield(), event.getExplosionResult());
+        }
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long updated;
+
+        TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.updated = now;
+        }
+
+        private void refill(long now, int perTick, int capacity) {
+            tokens = Math.min(capacity, tokens + (double) (now - updated) * perTick / TICK_NANOS);
+            updated = now;
+        }
+
+        synchronized boolean tryAcquire(long now, int perTick, int capacity) {
+            refill(now, perTick, capacity);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized int available(long now, int perTick, int capacity) {
+            refill(now, perTick, capacity);
+            return (int) tokens;
+        }
+
+        synchronized boolean isFull(long now, int perTick, int capacity) {
+            refill(now, perTick, capacity);
+            return tokens >= capacity;
         }
     }
 
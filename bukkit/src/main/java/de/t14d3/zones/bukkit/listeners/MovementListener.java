@@ -0,0 +1,97 @@
+package de.t14d3.zones.bukkit.listeners;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionManager;
+import de.t14d3.zones.RegionTracker;
+import de.t14d3.zones.bukkit.ZonesBukkit;
+import de.t14d3.zones.bukkit.events.RegionEnterEvent;
+import de.t14d3.zones.bukkit.events.RegionLeaveEvent;
+import de.t14d3.zones.objects.PlayerRepository;
+import de.t14d3.zones.objects.World;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+
+/**
+ * Keeps the {@link RegionTracker} up to date and calls {@link RegionEnterEvent} and {@link RegionLeaveEvent}.
+ */
+public class MovementListener implements Listener {
+    private final ZonesBukkit plugin;
+    private final RegionManager regionManager;
+    private final RegionTracker tracker;
+    private long sweptModifications;
+
+    public MovementListener(ZonesBukkit plugin) {
+        this.plugin = plugin;
+        this.regionManager = plugin.getRegionManager();
+        this.tracker = plugin.getZones().getRegionTracker();
+        tracker.addListener(this::callEvents);
+        // Regions can also change around players that do not move
+        plugin.getServer().getGlobalRegionScheduler().runAtFixedRate(plugin, task -> sweep(), 20L, 20L);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (event.hasChangedBlock()) {
+            track(event.getPlayer(), event.getTo());
+        }
+    }
+
+    // Teleports have their own handler list, so they are not passed to onPlayerMove
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        track(event.getPlayer(), event.getTo());
+    }
+
+    // Portal teleports also have their own handler list, changing worlds covers them
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        track(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        track(event.getPlayer(), event.getPlayer().getLocation());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        track(event.getPlayer(), event.getRespawnLocation());
+    }
+
+    private void track(Player player, Location location) {
+        tracker.update(PlayerRepository.get(player.getUniqueId()), World.of(location.getWorld()),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    private void sweep() {
+        long modifications = regionManager.getModificationCount();
+        if (modifications == sweptModifications) {
+            return;
+        }
+        sweptModifications = modifications;
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            player.getScheduler().run(plugin, task -> track(player, player.getLocation()), null);
+        }
+    }
+
+    private void callEvents(RegionTracker.Transition transition) {
+        Player player = plugin.getServer().getPlayer(transition.player().getUUID());
+        if (player == null) {
+            return;
+        }
+        for (Region region : transition.left()) {
+            plugin.getServer().getPluginManager().callEvent(new RegionLeaveEvent(player, region));
+        }
+        for (Region region : transition.entered()) {
+            plugin.getServer().getPluginManager().callEvent(new RegionEnterEvent(player, region));
+        }
+    }
+}
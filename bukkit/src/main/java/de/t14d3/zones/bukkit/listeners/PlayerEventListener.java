@@ -4,20 +4,18 @@ import de.t14d3.zones.Region;
 import de.t14d3.zones.RegionManager;
 import de.t14d3.zones.bukkit.BukkitPermissionManager;
 import de.t14d3.zones.bukkit.BukkitPlatform;
+import de.t14d3.zones.bukkit.BukkitTypes;
 import de.t14d3.zones.bukkit.ZonesBukkit;
 import de.t14d3.zones.objects.*;
 import de.t14d3.zones.permissions.flags.Flags;
 import de.t14d3.zones.utils.Messages;
+import de.t14d3.zones.utils.Types;
 import de.t14d3.zones.utils.Utils;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
-import org.bukkit.block.BlockState;
-import org.bukkit.block.Container;
-import org.bukkit.block.data.BlockData;
-import org.bukkit.block.data.Powerable;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -119,51 +117,66 @@ public class PlayerEventListener implements Listener {
         }
 
         List<Flag> requiredPermissions = new ArrayList<>(); // Collect required permissions
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (zplayer.hasCachedPermission(de.t14d3.zones.objects.Player.BYPASS_CLAIMED)) {
             return;
         }
         // Interactable blocks
-        if ((isContainer(event.getClickedBlock().getState(false)) || isPowerable(
-                event.getClickedBlock().getBlockData())) && event.getAction() == Action.RIGHT_CLICK_BLOCK) {
+        Material material = event.getClickedBlock().getType();
+        int classes = BukkitTypes.classify(material);
+        if ((classes & Types.INTERACT) != 0 && event.getAction() == Action.RIGHT_CLICK_BLOCK) {
             requiredPermissions.add(Flags.INTERACT);
-            if (isContainer(event.getClickedBlock().getState(false))) {
+            if ((classes & Types.CONTAINER) != 0) {
                 requiredPermissions.add(Flags.CONTAINER);
             }
-            if (isPowerable(event.getClickedBlock().getBlockData())) {
+            if ((classes & Types.REDSTONE) != 0) {
                 requiredPermissions.add(Flags.REDSTONE);
             }
-            if (event.getClickedBlock().getType() == Material.TNT) {
+            if ((classes & Types.IGNITE) != 0) {
                 requiredPermissions.add(Flags.IGNITE);
             }
         } else return;
         for (Flag action : requiredPermissions) {
-            if (!permissionManager.checkAction(location, playerUUID, action,
-                    event.getClickedBlock().getType().name())) {
+            if (!permissionManager.checkAction(location, playerUUID, action, material.name())) {
                 event.setCancelled(true);
-                actionBar(player, location, requiredPermissions, event.getClickedBlock().getType().name());
+                actionBar(player, location, requiredPermissions, material.name());
             }
         }
     }
 
+    /**
+     * LuckPerms and most other permission plugins resend the commands of a player after their permissions changed.
+     */
+    @EventHandler
+    private void onCommandsSent(PlayerCommandSendEvent event) {
+        PlayerRepository.get(event.getPlayer().getUniqueId()).invalidatePermissions();
+    }
+
+    @EventHandler
+    private void onWorldChange(PlayerChangedWorldEvent event) {
+        PlayerRepository.get(event.getPlayer().getUniqueId()).invalidatePermissions();
+    }
+
     @EventHandler
     private void onBlockPlace(BlockPlaceEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
-        String type = event.getBlockPlaced().getType().name();
+        Material material = event.getBlockPlaced().getType();
+        String type = material.name();
         Location location = event.getBlockPlaced().getLocation();
         List<Flag> requiredPermissions = new ArrayList<>();
         requiredPermissions.add(Flags.PLACE);
-        if (isContainer(event.getBlockPlaced().getState(false))) {
+        int classes = BukkitTypes.classify(material);
+        if ((classes & Types.CONTAINER) != 0) {
             requiredPermissions.add(Flags.CONTAINER);
         }
-        if (isPowerable(event.getBlockPlaced().getBlockData())) {
+        if ((classes & Types.REDSTONE) != 0) {
             requiredPermissions.add(Flags.REDSTONE);
         }
         for (Flag action : requiredPermissions) {
-            if (!permissionManager.checkAction(event.getBlockPlaced().getLocation(), player.getUniqueId(), action,
-                    type.toLowerCase())) {
+            if (!permissionManager.checkAction(location, player.getUniqueId(), action,
+                    BukkitTypes.id(material))) {
                 event.setCancelled(true);
                 actionBar(player, location, requiredPermissions, type);
             }
@@ -174,22 +187,24 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onBlockBreak(BlockBreakEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
-        String type = event.getBlock().getType().name();
+        Material material = event.getBlock().getType();
+        String type = material.name();
         Location location = event.getBlock().getLocation();
         List<Flag> requiredPermissions = new ArrayList<>();
         requiredPermissions.add(Flags.BREAK);
-        if (isContainer(event.getBlock().getState(false))) {
+        int classes = BukkitTypes.classify(material);
+        if ((classes & Types.CONTAINER) != 0) {
             requiredPermissions.add(Flags.CONTAINER);
         }
-        if (isPowerable(event.getBlock().getBlockData())) {
+        if ((classes & Types.REDSTONE) != 0) {
             requiredPermissions.add(Flags.REDSTONE);
         }
         for (Flag action : requiredPermissions) {
-            if (!permissionManager.checkAction(event.getBlock().getLocation(), player.getUniqueId(), action,
-                    type.toLowerCase())) {
+            if (!permissionManager.checkAction(location, player.getUniqueId(), action,
+                    BukkitTypes.id(material))) {
                 event.setCancelled(true);
                 actionBar(player, location, requiredPermissions, type);
             }
@@ -201,7 +216,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onEntityInteract(PlayerInteractEntityEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
         Location location = event.getRightClicked().getLocation();
@@ -220,7 +235,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onEntityDamage(EntityDamageByEntityEvent event) {
         if (event.getDamager() instanceof Player player) {
-            if (player.hasPermission("zones.bypass.claimed")) {
+            if (bypass(player)) {
                 return;
             }
             Location location = event.getEntity().getLocation();
@@ -239,7 +254,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onVehicleDamage(VehicleDamageEvent event) {
         if (event.getAttacker() instanceof Player player) {
-            if (player.hasPermission("zones.bypass.claimed")) {
+            if (bypass(player)) {
                 return;
             }
             Location location = event.getVehicle().getLocation();
@@ -258,7 +273,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onArmorStandManipulate(PlayerArmorStandManipulateEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
         Location location = event.getRightClicked().getLocation();
@@ -277,7 +292,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onHangingPlace(HangingPlaceEvent event) {
         Player player = event.getPlayer();
-        if (player == null || player.hasPermission("zones.bypass.claimed")) {
+        if (player == null || bypass(player)) {
             return;
         }
         Location location = event.getEntity().getLocation();
@@ -295,7 +310,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onHangingBreak(HangingBreakByEntityEvent event) {
         Player player = (Player) event.getRemover();
-        if (player == null || player.hasPermission("zones.bypass.claimed")) {
+        if (player == null || bypass(player)) {
             return;
         }
         Location location = event.getEntity().getLocation();
@@ -314,7 +329,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onEntityPlace(EntityPlaceEvent event) {
         Player player = event.getPlayer();
-        if (player == null || player.hasPermission("zones.bypass.claimed")) {
+        if (player == null || bypass(player)) {
             return;
         }
         Location location = event.getEntity().getLocation();
@@ -333,7 +348,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onBucketFill(PlayerBucketFillEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
         Location location = event.getBlockClicked().getLocation();
@@ -352,7 +367,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onBucketFillEntity(PlayerBucketEntityEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
         Location location = event.getEntity().getLocation();
@@ -371,7 +386,7 @@ public class PlayerEventListener implements Listener {
     @EventHandler
     private void onBucketEmpty(PlayerBucketEmptyEvent event) {
         Player player = event.getPlayer();
-        if (player.hasPermission("zones.bypass.claimed")) {
+        if (bypass(player)) {
             return;
         }
         Location location = event.getBlockClicked().getLocation();
@@ -397,6 +412,11 @@ public class PlayerEventListener implements Listener {
         }
     }
 
+    private boolean bypass(Player player) {
+        return PlayerRepository.get(player.getUniqueId()).hasCachedPermission(
+                de.t14d3.zones.objects.Player.BYPASS_CLAIMED);
+    }
+
     // Small util for message
     static final String METADATA_KEY = "zones_last_actionbar";
     private void actionBar(Player player, Location location, List<Flag> actions, String type) {
@@ -430,12 +450,4 @@ public class PlayerEventListener implements Listener {
         // Update last sent tick
         player.setMetadata(METADATA_KEY, new FixedMetadataValue(plugin, currentTick));
     }
-
-    public static boolean isContainer(BlockState state) {
-        return state instanceof Container;
-    }
-
-    public static boolean isPowerable(BlockData data) {
-        return data instanceof Powerable;
-    }
 }
@@ -21,6 +21,7 @@ public class PlayerQuitListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         java.util.UUID uuid = event.getPlayer().getUniqueId();
         PlayerRepository.remove(uuid);
+        zones.getFindBossbar().remove(uuid);
         cacheUtils.invalidateInteractionCache(uuid);
         cacheUtils.invalidateCache(uuid.toString());
     }
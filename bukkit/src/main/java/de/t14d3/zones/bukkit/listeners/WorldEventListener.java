@@ -3,8 +3,10 @@ package de.t14d3.zones.bukkit.listeners;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.objects.World;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 
 public class WorldEventListener implements Listener {
     private final Zones plugin;
@@ -18,4 +20,9 @@ public class WorldEventListener implements Listener {
     public void onWorldLoad(WorldLoadEvent event) {
         plugin.getRegionManager().loadRegions(World.of(event.getWorld()));
     }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        plugin.getRegionManager().unloadRegions(World.of(event.getWorld()));
+    }
 }
@@ -29,7 +29,6 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.Executors;
 
 public class FabricPlatform implements ZonesPlatform {
     private final ZonesFabric mod;
@@ -58,6 +57,10 @@ public class FabricPlatform implements ZonesPlatform {
 
     @Override
     public Player getPlayer(UUID uuid) {
+        Player known = PlayerRepository.getIfPresent(uuid);
+        if (known != null) {
+            return known;
+        }
         String name = mod.getServer().getProfileCache().get(uuid).get().getName();
         return PlayerRepository.getOrAdd(name, uuid);
     }
@@ -167,7 +170,7 @@ public class FabricPlatform implements ZonesPlatform {
     }
 
     private void showBeacon(ServerPlayer player, BlockLocation location, NamedTextColor color) {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        mod.getZones().getScheduler().execute(() -> {
             Registry<Block> blocks = mod.getServer().registryAccess().lookupOrThrow(Registries.BLOCK);
             for (BeaconUtils.BlockChange change : BeaconUtils.createList(location.setY(location.getY() + 1), color)) {
                 BlockPos nativePos = new BlockPos(change.getX(), change.getY(), change.getZ());
@@ -195,4 +198,12 @@ public class FabricPlatform implements ZonesPlatform {
             nativePlayer.connection.send(new ClientboundBlockUpdatePacket(nativePos, state));
         }
     }
+
+    @Override
+    public void runTask(Runnable task) {
+        MinecraftServer server = mod.getServer();
+        if (server != null) {
+            server.execute(task);
+        }
+    }
 }
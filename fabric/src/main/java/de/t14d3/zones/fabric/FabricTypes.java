@@ -1,10 +1,19 @@
 package de.t14d3.zones.fabric;
 
 import de.t14d3.zones.utils.Types;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
 
 public class FabricTypes extends Types {
+    /**
+     * Classification bits per block, built when the server starts.
+     */
+    private static volatile Reference2IntMap<Block> classes;
     private final ZonesFabric mod;
 
     public FabricTypes(ZonesFabric mod) {
@@ -15,21 +24,26 @@ public class FabricTypes extends Types {
     @Override
     public void populateTypes() {
         ServerLifecycleEvents.SERVER_STARTING.register(server -> {
+            Reference2IntOpenHashMap<Block> table = new Reference2IntOpenHashMap<>();
             server.registryAccess().lookupOrThrow(Registries.BLOCK).forEach(block -> {
                 final String id = block.getDescriptionId().replace("block.minecraft.", "");
                 blockTypes.add(id);
                 blockTypes.add("!" + id);
                 allTypes.add(id);
                 allTypes.add("!" + id);
-                if (block.defaultBlockState().hasBlockEntity()) {
+                int bits = compute(block);
+                table.put(block, bits);
+                if ((bits & CONTAINER) != 0) {
                     containerTypes.add(id);
                     containerTypes.add("!" + id);
                 }
-                if (block.defaultBlockState().isSignalSource()) {
+                if ((bits & REDSTONE) != 0) {
                     redstoneTypes.add(id);
                     redstoneTypes.add("!" + id);
                 }
             });
+            table.trim();
+            classes = table;
             server.registryAccess().lookupOrThrow(Registries.ENTITY_TYPE).forEach(entity -> {
                 final String id = entity.getDescriptionId().replace("entity.minecraft.", "");
                 entityTypes.add(id);
@@ -39,4 +53,30 @@ public class FabricTypes extends Types {
             });
         });
     }
+
+    /**
+     * Classifies a block by its default state.
+     *
+     * @return The {@link Types#CONTAINER}, {@link Types#REDSTONE}, {@link Types#IGNITE} and {@link Types#INTERACT}
+     * bits of the block
+     */
+    public static int classify(Block block) {
+        Reference2IntMap<Block> table = classes;
+        return table != null ? table.getInt(block) : compute(block);
+    }
+
+    private static int compute(Block block) {
+        BlockState state = block.defaultBlockState();
+        int bits = block == Blocks.TNT ? IGNITE : 0;
+        if (state.hasBlockEntity()) {
+            bits |= CONTAINER;
+        }
+        if (state.isSignalSource()) {
+            bits |= REDSTONE;
+        }
+        if ((bits & (CONTAINER | REDSTONE)) != 0) {
+            bits |= INTERACT;
+        }
+        return bits;
+    }
 }
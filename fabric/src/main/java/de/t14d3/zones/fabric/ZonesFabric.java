@@ -4,11 +4,14 @@ import de.t14d3.zones.RegionManager;
 import de.t14d3.zones.Zones;
 import de.t14d3.zones.ZonesPlatform;
 import de.t14d3.zones.fabric.commands.RootCommand;
+import de.t14d3.zones.fabric.listeners.MovementListener;
 import de.t14d3.zones.fabric.listeners.PlayerListener;
+import de.t14d3.zones.objects.World;
 import de.t14d3.zones.utils.Messages;
 import de.t14d3.zones.utils.Types;
 import me.lucko.fabric.api.permissions.v0.PermissionCheckEvent;
 import net.fabricmc.api.DedicatedServerModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.util.TriState;
 import net.fabricmc.loader.api.FabricLoader;
@@ -55,12 +58,28 @@ public class ZonesFabric implements DedicatedServerModInitializer {
 
         this.rootCommand = new RootCommand(this);
 
+        if (regionManager.isLazyLoading()) {
+            ServerChunkEvents.CHUNK_LOAD.register((level, chunk) -> {
+                World world = getPlatform().getWorld(level);
+                if (world != null) {
+                    regionManager.onChunkLoad(world, chunk.getPos().x, chunk.getPos().z);
+                }
+            });
+            ServerChunkEvents.CHUNK_UNLOAD.register((level, chunk) -> {
+                World world = getPlatform().getWorld(level);
+                if (world != null) {
+                    regionManager.onChunkUnload(world, chunk.getPos().x, chunk.getPos().z);
+                }
+            });
+        }
+
         Zones.getInstance().getLogger().info("Zones Fabric mod initialized!");
     }
 
     private void onEnable(@NotNull MinecraftServer server) {
         this.server = server;
         this.playerListener = new PlayerListener(this);
+        new MovementListener(this);
 
         // If luckperms is not loaded, register our own scuffed permission system,
         // otherwise skip to have luckperms handle permissions
@@ -87,8 +106,8 @@ public class ZonesFabric implements DedicatedServerModInitializer {
         regionManager.loadRegions();
         zones.getLogger().info("Mod enabled, loaded {} regions.", zones.getRegionManager().regions().size());
 
-        String primaryType = zones.getConfig().getString("selection-particles.primary", "WAX_OFF").toLowerCase();
-        String secondaryType = zones.getConfig().getString("selection-particles.secondary", "WAX_ON").toLowerCase();
+        String primaryType = zones.getConfig().getString("visuals.particles.primary", "WAX_OFF").toLowerCase();
+        String secondaryType = zones.getConfig().getString("visuals.particles.secondary", "WAX_ON").toLowerCase();
         Registry<ParticleType<?>> registry = server.registryAccess().lookupOrThrow(Registries.PARTICLE_TYPE);
         ((FabricPlatform) platform).primary = (SimpleParticleType) registry.get(
                 ResourceLocation.withDefaultNamespace(primaryType)).get().value();
@@ -98,6 +117,8 @@ public class ZonesFabric implements DedicatedServerModInitializer {
 
     private void onDisable(MinecraftServer server) {
         regionManager.saveRegions();
+        zones.shutdown();
+        regionManager.getDataSourceManager().close();
     }
 
     public File getDataFolder() {
@@ -0,0 +1,68 @@
+package de.t14d3.zones.fabric.commands;
+
+import com.mojang.brigadier.context.CommandContext;
+import de.t14d3.zones.datasource.DataSourceManager;
+import de.t14d3.zones.datasource.RegionArchive;
+import de.t14d3.zones.fabric.ZonesFabric;
+import de.t14d3.zones.utils.Messages;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.minecraft.commands.CommandSourceStack;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.unparsed;
+
+public class ExportCommand {
+    private final ZonesFabric mod;
+    private final MiniMessage mm = MiniMessage.miniMessage();
+
+    public ExportCommand(ZonesFabric mod) {
+        this.mod = mod;
+    }
+
+    int execute(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        Messages messages = mod.getMessages();
+        String name = context.getArgument("file", String.class);
+        File file = RegionArchive.resolve(mod.getZones(), name);
+        if (file == null) {
+            source.sendMessage(mm.deserialize(messages.get("commands.export.invalid-file"), unparsed("file", name)));
+            return 1;
+        }
+        if (RegionArchive.isRunning()) {
+            source.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+            return 1;
+        }
+        source.sendMessage(mm.deserialize(messages.get("commands.export.started"), unparsed("file", name)));
+
+        // Make sure the current datasource contains all changes before streaming from it
+        DataSourceManager dataSourceManager = mod.getRegionManager().getDataSourceManager();
+        dataSourceManager.flush(mod.getRegionManager().regions().values().stream().toList())
+                .thenRun(() -> export(source, dataSourceManager, file));
+        return 1;
+    }
+
+    private void export(CommandSourceStack source, DataSourceManager dataSourceManager, File file) {
+        Messages messages = mod.getMessages();
+        CompletableFuture<RegionArchive.ExportResult> future = new RegionArchive(mod.getZones(), dataSourceManager)
+                .export(file, progress -> source.sendMessage(mm.deserialize(messages.get("commands.import.progress"),
+                        parsed("count", String.valueOf(progress.processed())),
+                        parsed("rate", String.valueOf(Math.round(progress.regionsPerSecond()))))));
+        if (future == null) {
+            source.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+            return;
+        }
+        future.thenAccept(result -> {
+            if (!result.success()) {
+                source.sendMessage(mm.deserialize(messages.get("commands.export.failed")));
+                return;
+            }
+            source.sendMessage(mm.deserialize(messages.get("commands.export.success"),
+                    parsed("count", String.valueOf(result.exported())),
+                    unparsed("file", file.getName()),
+                    parsed("seconds", String.valueOf(result.millis() / 1000))));
+        });
+    }
+}
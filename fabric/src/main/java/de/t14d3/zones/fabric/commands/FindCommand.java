@@ -15,13 +15,7 @@ public class FindCommand {
     int execute(CommandContext<CommandSourceStack> context) {
         if (context.getSource().getPlayer() != null) {
             Player player = mod.getPlatform().getPlayer(context.getSource().getPlayer().getUUID());
-            if (mod.getZones().getFindBossbar().players.containsKey(player)) {
-                mod.getPlatform().getAudience(player).hideBossBar(mod.getZones().getFindBossbar().players.get(player));
-                mod.getZones().getFindBossbar().players.remove(player);
-            } else {
-                mod.getZones().getFindBossbar().players.put(player,
-                        null); // null to let the bossbar handler do the creation
-            }
+            mod.getZones().getFindBossbar().toggle(player);
         } else {
             context.getSource().sendMessage(mod.getMessages().getCmp("commands.only-player"));
         }
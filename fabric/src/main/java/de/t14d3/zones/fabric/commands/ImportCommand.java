@@ -0,0 +1,62 @@
+package de.t14d3.zones.fabric.commands;
+
+import com.mojang.brigadier.context.CommandContext;
+import de.t14d3.zones.datasource.RegionArchive;
+import de.t14d3.zones.fabric.ZonesFabric;
+import de.t14d3.zones.utils.Messages;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.minecraft.commands.CommandSourceStack;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
+import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.unparsed;
+
+public class ImportCommand {
+    private final ZonesFabric mod;
+    private final MiniMessage mm = MiniMessage.miniMessage();
+
+    public ImportCommand(ZonesFabric mod) {
+        this.mod = mod;
+    }
+
+    int execute(CommandContext<CommandSourceStack> context, boolean dryRun) {
+        CommandSourceStack source = context.getSource();
+        Messages messages = mod.getMessages();
+        String name = context.getArgument("file", String.class);
+        File file = RegionArchive.resolve(mod.getZones(), name);
+        if (file == null) {
+            source.sendMessage(mm.deserialize(messages.get("commands.import.invalid-file"), unparsed("file", name)));
+            return 1;
+        }
+        if (!file.isFile()) {
+            source.sendMessage(mm.deserialize(messages.get("commands.import.file-missing"), unparsed("file", name)));
+            return 1;
+        }
+        RegionArchive archive = new RegionArchive(mod.getZones(), mod.getRegionManager().getDataSourceManager());
+        CompletableFuture<RegionArchive.ImportResult> future = archive.importRegions(file, dryRun,
+                progress -> source.sendMessage(mm.deserialize(messages.get("commands.import.progress"),
+                        parsed("count", String.valueOf(progress.processed())),
+                        parsed("rate", String.valueOf(Math.round(progress.regionsPerSecond()))))));
+        if (future == null) {
+            source.sendMessage(mm.deserialize(messages.get("commands.import.running")));
+            return 1;
+        }
+        source.sendMessage(mm.deserialize(messages.get("commands.import.started")));
+        future.thenAccept(result -> {
+            result.errors().forEach(error -> source.sendMessage(
+                    mm.deserialize(messages.get("commands.import.line-error"), unparsed("error", error))));
+            if (!result.success()) {
+                source.sendMessage(mm.deserialize(messages.get("commands.import.failed")));
+                return;
+            }
+            source.sendMessage(mm.deserialize(messages.get(result.dryRun()
+                            ? "commands.import.validated" : "commands.import.file-success"),
+                    parsed("count", String.valueOf(result.imported())),
+                    unparsed("file", name),
+                    parsed("invalid", String.valueOf(result.invalid()))));
+        });
+        return 1;
+    }
+}
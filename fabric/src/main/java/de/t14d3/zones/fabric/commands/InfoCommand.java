@@ -6,14 +6,15 @@ import de.t14d3.zones.RegionKey;
 import de.t14d3.zones.RegionManager;
 import de.t14d3.zones.fabric.ZonesFabric;
 import de.t14d3.zones.objects.BlockLocation;
-import de.t14d3.zones.objects.Player;
 import de.t14d3.zones.objects.World;
 import de.t14d3.zones.utils.Messages;
 import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.kyori.adventure.text.Component;
 import net.minecraft.commands.CommandSourceStack;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 public class InfoCommand {
     private final ZonesFabric mod;
@@ -27,34 +28,54 @@ public class InfoCommand {
     }
 
     int execute(CommandContext<CommandSourceStack> context) {
-        List<Region> regions = new ArrayList<>();
-        Player player = null;
+        CommandSourceStack source = context.getSource();
+        RegionKey key = null;
+        UUID uuid = null;
+        BlockLocation location = null;
+        World world = null;
         try {
-            regions.add(regionManager.regions()
-                    .get(RegionKey.fromString(context.getArgument("key", String.class)).getValue()));
+            key = RegionKey.fromString(context.getArgument("key", String.class));
         } catch (Exception ignored) {
-            if (context.getSource().getPlayer() != null) {
-                player = mod.getPlatform().getPlayer(context.getSource().getPlayer().getUUID());
-
-                BlockLocation location = new BlockLocation(context.getSource().getPlayer().getBlockX(),
-                        context.getSource().getPlayer().getBlockY(),
-                        context.getSource().getPlayer().getBlockZ());
-                World world = (mod.getPlatform()).getWorld(
-                        context.getSource().getPlayer().getCommandSenderWorld());
-                regions = regionManager.getRegionsAt(location, world);
-            } else {
+            if (source.getPlayer() == null) {
                 // Sender is not player and no region key provided
-                context.getSource().sendMessage(messages.getCmp("commands.invalid-region"));
+                source.sendMessage(messages.getCmp("commands.invalid-region"));
                 return 1;
             }
         }
-        for (Region region : regions) {
-            if (Permissions.check(context.getSource(), "zones.info.other")) {
-                context.getSource().sendMessage(Messages.regionInfo(region, true));
-            } else if (player != null && region.isMember(player.getUniqueId())) {
-                context.getSource().sendMessage(Messages.regionInfo(region, region.isAdmin(player.getUniqueId())));
-            }
+        if (source.getPlayer() != null) {
+            uuid = source.getPlayer().getUUID();
+            location = new BlockLocation(source.getPlayer().getBlockX(), source.getPlayer().getBlockY(),
+                    source.getPlayer().getBlockZ());
+            world = mod.getPlatform().getWorld(source.getPlayer().getCommandSenderWorld());
         }
+
+        // Everything depending on the sender is read here, the lookup and rendering run in the background
+        boolean perm = Permissions.check(source, "zones.info.other");
+        RegionKey regionKey = key;
+        UUID playerUuid = uuid;
+        BlockLocation playerLocation = location;
+        World playerWorld = world;
+        mod.getZones().getScheduler().executeOrRun(() -> {
+            List<Region> regions = new ArrayList<>();
+            if (regionKey != null) {
+                Region region = regionManager.regions().get(regionKey.getValue());
+                if (region != null) {
+                    regions.add(region);
+                }
+            } else {
+                regions = regionManager.getRegionsAt(playerLocation, playerWorld);
+            }
+
+            List<Component> infos = new ArrayList<>();
+            for (Region region : regions) {
+                if (perm) {
+                    infos.add(Messages.regionInfo(region, true));
+                } else if (playerUuid != null && region.isMember(playerUuid)) {
+                    infos.add(Messages.regionInfo(region, region.isAdmin(playerUuid)));
+                }
+            }
+            mod.getPlatform().runTask(() -> infos.forEach(source::sendMessage));
+        });
         return 1;
     }
 }
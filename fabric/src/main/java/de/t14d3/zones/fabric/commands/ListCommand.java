@@ -7,6 +7,7 @@ import de.t14d3.zones.fabric.FabricPlatform;
 import de.t14d3.zones.fabric.ZonesFabric;
 import de.t14d3.zones.objects.Player;
 import de.t14d3.zones.utils.Messages;
+import de.t14d3.zones.utils.ZonesScheduler;
 import me.lucko.fabric.api.permissions.v0.Permissions;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -15,6 +16,7 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.minecraft.commands.CommandSourceStack;
 
 import java.util.List;
+import java.util.UUID;
 
 import static net.kyori.adventure.text.minimessage.tag.resolver.Placeholder.parsed;
 
@@ -23,8 +25,10 @@ public class ListCommand {
     private final RegionManager regionManager;
     private final Messages messages;
     private final FabricPlatform platform;
+    private final ZonesScheduler scheduler;
 
     public ListCommand(ZonesFabric mod) {
+        this.scheduler = mod.getZones().getScheduler();
         this.regionManager = mod.getRegionManager();
         this.messages = mod.getMessages();
         this.platform = mod.getPlatform();
@@ -37,29 +41,33 @@ public class ListCommand {
         }
         Player player = context.getSource().getPlayer() != null ? platform.getPlayer(
                 context.getSource().getPlayer().getUUID()) : null;
-        List<Region> regions = regionManager.regions().values().parallelStream()
-                .filter(region -> perm || (player != null && region.isMember(player.getUniqueId())))
-                .toList();
-        if (regions.isEmpty()) {
-            context.getSource().sendMessage(messages.getCmp("region.none-found"));
-            return 1;
-        }
-        regions = regions.subList((page - 1) * 10, Math.min(regions.size(), page * 10));
-        Component[] msgs = new Component[regions.size()];
-        int i = 0;
-        for (Region region : regions) {
-            msgs[i] = Component.newline()
-                    .append(mm.deserialize(messages.get("region.info.name"),
-                                    parsed("name", region.getName()),
-                                    parsed("key", region.getKey().toString()))
-                            .hoverEvent(HoverEvent.showText(Messages.regionInfo(region,
-                                    (perm || region.isAdmin(player.getUniqueId())))))
-                            .clickEvent(ClickEvent.runCommand("/zone info " + region.getKey()))
-                    );
-            i++;
-        }
-        Component msg = Component.textOfChildren(msgs);
-        context.getSource().sendMessage(msg);
+        UUID uuid = player != null ? player.getUniqueId() : null;
+        int skip = (page - 1) * 10;
+        CommandSourceStack source = context.getSource();
+        // Filtering and rendering the hover texts is done off the server thread
+        scheduler.executeOrRun(() -> {
+            List<Region> regions = regionManager.findRegions(
+                    region -> perm || (uuid != null && region.isMember(uuid)), skip, 10);
+            if (regions.isEmpty()) {
+                platform.runTask(() -> source.sendMessage(messages.getCmp("region.none-found")));
+                return;
+            }
+            Component[] msgs = new Component[regions.size()];
+            int i = 0;
+            for (Region region : regions) {
+                msgs[i] = Component.newline()
+                        .append(mm.deserialize(messages.get("region.info.name"),
+                                        parsed("name", region.getName()),
+                                        parsed("key", region.getKey().toString()))
+                                .hoverEvent(HoverEvent.showText(Messages.regionInfo(region,
+                                        (perm || region.isAdmin(uuid)))))
+                                .clickEvent(ClickEvent.runCommand("/zone info " + region.getKey()))
+                        );
+                i++;
+            }
+            Component msg = Component.textOfChildren(msgs);
+            platform.runTask(() -> source.sendMessage(msg));
+        });
 
         return 1;
     }
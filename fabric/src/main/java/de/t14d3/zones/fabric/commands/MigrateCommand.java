@@ -1,16 +1,13 @@
 package de.t14d3.zones.fabric.commands;
 
 import com.mojang.brigadier.context.CommandContext;
-import de.t14d3.zones.Region;
-import de.t14d3.zones.datasource.AbstractDataSource;
 import de.t14d3.zones.datasource.DataSourceManager;
-import de.t14d3.zones.datasource.SQLDataSource;
-import de.t14d3.zones.datasource.YamlDataSource;
+import de.t14d3.zones.datasource.RegionMigration;
 import de.t14d3.zones.fabric.ZonesFabric;
 import net.kyori.adventure.text.Component;
 import net.minecraft.commands.CommandSourceStack;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MigrateCommand {
     private final ZonesFabric mod;
@@ -22,28 +19,48 @@ public class MigrateCommand {
     int execute(CommandContext<CommandSourceStack> context) {
         DataSourceManager.DataSourceTypes targetType = DataSourceManager.DataSourceTypes.valueOf(
                 context.getArgument("type", String.class).toUpperCase());
+        CommandSourceStack source = context.getSource();
 
         DataSourceManager dataSourceManager = mod.getRegionManager().getDataSourceManager();
-
-        // Load current regions from the existing datasource
-        List<Region> regions = dataSourceManager.loadRegions();
-
-        // Initialize target datasource
-        AbstractDataSource targetDataSource;
-        switch (targetType) {
-            case YAML:
-                targetDataSource = new YamlDataSource(mod.getDataFolder(), mod.getZones());
-                break;
-            case SQLITE, MYSQL, H2, POSTGRESQL, CUSTOM:
-                targetDataSource = new SQLDataSource(mod.getZones(), targetType);
-                break;
-            default:
-                context.getSource().sendMessage(Component.text("Invalid target datasource type."));
-                return 1;
+        if (targetType == dataSourceManager.getType()) {
+            source.sendMessage(Component.text("Regions are already stored in " + targetType + "."));
+            return 1;
+        }
+        if (RegionMigration.isRunning()) {
+            source.sendMessage(Component.text("A migration is already running."));
+            return 1;
         }
-        // Save regions to the new datasource
-        targetDataSource.saveRegions(regions);
-        context.getSource().sendMessage(Component.text("Migration to " + targetType + " completed successfully."));
+        source.sendMessage(Component.text("Starting migration to " + targetType + "..."));
+
+        // Make sure the current datasource contains all changes before streaming from it
+        dataSourceManager.flush(mod.getRegionManager().regions().values().stream().toList())
+                .thenRun(() -> migrate(source, dataSourceManager, targetType));
         return 1;
     }
+
+    private void migrate(CommandSourceStack source, DataSourceManager dataSourceManager,
+                         DataSourceManager.DataSourceTypes targetType) {
+        RegionMigration migration = new RegionMigration(mod.getZones(), dataSourceManager.getDataSource(),
+                dataSourceManager.getType(), DataSourceManager.createDataSource(mod.getZones(), targetType), targetType);
+        CompletableFuture<RegionMigration.Result> future = migration.start(progress -> source.sendMessage(
+                Component.text(String.format("Migrated %d/%d regions (%.0f regions/s)",
+                        progress.migrated(), progress.total(), progress.regionsPerSecond()))));
+        if (future == null) {
+            source.sendMessage(Component.text("A migration is already running."));
+            return;
+        }
+        future.thenAccept(result -> {
+            if (!result.success()) {
+                source.sendMessage(Component.text("Migration to " + targetType + " failed after "
+                        + result.migrated() + " regions, run the command again to resume."));
+            } else if (result.verified()) {
+                source.sendMessage(Component.text("Migration to " + targetType + " completed successfully. Migrated "
+                        + result.migrated() + " regions in " + result.millis() / 1000 + "s."));
+            } else {
+                source.sendMessage(Component.text("Migration to " + targetType + " completed, but verification failed: "
+                        + result.sourceCount() + " source and " + result.targetCount()
+                        + " target regions, checksums " + (result.checksumMatches() ? "match." : "differ.")));
+            }
+        });
+    }
 }
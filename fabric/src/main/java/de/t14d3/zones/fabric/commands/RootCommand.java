@@ -1,5 +1,6 @@
 package de.t14d3.zones.fabric.commands;
 
+import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
@@ -38,6 +39,8 @@ public class RootCommand {
     private final SaveCommand saveCommand;
     private final LoadCommand loadCommand;
     private final MigrateCommand migrateCommand;
+    private final ExportCommand exportCommand;
+    private final ImportCommand importCommand;
 
     public RootCommand(ZonesFabric mod) {
         RegionManager regionManager = mod.getRegionManager();
@@ -56,6 +59,8 @@ public class RootCommand {
         this.saveCommand = new SaveCommand(mod);
         this.loadCommand = new LoadCommand(mod);
         this.migrateCommand = new MigrateCommand(mod);
+        this.exportCommand = new ExportCommand(mod);
+        this.importCommand = new ImportCommand(mod);
         register();
     }
 
@@ -164,6 +169,23 @@ public class RootCommand {
                                         })
                                         .executes(migrateCommand::execute))
                         )
+                        .then(Commands.literal("export")
+                                .requires(source -> Permissions.check(source, "zones.export"))
+                                .then(Commands.argument("file", StringArgumentType.string())
+                                        .suggests((context, builder) -> {
+                                            builder.suggest("regions.ndjson");
+                                            builder.suggest("regions.ndjson.gz");
+                                            return builder.buildFuture();
+                                        })
+                                        .executes(exportCommand::execute)))
+                        .then(Commands.literal("import")
+                                .requires(source -> Permissions.check(source, "zones.import"))
+                                .then(Commands.literal("ndjson")
+                                        .then(Commands.argument("file", StringArgumentType.string())
+                                                .executes(context -> importCommand.execute(context, false))
+                                                .then(Commands.argument("dryRun", BoolArgumentType.bool())
+                                                        .executes(context -> importCommand.execute(context,
+                                                                context.getArgument("dryRun", Boolean.class)))))))
         ));
     }
 }
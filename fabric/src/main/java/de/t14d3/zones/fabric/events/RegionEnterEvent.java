@@ -0,0 +1,21 @@
+package de.t14d3.zones.fabric.events;
+
+import de.t14d3.zones.Region;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Called on the server thread after a player entered a region.
+ */
+@FunctionalInterface
+public interface RegionEnterEvent {
+    Event<RegionEnterEvent> EVENT = EventFactory.createArrayBacked(RegionEnterEvent.class,
+            listeners -> (player, region) -> {
+                for (RegionEnterEvent listener : listeners) {
+                    listener.onEnter(player, region);
+                }
+            });
+
+    void onEnter(ServerPlayer player, Region region);
+}
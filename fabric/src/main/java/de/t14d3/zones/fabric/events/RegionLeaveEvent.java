@@ -0,0 +1,21 @@
+package de.t14d3.zones.fabric.events;
+
+import de.t14d3.zones.Region;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.server.level.ServerPlayer;
+
+/**
+ * Called on the server thread after a player left a region.
+ */
+@FunctionalInterface
+public interface RegionLeaveEvent {
+    Event<RegionLeaveEvent> EVENT = EventFactory.createArrayBacked(RegionLeaveEvent.class,
+            listeners -> (player, region) -> {
+                for (RegionLeaveEvent listener : listeners) {
+                    listener.onLeave(player, region);
+                }
+            });
+
+    void onLeave(ServerPlayer player, Region region);
+}
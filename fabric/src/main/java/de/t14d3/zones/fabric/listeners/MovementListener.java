@@ -0,0 +1,58 @@
+package de.t14d3.zones.fabric.listeners;
+
+import de.t14d3.zones.Region;
+import de.t14d3.zones.RegionTracker;
+import de.t14d3.zones.fabric.FabricPlatform;
+import de.t14d3.zones.fabric.ZonesFabric;
+import de.t14d3.zones.fabric.events.RegionEnterEvent;
+import de.t14d3.zones.fabric.events.RegionLeaveEvent;
+import de.t14d3.zones.objects.World;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.Level;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the {@link RegionTracker} up to date and calls {@link RegionEnterEvent} and {@link RegionLeaveEvent}.
+ * <p>
+ * Fabric has no movement event, so the block position of every player is compared at the end of each tick.
+ */
+public class MovementListener {
+    private final ZonesFabric mod;
+    private final FabricPlatform platform;
+    private final RegionTracker tracker;
+    private final Map<Level, World> worlds = new IdentityHashMap<>();
+
+    public MovementListener(ZonesFabric mod) {
+        this.mod = mod;
+        this.platform = mod.getPlatform();
+        this.tracker = mod.getZones().getRegionTracker();
+        tracker.addListener(this::callEvents);
+        ServerTickEvents.END_SERVER_TICK.register(this::onTick);
+    }
+
+    private void onTick(MinecraftServer server) {
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            BlockPos pos = player.blockPosition();
+            World world = worlds.computeIfAbsent(player.level(), platform::getWorld);
+            tracker.update(platform.getPlayer(player.getUUID()), world, pos.getX(), pos.getY(), pos.getZ());
+        }
+    }
+
+    private void callEvents(RegionTracker.Transition transition) {
+        ServerPlayer player = mod.getServer().getPlayerList().getPlayer(transition.player().getUUID());
+        if (player == null) {
+            return;
+        }
+        for (Region region : transition.left()) {
+            RegionLeaveEvent.EVENT.invoker().onLeave(player, region);
+        }
+        for (Region region : transition.entered()) {
+            RegionEnterEvent.EVENT.invoker().onEnter(player, region);
+        }
+    }
+}
@@ -2,12 +2,17 @@ package de.t14d3.zones.fabric.listeners;
 
 import de.t14d3.zones.Region;
 import de.t14d3.zones.fabric.FabricPlatform;
+import de.t14d3.zones.fabric.FabricTypes;
 import de.t14d3.zones.fabric.ZonesFabric;
 import de.t14d3.zones.objects.BlockLocation;
 import de.t14d3.zones.objects.Box;
 import de.t14d3.zones.objects.Flag;
+import de.t14d3.zones.objects.PlayerRepository;
+import de.t14d3.zones.permissions.CacheUtils;
 import de.t14d3.zones.permissions.flags.Flags;
+import de.t14d3.zones.utils.Types;
 import net.fabricmc.fabric.api.event.player.*;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.minecraft.core.BlockPos;
@@ -23,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -37,6 +43,14 @@ public class PlayerListener {
         this.mod = mod;
         this.platform = mod.getPlatform();
 
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            UUID uuid = handler.getPlayer().getUUID();
+            PlayerRepository.remove(uuid);
+            mod.getZones().getFindBossbar().remove(uuid);
+            CacheUtils.getInstance().invalidateInteractionCache(uuid);
+            CacheUtils.getInstance().invalidateCache(uuid.toString());
+        });
+
         UseBlockCallback.EVENT.register((player, world, hand, hitResult) -> {
             de.t14d3.zones.objects.Player zplayer = platform.getPlayer(player.getUUID());
             if (zplayer.getSelection() != null && zplayer.isSelectionCreating()) {
@@ -72,10 +86,11 @@ public class PlayerListener {
                     ? Block.byItem(itemStack.getItem())
                     : world.getBlockState(getOffset(hitResult)).getBlock();
 
-            if (block.defaultBlockState().hasBlockEntity()) {
+            int classes = FabricTypes.classify(block);
+            if ((classes & Types.CONTAINER) != 0) {
                 flags.add(Flags.CONTAINER);
             }
-            if (block.defaultBlockState().isSignalSource()) {
+            if ((classes & Types.REDSTONE) != 0) {
                 flags.add(Flags.REDSTONE);
             }
 
@@ -123,10 +138,11 @@ public class PlayerListener {
             AtomicBoolean result = new AtomicBoolean(true);
             List<Flag> flags = new ArrayList<>();
             flags.add(Flags.BREAK);
-            if (state.hasBlockEntity()) {
+            int classes = FabricTypes.classify(state.getBlock());
+            if ((classes & Types.CONTAINER) != 0) {
                 flags.add(Flags.CONTAINER);
             }
-            if (state.isSignalSource()) {
+            if ((classes & Types.REDSTONE) != 0) {
                 flags.add(Flags.REDSTONE);
             }
             for (Flag flag : flags) {